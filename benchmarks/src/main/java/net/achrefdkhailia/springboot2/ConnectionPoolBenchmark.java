@@ -0,0 +1,97 @@
+package net.achrefdkhailia.springboot2;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test of the data source under 8 concurrent threads, each borrowing a connection,
+ * reading one employee by id and giving the connection back (the shape of GET /api/v1/employees/{id}).
+ * DRIVER_MANAGER is the former DriverManagerDataSource (a new JDBC connection per borrow),
+ * HIKARI the pool with the application's settings. Throughput and the latency percentiles (p0.99 ...) are reported.
+ *
+ * java -jar benchmarks/target/benchmarks.jar ConnectionPoolBenchmark
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class ConnectionPoolBenchmark {
+
+    public enum Pool {
+        DRIVER_MANAGER, HIKARI
+    }
+
+    private static final String URL = "jdbc:h2:mem:poolbench;DB_CLOSE_DELAY=-1;QUERY_CACHE_SIZE=64";
+    private static final int ROWS = 1000;
+
+    @Param
+    public Pool pool;
+
+    private DataSource dataSource;
+
+    @Setup
+    public void setUp() throws SQLException {
+        if (pool == Pool.HIKARI) {
+            HikariConfig config = new HikariConfig();
+            config.setJdbcUrl(URL);
+            config.setUsername("sa");
+            config.setPassword("");
+            config.setMinimumIdle(10);
+            config.setMaximumPoolSize(20);
+            dataSource = new HikariDataSource(config);
+        } else {
+            dataSource = new DriverManagerDataSource(URL, "sa", "");
+        }
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("create table if not exists employees (id bigint primary key, first_name varchar(255),"
+                    + " last_name varchar(255), email_address varchar(255))");
+            statement.execute("merge into employees select x, 'first' || x, 'last' || x, 'employee' || x || '@mail.net'"
+                    + " from system_range(1, " + ROWS + ")");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (dataSource instanceof HikariDataSource) {
+            ((HikariDataSource) dataSource).close();
+        }
+    }
+
+    @Benchmark
+    public String findById() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "select id, first_name, last_name, email_address from employees where id = ?")) {
+            statement.setLong(1, ThreadLocalRandom.current().nextInt(1, ROWS + 1));
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getString(2) : null;
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package net.achrefdkhailia.springboot2.aspect;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Before;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * AuthorizationAspect as it was before the per-method request binding (stream scan of the arguments on every call),
+ * kept as the "before" reference for AuthorizationAspectBenchmark.
+ */
+@Aspect
+public class LegacyAuthorizationAspect {
+
+    AuthorizationImpl authBean;
+    private final Logger log = LoggerFactory.getLogger(this.getClass());
+
+    @Before("execution(* net.achrefdkhailia.springboot2.controller.*Controller.*(..)) && @annotation(net.achrefdkhailia.springboot2.aspect.Authorized)")
+    public void before(JoinPoint joinPoint) {
+
+        HttpServletRequest request;
+        Optional<Object> opt = Arrays.asList(joinPoint.getArgs()).stream().filter(param -> param instanceof HttpServletRequest).findFirst();
+        if (!opt.isPresent()) {
+            throw new RuntimeException("request should be HttpServletRequesttype");
+        } else {
+            request = (HttpServletRequest) opt.get();
+        }
+
+        if (authBean.authorize(request.getHeader("Authorization"))) {
+            log.info(
+                    "userSession" +
+                    "session information which cann be acces in controller"
+            );
+        } else {
+            throw new RuntimeException("auth error..!!!");
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package net.achrefdkhailia.springboot2.aspect;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.achrefdkhailia.springboot2.Application;
+import net.achrefdkhailia.springboot2.controller.EmployeeController;
+import net.achrefdkhailia.springboot2.exception.ResourceNotFoundException;
+import net.achrefdkhailia.springboot2.logging.AsyncLogDispatcher;
+import net.achrefdkhailia.springboot2.logging.LogRenderer;
+import net.achrefdkhailia.springboot2.logging.OverflowPolicy;
+import net.achrefdkhailia.springboot2.metrics.LatencyRecorder;
+import net.achrefdkhailia.springboot2.model.Employee;
+import net.achrefdkhailia.springboot2.repository.EmployeeRepository;
+import net.achrefdkhailia.springboot2.service.EmployeeCache;
+import net.achrefdkhailia.springboot2.service.EmployeeCollectionVersion;
+import net.achrefdkhailia.springboot2.service.EmployeeJsonCache;
+import net.achrefdkhailia.springboot2.service.EmployeeSearchIndex;
+import net.achrefdkhailia.springboot2.service.EmployeeService;
+import org.aspectj.lang.Aspects;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spring AOP proxies against AspectJ weaving for the logging aspects, at INFO (production level).
+ *
+ * PROXY: the aspects are applied through a CGLIB proxy, as in the default setup.
+ * ASPECTJ: the classes are woven by the load-time weaving agent (META-INF/aop.xml) and called directly.
+ * startup measures the application context start (no web server), default profile against the "aspectj" profile.
+ *
+ * The two modes need different JVMs, main() forks PROXY without the agent and ASPECTJ with
+ * -javaagent:benchmarks/target/aspectjweaver.jar (copied there by the benchmarks build):
+ * java -cp benchmarks/target/benchmarks.jar net.achrefdkhailia.springboot2.aspect.WeavingModeBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WeavingModeBenchmark {
+
+    public enum WeavingMode {
+        PROXY, ASPECTJ
+    }
+
+    private static final String WEAVER_JAR = System.getProperty("aspectj.weaver.jar", "benchmarks/target/aspectjweaver.jar");
+
+    @Param
+    public WeavingMode mode;
+
+    private EmployeeService service;
+    private EmployeeController controller;
+    private AsyncLogDispatcher dispatcher;
+    private LogRenderer renderer;
+
+    @Setup
+    public void setUp() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        context.getLogger("net.achrefdkhailia.springboot2").setLevel(Level.INFO);
+
+        boolean woven = Aspects.hasAspect(LoggingAspect.class);
+        if (woven != (mode == WeavingMode.ASPECTJ)) {
+            throw new IllegalStateException(mode + " needs " + (woven ? "a JVM without" : "the JVM started with")
+                    + " -javaagent:" + WEAVER_JAR + ", run WeavingModeBenchmark.main()");
+        }
+
+        renderer = new LogRenderer(1000, 10, 3, new String[] {"Employee.emailId"});
+        dispatcher = new AsyncLogDispatcher(false, 1, 1, OverflowPolicy.DROP, 1, renderer, new SimpleMeterRegistry());
+        LoggingAspect loggingAspect = mode == WeavingMode.ASPECTJ ? Aspects.aspectOf(LoggingAspect.class) : new LoggingAspect();
+        loggingAspect.dispatcher = dispatcher;
+        loggingAspect.latencyRecorder = new LatencyRecorder(new SimpleMeterRegistry());
+        loggingAspect.renderer = renderer;
+
+        EmployeeService serviceTarget = new EmployeeService();
+        EmployeeRepository repository = stubRepository();
+        ReflectionTestUtils.setField(serviceTarget, "employeeRepository", repository);
+        ReflectionTestUtils.setField(serviceTarget, "employeeCache", new EmployeeCache(repository, 10_000,
+                Duration.ofMinutes(10), Duration.ofSeconds(10), new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(serviceTarget, "employeeSearchIndex", new EmployeeSearchIndex(false, new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(serviceTarget, "employeeCollectionVersion", new EmployeeCollectionVersion());
+        ReflectionTestUtils.setField(serviceTarget, "employeeJsonCache", new EmployeeJsonCache(new ObjectMapper(), false, false,
+                10_000, new SimpleMeterRegistry()));
+        service = advise(serviceTarget, loggingAspect);
+
+        EmployeeController controllerTarget = new EmployeeController();
+        ReflectionTestUtils.setField(controllerTarget, "employeeService", service);
+        controller = advise(controllerTarget, loggingAspect);
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        dispatcher.stop();
+    }
+
+    private <T> T advise(T target, Object... aspects) {
+        if (mode == WeavingMode.ASPECTJ) {
+            return target;
+        }
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        for (Object aspect : aspects) {
+            factory.addAspect(aspect);
+        }
+        return factory.getProxy();
+    }
+
+    private static EmployeeRepository stubRepository() {
+        Employee employee = new Employee("first", "last", "employee@mail.net");
+        employee.setId(7);
+        return (EmployeeRepository) Proxy.newProxyInstance(EmployeeRepository.class.getClassLoader(),
+                new Class<?>[]{EmployeeRepository.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "findById":
+                            return Optional.of(employee);
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        case "toString":
+                            return "StubEmployeeRepository";
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    @Benchmark
+    public Optional<Employee> serviceGetEmployeeById() throws ResourceNotFoundException {
+        return service.getEmployeeById(7L);
+    }
+
+    @Benchmark
+    public Object controllerGetEmployeeById() throws ResourceNotFoundException {
+        return controller.getEmployeeById(7L, null, null);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public void startup() {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(Application.class).web(WebApplicationType.NONE);
+        if (mode == WeavingMode.ASPECTJ) {
+            builder.profiles("aspectj");
+        }
+        try (ConfigurableApplicationContext context = builder.run()) {
+            context.getBean(EmployeeController.class);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        if (!new File(WEAVER_JAR).isFile()) {
+            throw new IllegalStateException(WEAVER_JAR + " not found, build the benchmarks or set -Daspectj.weaver.jar");
+        }
+        new Runner(new OptionsBuilder()
+                .include(WeavingModeBenchmark.class.getSimpleName())
+                .param("mode", WeavingMode.PROXY.name())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+        new Runner(new OptionsBuilder()
+                .include(WeavingModeBenchmark.class.getSimpleName())
+                .param("mode", WeavingMode.ASPECTJ.name())
+                .jvmArgsAppend("-javaagent:" + new File(WEAVER_JAR).getAbsolutePath())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
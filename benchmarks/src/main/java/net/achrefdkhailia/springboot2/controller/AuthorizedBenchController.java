@@ -0,0 +1,22 @@
+package net.achrefdkhailia.springboot2.controller;
+
+import net.achrefdkhailia.springboot2.aspect.Authorized;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Controller shaped target for the authorization benchmarks,
+ * lives in the controller package so that AuthorizationAspect's pointcut matches it.
+ */
+public class AuthorizedBenchController {
+
+    @Authorized
+    public long withRequest(HttpServletRequest request, long id) {
+        return id;
+    }
+
+    @Authorized
+    public long fromRequestContext(long id) {
+        return id;
+    }
+}
@@ -0,0 +1,25 @@
+package net.achrefdkhailia.springboot2.controller;
+
+import net.achrefdkhailia.springboot2.aspect.Authorized;
+import net.achrefdkhailia.springboot2.exception.ResourceNotFoundException;
+import org.springframework.http.ResponseEntity;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * EmployeeController.getEmployeeById behind @Authorized, for the aspect overhead benchmark:
+ * the application has no @Authorized endpoint, so AuthorizationAspect would advise nothing there.
+ */
+public class AuthorizedEmployeeBenchController {
+
+    private final EmployeeController employeeController;
+
+    public AuthorizedEmployeeBenchController(EmployeeController employeeController) {
+        this.employeeController = employeeController;
+    }
+
+    @Authorized
+    public ResponseEntity<?> getEmployeeById(HttpServletRequest request, Long employeeId) throws ResourceNotFoundException {
+        return employeeController.getEmployeeById(employeeId, null, null);
+    }
+}
@@ -0,0 +1,131 @@
+package net.achrefdkhailia.springboot2.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.achrefdkhailia.springboot2.model.Employee;
+import net.achrefdkhailia.springboot2.service.EmployeeJsonCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU time and allocation per GET /employees/{id} body once the employee is in EmployeeCache,
+ * the copy handed out by the cache included.
+ * messageConverter: the employee written by the Jackson message converter (the default path).
+ * cachedJson / cachedGzip: the bytes from EmployeeJsonCache written by the byte array converter.
+ * The body goes to a discarding stream, so that only the encoding is measured.
+ *
+ * Run through main() for the allocation rates (gc.alloc.rate.norm, bytes per request):
+ * java -cp benchmarks/target/benchmarks.jar net.achrefdkhailia.springboot2.controller.EmployeeJsonCacheBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmployeeJsonCacheBenchmark {
+
+    private Employee cached;
+    private MappingJackson2HttpMessageConverter jsonConverter;
+    private ByteArrayHttpMessageConverter bytesConverter;
+    private EmployeeJsonCache jsonCache;
+    private EmployeeJsonCache gzipCache;
+    private DiscardingOutputMessage output;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        jsonConverter = new MappingJackson2HttpMessageConverter(objectMapper);
+        bytesConverter = new ByteArrayHttpMessageConverter();
+        jsonCache = new EmployeeJsonCache(objectMapper, true, false, 10_000, new SimpleMeterRegistry());
+        gzipCache = new EmployeeJsonCache(objectMapper, true, true, 10_000, new SimpleMeterRegistry());
+        output = new DiscardingOutputMessage();
+
+        cached = new Employee("Achref", "Dkhailia", "achref.dkhailia@corp.example");
+        cached.setId(7);
+        cached.setVersion(3);
+    }
+
+    @Benchmark
+    public long messageConverter() throws IOException {
+        output.reset();
+        jsonConverter.write(new Employee(cached), MediaType.APPLICATION_JSON_UTF8, output);
+        return output.written;
+    }
+
+    @Benchmark
+    public long cachedJson() throws IOException {
+        output.reset();
+        bytesConverter.write(jsonCache.encode(new Employee(cached)).getJson(), MediaType.APPLICATION_JSON_UTF8, output);
+        return output.written;
+    }
+
+    @Benchmark
+    public long cachedGzip() throws IOException {
+        output.reset();
+        EmployeeJsonCache.EncodedEmployee encoded = gzipCache.encode(new Employee(cached));
+        byte[] body = encoded.getGzip() != null ? encoded.getGzip() : encoded.getJson();
+        bytesConverter.write(body, MediaType.APPLICATION_JSON_UTF8, output);
+        return output.written;
+    }
+
+    private static final class DiscardingOutputMessage extends OutputStream implements HttpOutputMessage {
+
+        private final HttpHeaders headers = new HttpHeaders();
+        private long written;
+
+        void reset() {
+            headers.clear();
+            written = 0;
+        }
+
+        @Override
+        public OutputStream getBody() {
+            return this;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public void write(int b) {
+            written++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            written += len;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(EmployeeJsonCacheBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
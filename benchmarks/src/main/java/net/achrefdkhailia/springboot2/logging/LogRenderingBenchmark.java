@@ -0,0 +1,88 @@
+package net.achrefdkhailia.springboot2.logging;
+
+import net.achrefdkhailia.springboot2.model.Employee;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering of the logged arguments and results: toString (the former Arrays.toString / String.valueOf)
+ * against the bounded, redacting LogRenderer with the default limits, for the arguments of getEmployeeById,
+ * its ResponseEntity result and the getAllEmployees result of employees employees.
+ *
+ * java -jar benchmarks/target/benchmarks.jar LogRenderingBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LogRenderingBenchmark {
+
+    @Param({"100", "10000"})
+    public int employees;
+
+    private LogRenderer renderer;
+    private Object[] arguments;
+    private ResponseEntity<Optional<Employee>> employee;
+    private List<Employee> allEmployees;
+
+    @Setup
+    public void setUp() {
+        renderer = new LogRenderer(1000, 10, 3, new String[] {"Employee.emailId", "EmployeePatch.emailId"});
+        arguments = new Object[] {7L, null, "\"3\""};
+        allEmployees = new ArrayList<>(employees);
+        for (int i = 1; i <= employees; i++) {
+            Employee e = new Employee("first" + i, "last" + i, "employee" + i + "@mail.net");
+            e.setId(i);
+            allEmployees.add(e);
+        }
+        employee = ResponseEntity.ok(Optional.of(allEmployees.get(6)));
+    }
+
+    @Benchmark
+    public String argumentsToString() {
+        return Arrays.toString(arguments);
+    }
+
+    @Benchmark
+    public String argumentsRenderer() {
+        return renderer.renderArguments(arguments);
+    }
+
+    @Benchmark
+    public String employeeToString() {
+        return String.valueOf(employee);
+    }
+
+    @Benchmark
+    public String employeeRenderer() {
+        return renderer.render(employee);
+    }
+
+    @Benchmark
+    public String allEmployeesToString() {
+        return String.valueOf(allEmployees);
+    }
+
+    @Benchmark
+    public String allEmployeesRenderer() {
+        return renderer.render(allEmployees);
+    }
+}
@@ -0,0 +1,128 @@
+package net.achrefdkhailia.springboot2.service;
+
+import net.achrefdkhailia.springboot2.Application;
+import net.achrefdkhailia.springboot2.exception.ResourceNotFoundException;
+import net.achrefdkhailia.springboot2.model.BatchItemResult;
+import net.achrefdkhailia.springboot2.model.Employee;
+import net.achrefdkhailia.springboot2.repository.EmployeeRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rows per second written through the single-row service path (one save() and one transaction per row)
+ * against EmployeeBatchService (chunked transactions, pooled sequence ids, JDBC batches).
+ * Runs against the application context and its in-memory H2 database, the table is emptied after every iteration.
+ *
+ * java -jar benchmarks/target/benchmarks.jar EmployeeBatchBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmployeeBatchBenchmark {
+
+    private static final int ROWS = 1000;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeService employeeService;
+    private EmployeeBatchService employeeBatchService;
+    private EmployeeRepository employeeRepository;
+    private List<Long> ids;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(Application.class)
+                .web(WebApplicationType.NONE)
+                .properties("logging.level.net.achrefdkhailia.springboot2=WARN")
+                .run();
+        employeeService = context.getBean(EmployeeService.class);
+        employeeBatchService = context.getBean(EmployeeBatchService.class);
+        employeeRepository = context.getBean(EmployeeRepository.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void insertRowsToUpdate() {
+        ids = new ArrayList<>(ROWS);
+        for (BatchItemResult result : employeeBatchService.createEmployees(employees())) {
+            ids.add(result.getId());
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void emptyTable() {
+        employeeRepository.deleteAllInBatch();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    private static List<Employee> employees() {
+        List<Employee> employees = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            employees.add(new Employee("first" + i, "last" + i, "employee" + i + "@mail.net"));
+        }
+        return employees;
+    }
+
+    private List<Employee> updates() {
+        List<Employee> employees = employees();
+        for (int i = 0; i < ROWS; i++) {
+            employees.get(i).setId(ids.get(i));
+        }
+        return employees;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public Employee singleRowInserts() {
+        Employee last = null;
+        for (Employee employee : employees()) {
+            last = employeeService.createEmployee(employee);
+        }
+        return last;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<BatchItemResult> batchInserts() {
+        return employeeBatchService.createEmployees(employees());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public Employee singleRowUpdates() throws ResourceNotFoundException {
+        Employee last = null;
+        for (Employee employee : updates()) {
+            last = employeeService.updateEmployee(employee.getId(), employee);
+        }
+        return last;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<BatchItemResult> batchUpdates() {
+        return employeeBatchService.updateEmployees(updates());
+    }
+}
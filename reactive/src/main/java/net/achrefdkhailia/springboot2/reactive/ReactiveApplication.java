@@ -0,0 +1,16 @@
+package net.achrefdkhailia.springboot2.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * The /api/v1/employees API of the servlet application on WebFlux and R2DBC (H2, in memory), port 8081.
+ * Only this package is scanned, the classes reused from the servlet application's jar are not registered as beans.
+ */
+@SpringBootApplication
+public class ReactiveApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(ReactiveApplication.class, args);
+    }
+}
@@ -0,0 +1,30 @@
+package net.achrefdkhailia.springboot2.reactive.aspect;
+
+import java.time.Duration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.achrefdkhailia.springboot2.aspect.AuthorizationImpl;
+import net.achrefdkhailia.springboot2.aspect.TokenVerificationCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The token verification of the servlet application, shared as is by the reactive module.
+ */
+@Configuration
+public class AuthorizationConfiguration {
+
+    @Bean
+    public TokenVerificationCache tokenVerificationCache(@Value("${authorization.token-cache.maximum-size:10000}") long maximumSize,
+                                                         @Value("${authorization.token-cache.ttl:5m}") Duration ttl,
+                                                         @Value("${authorization.token-cache.negative-ttl:10s}") Duration negativeTtl,
+                                                         MeterRegistry meterRegistry) {
+        return new TokenVerificationCache(maximumSize, ttl, negativeTtl, meterRegistry);
+    }
+
+    @Bean
+    public AuthorizationImpl authorizationImpl() {
+        return new AuthorizationImpl();
+    }
+}
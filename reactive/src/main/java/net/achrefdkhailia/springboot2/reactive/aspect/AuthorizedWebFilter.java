@@ -0,0 +1,82 @@
+package net.achrefdkhailia.springboot2.reactive.aspect;
+
+import java.util.Date;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.achrefdkhailia.springboot2.aspect.AuthorizationImpl;
+import net.achrefdkhailia.springboot2.aspect.Authorized;
+import net.achrefdkhailia.springboot2.exception.ErrorDetails;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.reactive.result.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * AuthorizationAspect for WebFlux: there is no servlet request to bind, so the check runs before the
+ * handler, on the Authorization header of the exchange, for controller methods annotated @Authorized.
+ * A denied call gets the response the aspect's "auth error..!!!" exception gets from GlobalExceptionHandler.
+ */
+@Component
+public class AuthorizedWebFilter implements WebFilter {
+
+    private final Logger log = LoggerFactory.getLogger(this.getClass());
+
+    private final RequestMappingHandlerMapping handlerMapping;
+
+    private final AuthorizationImpl authBean;
+
+    private final ObjectMapper objectMapper;
+
+    public AuthorizedWebFilter(@Qualifier("requestMappingHandlerMapping") RequestMappingHandlerMapping handlerMapping, AuthorizationImpl authBean, ObjectMapper objectMapper) {
+        this.handlerMapping = handlerMapping;
+        this.authBean = authBean;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        return handlerMapping.getHandler(exchange)
+                .filter(handler -> handler instanceof HandlerMethod && isAuthorized((HandlerMethod) handler))
+                .map(handler -> authBean.authorize(exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION)))
+                .defaultIfEmpty(Boolean.TRUE)
+                .flatMap(authorized -> {
+                    if (authorized) {
+                        return chain.filter(exchange);
+                    }
+                    if (log.isDebugEnabled()) {
+                        log.debug("Denied {}", exchange.getRequest().getPath());
+                    }
+                    return deny(exchange);
+                });
+    }
+
+    private static boolean isAuthorized(HandlerMethod handler) {
+        Authorized authorized = handler.getMethodAnnotation(Authorized.class);
+        return authorized != null && authorized.enabled();
+    }
+
+    private Mono<Void> deny(ServerWebExchange exchange) {
+        ErrorDetails errorDetails = new ErrorDetails(new Date(), "auth error..!!!", "uri=" + exchange.getRequest().getPath().value());
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(errorDetails);
+        } catch (JsonProcessingException e) {
+            return Mono.error(e);
+        }
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.INTERNAL_SERVER_ERROR);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+}
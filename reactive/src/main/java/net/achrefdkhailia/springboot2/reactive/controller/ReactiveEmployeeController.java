@@ -0,0 +1,208 @@
+package net.achrefdkhailia.springboot2.reactive.controller;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.validation.Valid;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import net.achrefdkhailia.springboot2.controller.EntityTags;
+import net.achrefdkhailia.springboot2.exception.InvalidRequestException;
+import net.achrefdkhailia.springboot2.model.Employee;
+import net.achrefdkhailia.springboot2.model.EmployeePatch;
+import net.achrefdkhailia.springboot2.model.EmployeeSearchField;
+import net.achrefdkhailia.springboot2.reactive.service.ReactiveEmployeeService;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The EmployeeController contract on WebFlux: same paths, parameters, status codes, ETags and error bodies.
+ * The bulk endpoints (/employees/batch) are not part of it.
+ */
+@RestController
+@RequestMapping("/api/v1")
+public class ReactiveEmployeeController {
+	static final int DEFAULT_PAGE_SIZE = 100;
+	static final int MAX_PAGE_SIZE = 1000;
+	static final int DEFAULT_SEARCH_LIMIT = 20;
+	static final int MAX_SEARCH_LIMIT = 100;
+
+	/** employees serialized into one buffer of the streamed list */
+	private static final int STREAM_CHUNK = 64;
+
+	private final ReactiveEmployeeService employeeService;
+
+	private final ObjectWriter writer;
+
+	public ReactiveEmployeeController(ReactiveEmployeeService employeeService, ObjectMapper objectMapper) {
+		this.employeeService = employeeService;
+		// the stream is a buffer of the response, not to be closed by each write
+		this.writer = objectMapper.writerFor(Employee.class).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+	}
+
+	/**
+	 * The whole list (also for stream=true), as one JSON array written while the rows are read:
+	 * the database is only asked for more rows as the client consumes the response.
+	 */
+	@GetMapping(value = "/employees", params = {"!after", "!limit"})
+	public ResponseEntity<Flux<DataBuffer>> getAllEmployees(
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+			ServerHttpResponse response) {
+		String eTag = EntityTags.of(employeeService.getCollectionVersion());
+		if (ifNoneMatch != null && EntityTags.matches(ifNoneMatch, eTag)) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+		}
+		DataBufferFactory buffers = response.bufferFactory();
+		Flux<DataBuffer> body = employeeService.getAllEmployees()
+				.buffer(STREAM_CHUNK)
+				.index()
+				.map(chunk -> encode(buffers, chunk.getT1() == 0, chunk.getT2()))
+				.switchIfEmpty(Mono.fromCallable(() -> text(buffers, "[")))
+				.concatWith(Mono.fromCallable(() -> text(buffers, "]")));
+		return ResponseEntity.ok().eTag(eTag).contentType(MediaType.APPLICATION_JSON).body(body);
+	}
+
+	@GetMapping("/employees")
+	public Mono<ResponseEntity<List<Employee>>> getEmployees(@RequestParam(value = "after", required = false) Long afterId,
+			@RequestParam(value = "limit", required = false) Integer limit,
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+			ServerWebExchange exchange) {
+		String eTag = EntityTags.of(employeeService.getCollectionVersion());
+		if (ifNoneMatch != null && EntityTags.matches(ifNoneMatch, eTag)) {
+			return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build());
+		}
+		int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+		return employeeService.getEmployeesAfter(afterId == null ? 0L : afterId, pageSize)
+				.collectList()
+				.map(page -> {
+					ResponseEntity.BodyBuilder builder = ResponseEntity.ok().eTag(eTag);
+					if (page.size() == pageSize) {
+						String next = UriComponentsBuilder.fromHttpRequest(exchange.getRequest())
+								.replaceQueryParam("after", page.get(page.size() - 1).getId())
+								.replaceQueryParam("limit", pageSize)
+								.toUriString();
+						builder.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+					}
+					return builder.body(page);
+				});
+	}
+
+	@GetMapping("/employees/search")
+	public Flux<Employee> searchEmployees(@RequestParam("field") String field, @RequestParam("q") String value,
+			@RequestParam(value = "match", defaultValue = "prefix") String match,
+			@RequestParam(value = "limit", required = false) Integer limit) throws InvalidRequestException {
+		EmployeeSearchField searchField = EmployeeSearchField.fromAttribute(field);
+		if (searchField == null) {
+			throw new InvalidRequestException("Unknown search field :: " + field);
+		}
+		if (!"prefix".equals(match) && !"exact".equals(match)) {
+			throw new InvalidRequestException("match must be prefix or exact :: " + match);
+		}
+		if (value.isEmpty()) {
+			throw new InvalidRequestException("q cannot be empty");
+		}
+		int maxResults = limit == null ? DEFAULT_SEARCH_LIMIT : Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT));
+		return employeeService.searchEmployees(searchField, value, "prefix".equals(match), maxResults);
+	}
+
+	@GetMapping("/employees/{id}")
+	public Mono<ResponseEntity<Employee>> getEmployeeById(@PathVariable(value = "id") Long employeeId,
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+		if (ifNoneMatch != null) {
+			return employeeService.getEmployeeVersion(employeeId)
+					.flatMap(version -> {
+						String eTag = EntityTags.of(version);
+						if (EntityTags.matches(ifNoneMatch, eTag)) {
+							return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).<Employee>build());
+						}
+						return employeeService.getEmployeeById(employeeId).map(this::ok);
+					});
+		}
+		return employeeService.getEmployeeById(employeeId).map(this::ok);
+	}
+
+	@PostMapping("/employees")
+	public Mono<Employee> createEmployee(@Valid @RequestBody Employee employee) {
+		return employeeService.createEmployee(employee);
+	}
+
+	@PutMapping("/employees/{id}")
+	public Mono<ResponseEntity<Employee>> updateEmployee(@PathVariable(value = "id") Long employeeId,
+			@RequestBody Employee employeeDetails,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		Set<Long> versions = ifMatch == null ? null : EntityTags.versions(ifMatch);
+		Mono<Employee> updated = versions == null
+				? employeeService.updateEmployee(employeeId, employeeDetails)
+				: employeeService.updateEmployeeIfMatch(employeeId, employeeDetails, versions);
+		return updated.map(this::ok);
+	}
+
+	@PatchMapping("/employees/{id}")
+	public Mono<ResponseEntity<Void>> patchEmployee(@PathVariable(value = "id") Long employeeId,
+			@RequestBody EmployeePatch patch) {
+		return employeeService.patchEmployee(employeeId, patch)
+				.then(Mono.just(ResponseEntity.noContent().<Void>build()));
+	}
+
+	@DeleteMapping("/employees/{id}")
+	public Mono<Map<String, Boolean>> deleteEmployee(@PathVariable(value = "id") Long employeeId,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		Set<Long> versions = ifMatch == null ? null : EntityTags.versions(ifMatch);
+		return versions == null
+				? employeeService.deleteEmployee(employeeId)
+				: employeeService.deleteEmployeeIfMatch(employeeId, versions);
+	}
+
+	private ResponseEntity<Employee> ok(Employee employee) {
+		return ResponseEntity.ok().eTag(EntityTags.of(employee.getVersion())).body(employee);
+	}
+
+	/**
+	 * One chunk of the array: the opening bracket before the first chunk, commas between the employees.
+	 */
+	private DataBuffer encode(DataBufferFactory buffers, boolean first, List<Employee> employees) {
+		DataBuffer buffer = buffers.allocateBuffer(employees.size() * 128);
+		try (OutputStream out = buffer.asOutputStream()) {
+			for (int i = 0; i < employees.size(); i++) {
+				out.write(first && i == 0 ? '[' : ',');
+				writer.writeValue(out, employees.get(i));
+			}
+		} catch (IOException e) {
+			DataBufferUtils.release(buffer);
+			throw new UncheckedIOException(e);
+		}
+		return buffer;
+	}
+
+	private static DataBuffer text(DataBufferFactory buffers, String text) {
+		return buffers.wrap(text.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,71 @@
+package net.achrefdkhailia.springboot2.reactive.exception;
+
+import java.util.Date;
+import java.util.stream.Collectors;
+
+import net.achrefdkhailia.springboot2.exception.ErrorDetails;
+import net.achrefdkhailia.springboot2.exception.InvalidRequestException;
+import net.achrefdkhailia.springboot2.exception.PreconditionFailedException;
+import net.achrefdkhailia.springboot2.exception.ResourceNotFoundException;
+import net.achrefdkhailia.springboot2.exception.VersionConflictException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+
+/**
+ * GlobalExceptionHandler of the servlet application: the same statuses and ErrorDetails bodies.
+ */
+@RestControllerAdvice
+public class ReactiveExceptionHandler {
+
+	@ExceptionHandler(ResourceNotFoundException.class)
+	public ResponseEntity<ErrorDetails> resourceNotFoundException(ResourceNotFoundException ex, ServerWebExchange exchange) {
+		return error(HttpStatus.NOT_FOUND, ex, exchange);
+	}
+
+	@ExceptionHandler(VersionConflictException.class)
+	public ResponseEntity<ErrorDetails> versionConflictException(VersionConflictException ex, ServerWebExchange exchange) {
+		return error(HttpStatus.CONFLICT, ex, exchange);
+	}
+
+	@ExceptionHandler(PreconditionFailedException.class)
+	public ResponseEntity<ErrorDetails> preconditionFailedException(PreconditionFailedException ex, ServerWebExchange exchange) {
+		return error(HttpStatus.PRECONDITION_FAILED, ex, exchange);
+	}
+
+	@ExceptionHandler(InvalidRequestException.class)
+	public ResponseEntity<ErrorDetails> invalidRequestException(InvalidRequestException ex, ServerWebExchange exchange) {
+		return error(HttpStatus.BAD_REQUEST, ex, exchange);
+	}
+
+	/**
+	 * @Valid request bodies, the servlet application's MethodArgumentNotValidException
+	 */
+	@ExceptionHandler(WebExchangeBindException.class)
+	public ResponseEntity<ErrorDetails> webExchangeBindException(WebExchangeBindException ex, ServerWebExchange exchange) {
+		String message = ex.getFieldErrors().stream()
+				.map(error -> error.getField() + " " + error.getDefaultMessage())
+				.collect(Collectors.joining(", "));
+		ErrorDetails errorDetails = new ErrorDetails(new Date(), message, "uri=" + exchange.getRequest().getPath().value());
+		return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
+	}
+
+	@ExceptionHandler(ResponseStatusException.class)
+	public ResponseEntity<ErrorDetails> responseStatusException(ResponseStatusException ex, ServerWebExchange exchange) {
+		return error(ex.getStatus(), ex, exchange);
+	}
+
+	@ExceptionHandler(Exception.class)
+	public ResponseEntity<ErrorDetails> globleExcpetionHandler(Exception ex, ServerWebExchange exchange) {
+		return error(HttpStatus.INTERNAL_SERVER_ERROR, ex, exchange);
+	}
+
+	static ResponseEntity<ErrorDetails> error(HttpStatus status, Exception ex, ServerWebExchange exchange) {
+		ErrorDetails errorDetails = new ErrorDetails(new Date(), ex.getMessage(), "uri=" + exchange.getRequest().getPath().value());
+		return new ResponseEntity<>(errorDetails, status);
+	}
+}
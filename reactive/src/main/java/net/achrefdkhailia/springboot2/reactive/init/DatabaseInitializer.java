@@ -0,0 +1,25 @@
+package net.achrefdkhailia.springboot2.reactive.init;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.r2dbc.connectionfactory.init.ConnectionFactoryInitializer;
+import org.springframework.data.r2dbc.connectionfactory.init.ResourceDatabasePopulator;
+
+/**
+ * Creates the employees table (schema.sql, the same columns and indexes as the JPA mapping)
+ * and loads the servlet application's sample employees (data.sql).
+ */
+@Configuration
+public class DatabaseInitializer {
+
+    @Bean
+    public ConnectionFactoryInitializer employeesSchemaInitializer(ConnectionFactory connectionFactory) {
+        ConnectionFactoryInitializer initializer = new ConnectionFactoryInitializer();
+        initializer.setConnectionFactory(connectionFactory);
+        initializer.setDatabasePopulator(new ResourceDatabasePopulator(
+                new ClassPathResource("schema.sql"), new ClassPathResource("data.sql")));
+        return initializer;
+    }
+}
@@ -0,0 +1,90 @@
+package net.achrefdkhailia.springboot2.reactive.load;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import net.achrefdkhailia.springboot2.metrics.LatencyHistogram;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Closed-loop load test comparing the servlet (8080) and reactive (8081) applications on the same request:
+ * concurrency clients each send the next request as soon as the previous response is read, for the given seconds.
+ * Prints throughput, errors (non-2xx/304 and I/O) and latency percentiles.
+ *
+ * Usage: EmployeeLoadTest [baseUrl] [path] [concurrency] [seconds] (warm-up: a quarter of the run, not reported)
+ */
+public final class EmployeeLoadTest {
+
+    private EmployeeLoadTest() {
+    }
+
+    public static void main(String[] args) {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8081";
+        String path = args.length > 1 ? args[1] : "/api/v1/employees/1";
+        int concurrency = args.length > 2 ? Integer.parseInt(args[2]) : 256;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+        // outside of an application the client's logging would default to DEBUG
+        LoggingSystem logging = LoggingSystem.get(EmployeeLoadTest.class.getClassLoader());
+        logging.beforeInitialize();
+        logging.setLogLevel(LoggingSystem.ROOT_LOGGER_NAME, LogLevel.WARN);
+
+        ConnectionProvider connections = ConnectionProvider.fixed("load", concurrency);
+        WebClient client = WebClient.builder()
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)))
+                .build();
+        try {
+            run(client, path, concurrency, Math.max(1, seconds / 4), new LatencyHistogram(), new LongAdder());
+            LatencyHistogram latencies = new LatencyHistogram();
+            LongAdder errors = new LongAdder();
+            long elapsed = run(client, path, concurrency, seconds, latencies, errors);
+            System.out.printf("%s%s concurrency=%d: %.0f req/s, %d requests, %d errors, p50=%.2f ms p99=%.2f ms p99.9=%.2f ms max=%.2f ms%n",
+                    baseUrl, path, concurrency, latencies.count() * 1e9 / elapsed, latencies.count(), errors.sum(),
+                    millis(latencies.valueAtQuantile(0.5)), millis(latencies.valueAtQuantile(0.99)),
+                    millis(latencies.valueAtQuantile(0.999)), millis(latencies.maxNanos()));
+        } finally {
+            connections.dispose();
+        }
+    }
+
+    /**
+     * @return the duration of the run in nanoseconds
+     */
+    private static long run(WebClient client, String path, int concurrency, int seconds, LatencyHistogram latencies, LongAdder errors) {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(seconds);
+        Flux.range(0, concurrency)
+                .flatMap(worker -> Mono.defer(() -> call(client, path, latencies, errors))
+                        .repeat(() -> System.nanoTime() < deadline), concurrency)
+                .blockLast();
+        return System.nanoTime() - start;
+    }
+
+    private static Mono<Void> call(WebClient client, String path, LatencyHistogram latencies, LongAdder errors) {
+        long started = System.nanoTime();
+        return client.get().uri(path)
+                .exchange()
+                .flatMap(response -> {
+                    if (!response.statusCode().is2xxSuccessful() && response.rawStatusCode() != 304) {
+                        errors.increment();
+                    }
+                    return response.releaseBody();
+                })
+                .doOnSuccess(done -> latencies.record(System.nanoTime() - started))
+                .onErrorResume(e -> {
+                    errors.increment();
+                    return Mono.empty();
+                });
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
@@ -0,0 +1,204 @@
+package net.achrefdkhailia.springboot2.reactive.repository;
+
+import java.util.function.BiFunction;
+
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import net.achrefdkhailia.springboot2.model.Employee;
+import net.achrefdkhailia.springboot2.model.EmployeePatch;
+import net.achrefdkhailia.springboot2.model.EmployeeSearchField;
+import org.springframework.data.r2dbc.core.DatabaseClient;
+import org.springframework.data.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Employees table access over R2DBC. Employee keeps its JPA mapping (getter-based, email_address for emailId),
+ * which Spring Data R2DBC cannot read, so the statements and the row mapping are written out here.
+ * Rows are emitted as they are read and as fast as the subscriber requests them.
+ */
+@Repository
+public class ReactiveEmployeeRepository {
+
+	private static final String COLUMNS = "id, version, first_name, last_name, email_address";
+
+	private static final char LIKE_ESCAPE = '\\';
+
+	private static final BiFunction<Row, RowMetadata, Employee> EMPLOYEE = (row, metadata) -> {
+		Employee employee = new Employee(row.get("first_name", String.class), row.get("last_name", String.class),
+				row.get("email_address", String.class));
+		employee.setId(row.get("id", Long.class));
+		employee.setVersion(row.get("version", Long.class));
+		return employee;
+	};
+
+	private final DatabaseClient databaseClient;
+
+	public ReactiveEmployeeRepository(DatabaseClient databaseClient) {
+		this.databaseClient = databaseClient;
+	}
+
+	public Flux<Employee> findAll() {
+		return databaseClient.execute("select " + COLUMNS + " from employees order by id")
+				.map(EMPLOYEE)
+				.all();
+	}
+
+	/**
+	 * Keyset page: at most limit employees with an id greater than afterId, in id order.
+	 */
+	public Flux<Employee> findPageAfter(long afterId, int limit) {
+		return databaseClient.execute("select " + COLUMNS + " from employees where id > :afterId order by id limit :limit")
+				.bind("afterId", afterId)
+				.bind("limit", limit)
+				.map(EMPLOYEE)
+				.all();
+	}
+
+	public Mono<Employee> findById(long id) {
+		return databaseClient.execute("select " + COLUMNS + " from employees where id = :id")
+				.bind("id", id)
+				.map(EMPLOYEE)
+				.one();
+	}
+
+	public Mono<Long> findVersionById(long id) {
+		return databaseClient.execute("select version from employees where id = :id")
+				.bind("id", id)
+				.map((row, metadata) -> row.get("version", Long.class))
+				.one();
+	}
+
+	public Mono<Boolean> existsById(long id) {
+		return findVersionById(id).hasElement();
+	}
+
+	/**
+	 * Same matching as EmployeeRepository.search: case-sensitive "=" or escaped "like 'value%'", ordered by the column then id.
+	 */
+	public Flux<Employee> search(EmployeeSearchField field, String value, boolean prefix, int limit) {
+		String column = column(field);
+		String condition = prefix ? column + " like :value escape '" + LIKE_ESCAPE + "'" : column + " = :value";
+		return databaseClient.execute("select " + COLUMNS + " from employees where " + condition
+				+ " order by " + column + ", id limit :limit")
+				.bind("value", prefix ? escapeLike(value) + "%" : value)
+				.bind("limit", limit)
+				.map(EMPLOYEE)
+				.all();
+	}
+
+	/**
+	 * @return the employee with its generated id, at version 0
+	 */
+	public Mono<Employee> insert(Employee employee) {
+		GenericExecuteSpec insert = databaseClient.execute(
+				"insert into employees (version, first_name, last_name, email_address) values (0, :firstName, :lastName, :emailId)");
+		insert = bind(insert, "firstName", employee.getFirstName());
+		insert = bind(insert, "lastName", employee.getLastName());
+		insert = bind(insert, "emailId", employee.getEmailId());
+		return insert.filter(statement -> statement.returnGeneratedValues("id"))
+				.map((row, metadata) -> row.get("id", Long.class))
+				.one()
+				.map(id -> {
+					Employee created = new Employee(employee);
+					created.setId(id);
+					created.setVersion(0);
+					return created;
+				});
+	}
+
+	/**
+	 * Replaces the three fields and increments the version, only at the given version when it is not null.
+	 * @return the number of updated rows
+	 */
+	public Mono<Integer> update(long id, Employee details, Long version) {
+		GenericExecuteSpec update = databaseClient.execute("update employees set first_name = :firstName, last_name = :lastName,"
+				+ " email_address = :emailId, version = version + 1 where id = :id" + (version == null ? "" : " and version = :version"));
+		update = bind(update, "firstName", details.getFirstName());
+		update = bind(update, "lastName", details.getLastName());
+		update = bind(update, "emailId", details.getEmailId());
+		update = update.bind("id", id);
+		if (version != null) {
+			update = update.bind("version", version);
+		}
+		return update.fetch().rowsUpdated();
+	}
+
+	/**
+	 * One UPDATE of the fields present in the patch, as EmployeeRepositoryCustom.patch.
+	 * @return the number of updated rows
+	 */
+	public Mono<Integer> patch(long id, EmployeePatch patch) {
+		StringBuilder sql = new StringBuilder("update employees set version = version + 1");
+		if (patch.isFirstNameSet()) {
+			sql.append(", first_name = :firstName");
+		}
+		if (patch.isLastNameSet()) {
+			sql.append(", last_name = :lastName");
+		}
+		if (patch.isEmailIdSet()) {
+			sql.append(", email_address = :emailId");
+		}
+		sql.append(" where id = :id");
+		if (patch.getVersion() != null) {
+			sql.append(" and version = :version");
+		}
+		GenericExecuteSpec update = databaseClient.execute(sql.toString()).bind("id", id);
+		if (patch.isFirstNameSet()) {
+			update = bind(update, "firstName", patch.getFirstName());
+		}
+		if (patch.isLastNameSet()) {
+			update = bind(update, "lastName", patch.getLastName());
+		}
+		if (patch.isEmailIdSet()) {
+			update = bind(update, "emailId", patch.getEmailId());
+		}
+		if (patch.getVersion() != null) {
+			update = update.bind("version", patch.getVersion());
+		}
+		return update.fetch().rowsUpdated();
+	}
+
+	/**
+	 * Deletes the employee, only at the given version when it is not null.
+	 * @return the number of deleted rows
+	 */
+	public Mono<Integer> deleteById(long id, Long version) {
+		GenericExecuteSpec delete = databaseClient.execute("delete from employees where id = :id"
+				+ (version == null ? "" : " and version = :version")).bind("id", id);
+		if (version != null) {
+			delete = delete.bind("version", version);
+		}
+		return delete.fetch().rowsUpdated();
+	}
+
+	private static GenericExecuteSpec bind(GenericExecuteSpec spec, String name, String value) {
+		return value == null ? spec.bindNull(name, String.class) : spec.bind(name, value);
+	}
+
+	private static String column(EmployeeSearchField field) {
+		switch (field) {
+			case FIRST_NAME:
+				return "first_name";
+			case LAST_NAME:
+				return "last_name";
+			case EMAIL_ID:
+				return "email_address";
+			default:
+				throw new IllegalArgumentException(field.name());
+		}
+	}
+
+	private static String escapeLike(String value) {
+		StringBuilder escaped = new StringBuilder(value.length() + 8);
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+				escaped.append(LIKE_ESCAPE);
+			}
+			escaped.append(c);
+		}
+		return escaped.toString();
+	}
+}
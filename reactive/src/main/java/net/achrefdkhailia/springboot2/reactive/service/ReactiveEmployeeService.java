@@ -0,0 +1,145 @@
+package net.achrefdkhailia.springboot2.reactive.service;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+import net.achrefdkhailia.springboot2.exception.InvalidRequestException;
+import net.achrefdkhailia.springboot2.exception.PreconditionFailedException;
+import net.achrefdkhailia.springboot2.exception.ResourceNotFoundException;
+import net.achrefdkhailia.springboot2.exception.VersionConflictException;
+import net.achrefdkhailia.springboot2.model.Employee;
+import net.achrefdkhailia.springboot2.model.EmployeePatch;
+import net.achrefdkhailia.springboot2.model.EmployeeSearchField;
+import net.achrefdkhailia.springboot2.reactive.repository.ReactiveEmployeeRepository;
+import net.achrefdkhailia.springboot2.service.EmployeeCollectionVersion;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * EmployeeService semantics on the reactive repository: the same 404 / 409 / 412 decisions,
+ * taken from the number of rows a single statement changed.
+ */
+@Service
+public class ReactiveEmployeeService {
+
+	private final ReactiveEmployeeRepository employeeRepository;
+
+	private final EmployeeCollectionVersion collectionVersion = new EmployeeCollectionVersion();
+
+	public ReactiveEmployeeService(ReactiveEmployeeRepository employeeRepository) {
+		this.employeeRepository = employeeRepository;
+	}
+
+	public String getCollectionVersion() {
+		return collectionVersion.current();
+	}
+
+	public Flux<Employee> getAllEmployees() {
+		return employeeRepository.findAll();
+	}
+
+	public Flux<Employee> getEmployeesAfter(long afterId, int limit) {
+		return employeeRepository.findPageAfter(afterId, limit);
+	}
+
+	public Flux<Employee> searchEmployees(EmployeeSearchField field, String value, boolean prefix, int limit) {
+		return employeeRepository.search(field, value, prefix, limit);
+	}
+
+	public Mono<Employee> getEmployeeById(long employeeId) {
+		return employeeRepository.findById(employeeId)
+				.switchIfEmpty(notFound(employeeId));
+	}
+
+	public Mono<Long> getEmployeeVersion(long employeeId) {
+		return employeeRepository.findVersionById(employeeId)
+				.switchIfEmpty(notFound(employeeId));
+	}
+
+	public Mono<Employee> createEmployee(Employee employee) {
+		return employeeRepository.insert(employee)
+				.doOnSuccess(created -> collectionVersion.increment());
+	}
+
+	public Mono<Employee> updateEmployee(long employeeId, Employee employeeDetails) {
+		return employeeRepository.update(employeeId, employeeDetails, null)
+				.flatMap(updated -> updated == 0 ? notFound(employeeId) : employeeRepository.findById(employeeId))
+				.doOnSuccess(updated -> collectionVersion.increment());
+	}
+
+	/**
+	 * PUT with If-Match, see EmployeeService.updateEmployeeIfMatch.
+	 */
+	public Mono<Employee> updateEmployeeIfMatch(long employeeId, Employee employeeDetails, Set<Long> versions) {
+		return expectedVersion(employeeId, versions)
+				.flatMap(version -> employeeRepository.update(employeeId, employeeDetails, version)
+						.flatMap(updated -> updated == 0 ? rejectVersion(employeeId, version) : Mono.fromCallable(() -> {
+							Employee updatedEmployee = new Employee(employeeDetails);
+							updatedEmployee.setId(employeeId);
+							updatedEmployee.setVersion(version + 1);
+							collectionVersion.increment();
+							return updatedEmployee;
+						})));
+	}
+
+	public Mono<Void> patchEmployee(long employeeId, EmployeePatch patch) {
+		if (patch.isEmpty()) {
+			return Mono.error(new InvalidRequestException("No field to update for this id :: " + employeeId));
+		}
+		if (patch.isFirstNameSet() && patch.getFirstName() == null) {
+			return Mono.error(new InvalidRequestException("firstName cannot be null"));
+		}
+		return employeeRepository.patch(employeeId, patch)
+				.flatMap(updated -> {
+					if (updated > 0) {
+						collectionVersion.increment();
+						return Mono.<Void>empty();
+					}
+					if (patch.getVersion() == null) {
+						return notFound(employeeId);
+					}
+					return employeeRepository.existsById(employeeId)
+							.flatMap(exists -> exists
+									? Mono.error(new VersionConflictException("Employee " + employeeId + " is no longer at version " + patch.getVersion()))
+									: notFound(employeeId));
+				});
+	}
+
+	public Mono<Map<String, Boolean>> deleteEmployee(long employeeId) {
+		return employeeRepository.deleteById(employeeId, null)
+				.flatMap(deleted -> deleted == 0 ? notFound(employeeId) : deleted());
+	}
+
+	public Mono<Map<String, Boolean>> deleteEmployeeIfMatch(long employeeId, Set<Long> versions) {
+		return expectedVersion(employeeId, versions)
+				.flatMap(version -> employeeRepository.deleteById(employeeId, version)
+						.flatMap(deleted -> deleted == 0 ? rejectVersion(employeeId, version) : deleted()));
+	}
+
+	private Mono<Map<String, Boolean>> deleted() {
+		collectionVersion.increment();
+		return Mono.just(Collections.singletonMap("deleted", Boolean.TRUE));
+	}
+
+	private Mono<Long> expectedVersion(long employeeId, Set<Long> versions) {
+		if (versions.size() == 1) {
+			return Mono.just(versions.iterator().next());
+		}
+		return getEmployeeVersion(employeeId)
+				.flatMap(current -> versions.contains(current) ? Mono.just(current)
+						: Mono.error(new PreconditionFailedException("Employee " + employeeId + " is at version " + current)));
+	}
+
+	private <T> Mono<T> rejectVersion(long employeeId, long version) {
+		return employeeRepository.existsById(employeeId)
+				.flatMap(exists -> exists
+						? Mono.error(new PreconditionFailedException("Employee " + employeeId + " is no longer at version " + version))
+						: notFound(employeeId));
+	}
+
+	private static <T> Mono<T> notFound(long employeeId) {
+		return Mono.error(new ResourceNotFoundException("Employee not found for this id :: " + employeeId));
+	}
+}
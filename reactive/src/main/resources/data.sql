@@ -0,0 +1 @@
+insert into employees (first_name) values ('jhon'), ('frederic'), ('kevin'), ('michel'), ('franc'), ('raymond');
@@ -0,0 +1,10 @@
+create table if not exists employees (
+    id bigint auto_increment primary key,
+    version bigint not null default 0,
+    first_name varchar(255) not null,
+    last_name varchar(255),
+    email_address varchar(255)
+);
+create index if not exists idx_employees_first_name on employees (first_name);
+create index if not exists idx_employees_last_name on employees (last_name);
+create index if not exists idx_employees_email_address on employees (email_address);
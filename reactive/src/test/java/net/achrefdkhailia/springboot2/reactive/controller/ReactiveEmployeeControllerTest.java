@@ -0,0 +1,92 @@
+package net.achrefdkhailia.springboot2.reactive.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import net.achrefdkhailia.springboot2.model.Employee;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class ReactiveEmployeeControllerTest {
+
+	@Autowired
+	private WebTestClient client;
+
+	@Test
+	public void unknownEmployeeIsNotFound() {
+		client.get().uri("/api/v1/employees/{id}", 1_000_000)
+				.exchange()
+				.expectStatus().isNotFound()
+				.expectBody().jsonPath("$.message").isEqualTo("Employee not found for this id :: 1000000");
+	}
+
+	@Test
+	public void currentETagIsNotModified() {
+		String eTag = client.get().uri("/api/v1/employees/{id}", 1)
+				.exchange()
+				.expectStatus().isOk()
+				.returnResult(Employee.class).getResponseHeaders().getETag();
+		assertNotNull(eTag);
+
+		client.get().uri("/api/v1/employees/{id}", 1)
+				.header(HttpHeaders.IF_NONE_MATCH, eTag)
+				.exchange()
+				.expectStatus().isNotModified()
+				.expectHeader().valueEquals(HttpHeaders.ETAG, eTag);
+	}
+
+	@Test
+	public void staleIfMatchIsPreconditionFailed() {
+		client.put().uri("/api/v1/employees/{id}", 2)
+				.header(HttpHeaders.IF_MATCH, "\"999\"")
+				.bodyValue(new Employee("frederic", "b", "frederic@example.com"))
+				.exchange()
+				.expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+	}
+
+	@Test
+	public void employeeWithoutFirstNameIsBadRequest() {
+		client.post().uri("/api/v1/employees")
+				.bodyValue(new Employee(null, "nobody", null))
+				.exchange()
+				.expectStatus().isBadRequest()
+				.expectBody().jsonPath("$.message").isEqualTo("firstName must not be null");
+	}
+
+	@Test
+	public void listIsOneArrayOverSeveralChunks() {
+		// more than one 64-employee chunk
+		for (int i = 0; i < 70; i++) {
+			client.post().uri("/api/v1/employees")
+					.bodyValue(new Employee("chunk" + i, "test", null))
+					.exchange()
+					.expectStatus().isOk();
+		}
+
+		List<Employee> employees = client.get().uri("/api/v1/employees")
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().contentType(MediaType.APPLICATION_JSON)
+				.expectBodyList(Employee.class)
+				.returnResult().getResponseBody();
+
+		assertNotNull(employees);
+		assertTrue(employees.size() >= 76);
+		for (int i = 1; i < employees.size(); i++) {
+			assertTrue(employees.get(i - 1).getId() < employees.get(i).getId());
+		}
+		assertEquals("chunk69", employees.get(employees.size() - 1).getFirstName());
+	}
+}
@@ -0,0 +1,137 @@
+package net.achrefdkhailia.springboot2.aspect;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrency limit adjusted from latency with a gradient: the ratio between the long term average latency
+ * (what the method costs when healthy) and the latency of the last window. While the latency holds, the limit
+ * grows by a queue allowance of sqrt(limit); when it rises, e.g. the database slows down, the limit shrinks in
+ * proportion (smoothed, by at most a tenth per window) and the calls over it are refused instead of piling up inside.
+ *
+ * A window in which a call failed unexpectedly (e.g. a connection pool timeout) cuts the limit by a tenth instead.
+ *
+ * Acquiring is a CAS on the in-flight count. The latencies are summed into adders and the limit is recomputed
+ * by the one caller that closes each window (at least windowNanos and minSamples long).
+ */
+final class AdaptiveConcurrencyLimit {
+
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final double LONG_WINDOW = 600;
+    private static final double BACKOFF = 0.9;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long windowNanos;
+    private final int minSamples;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder sampleNanos = new LongAdder();
+    private final LongAdder samples = new LongAdder();
+    private final LongAdder drops = new LongAdder();
+    private final AtomicLong windowEnd;
+
+    private volatile int limit;
+    private double estimatedLimit;
+    private double longRttNanos;
+
+    AdaptiveConcurrencyLimit(String name, int initialLimit, int minLimit, int maxLimit, long windowNanos, int minSamples) {
+        if (minLimit < 1 || initialLimit < minLimit || maxLimit < initialLimit) {
+            throw new IllegalArgumentException("Invalid bulkhead " + name + ": initial " + initialLimit
+                    + ", min " + minLimit + ", max " + maxLimit);
+        }
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.windowNanos = windowNanos;
+        this.minSamples = minSamples;
+        this.limit = initialLimit;
+        this.estimatedLimit = initialLimit;
+        this.windowEnd = new AtomicLong(System.nanoTime() + windowNanos);
+    }
+
+    String name() {
+        return name;
+    }
+
+    int limit() {
+        return limit;
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return false when the limit is reached, the call must not run
+     */
+    boolean tryAcquire() {
+        for (;;) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Ends a call that was acquired, with its latency.
+     * @param dropped the call failed for a reason that may come from overload
+     */
+    void release(long startNanos, long endNanos, boolean dropped) {
+        int concurrent = inFlight.getAndDecrement();
+        if (dropped) {
+            drops.increment();
+        }
+        sampleNanos.add(endNanos - startNanos);
+        samples.increment();
+        long end = windowEnd.get();
+        if (endNanos - end >= 0 && samples.sum() >= minSamples && windowEnd.compareAndSet(end, endNanos + windowNanos)) {
+            update(concurrent);
+        }
+    }
+
+    /**
+     * Only run by the caller that closed the window, one at a time.
+     */
+    private synchronized void update(int concurrent) {
+        long count = samples.sumThenReset();
+        long total = sampleNanos.sumThenReset();
+        long dropped = drops.sumThenReset();
+        if (count == 0) {
+            return;
+        }
+        if (dropped > 0) {
+            setLimit(estimatedLimit * BACKOFF);
+            return;
+        }
+        double shortRtt = (double) total / count;
+        if (longRttNanos == 0) {
+            longRttNanos = shortRtt;
+        } else {
+            longRttNanos += (shortRtt - longRttNanos) / LONG_WINDOW;
+            // recover the baseline after a long slowdown, instead of staying at the minimum
+            if (longRttNanos / shortRtt > 2) {
+                longRttNanos *= 0.95;
+            }
+        }
+        // calls well under the limit say nothing about a higher one
+        if (concurrent < estimatedLimit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRttNanos / shortRtt));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        setLimit(estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING);
+    }
+
+    private void setLimit(double newLimit) {
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        limit = (int) estimatedLimit;
+    }
+}
@@ -0,0 +1,49 @@
+package net.achrefdkhailia.springboot2.aspect;
+
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.util.ClassUtils;
+
+/**
+ * AspectJ weaving mode, profile "aspectj".
+ *
+ * The @Aspect classes are woven into the application classes instead of being applied through Spring proxies
+ * (spring.aop.auto=false in application-aspectj.properties), either at compile time (mvn -Pctw package,
+ * which also activates the profile) or at load time (-javaagent:aspectjweaver.jar with META-INF/aop.xml).
+ * Woven code calls the AspectJ singleton of each aspect, so the aspect beans are created through aspectOf()
+ * and Spring injects their dependencies into that very instance.
+ * Calls made from inside a bean (self-invocation) are advised as well in this mode.
+ */
+@Configuration
+@Profile("aspectj")
+public class AspectJWeavingConfiguration {
+
+    private static final String APPLICATION_PACKAGE = "net.achrefdkhailia.springboot2.";
+    private static final String ASPECT_OF = "aspectOf";
+
+    @Bean
+    public static BeanFactoryPostProcessor aspectOfFactoryMethods() {
+        return beanFactory -> {
+            for (String name : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definition = beanFactory.getBeanDefinition(name);
+                String className = definition.getBeanClassName();
+                if (className == null || !className.startsWith(APPLICATION_PACKAGE) || definition.getFactoryMethodName() != null) {
+                    continue;
+                }
+                Class<?> type = ClassUtils.resolveClassName(className, beanFactory.getBeanClassLoader());
+                if (!type.isAnnotationPresent(Aspect.class)) {
+                    continue;
+                }
+                if (!ClassUtils.hasMethod(type, ASPECT_OF)) {
+                    throw new IllegalStateException(className + " is not woven, build with -Pctw or start the JVM with"
+                            + " -javaagent:aspectjweaver.jar to use the \"aspectj\" profile");
+                }
+                definition.setFactoryMethodName(ASPECT_OF);
+            }
+        };
+    }
+}
@@ -1,15 +1,20 @@
 package net.achrefdkhailia.springboot2.aspect;
+import net.achrefdkhailia.springboot2.audit.AuditOutcome;
+import net.achrefdkhailia.springboot2.audit.AuthorizationAuditLog;
+import net.achrefdkhailia.springboot2.metrics.MethodNames;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Before;
 import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import javax.servlet.http.HttpServletRequest;
-import java.util.Arrays;
-import java.util.Optional;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 @Aspect
 @Component
@@ -17,8 +22,19 @@ public class AuthorizationAspect {
 
     @Autowired
     AuthorizationImpl authBean;
+
+    /**
+     * Absent with audit.enabled=false.
+     */
+    @Autowired(required = false)
+    AuthorizationAuditLog auditLog;
     private final Logger log = LoggerFactory.getLogger(this.getClass());
 
+    /**
+     * Request binding plan per advised method, computed on the first call only.
+     */
+    private final ConcurrentMap<Method, RequestBinding> bindings = new ConcurrentHashMap<>();
+
 
     @Pointcut("execution(* net.achrefdkhailia.springboot2.controller.*Controller.*(..)) && @annotation(net.achrefdkhailia.springboot2.aspect.Authorized)")
     public void webLayerAnnotatedAuthorized() {
@@ -27,26 +43,44 @@ public class AuthorizationAspect {
 
 
     @Before("webLayerAnnotatedAuthorized()")
-    //public  void before(HttpServletRequest request){
-        public  void before(JoinPoint joinPoint){
-
-        HttpServletRequest request;
-        Optional<Object> opt =Arrays.asList(joinPoint.getArgs()).stream().filter(param-> param  instanceof HttpServletRequest).findFirst() ;
-        if (!opt.isPresent()){
-            throw
-                    new RuntimeException("request should be HttpServletRequesttype");
-        }else{
-             request=(HttpServletRequest)opt.get();
-        }
+    public void before(JoinPoint joinPoint) {
 
-        if(authBean.authorize(request.getHeader("Authorization"))){
-            log.info(
-                    "userSession"+
-                    "session information which cann be acces in controller"
-            );
-        }else {
+        HttpServletRequest request = binding(joinPoint).resolve(joinPoint);
+        String token = request.getHeader(TokenDigest.AUTHORIZATION_HEADER);
+        // already computed by the rate limit on the limited endpoints
+        TokenDigest digest = TokenDigest.of(request);
+
+        boolean authorized;
+        try {
+            authorized = authBean.authorize(token, digest);
+        } catch (RuntimeException e) {
+            audit(joinPoint, digest, AuditOutcome.ERROR);
+            throw e;
+        }
+        audit(joinPoint, digest, authorized ? AuditOutcome.GRANTED : AuditOutcome.DENIED);
+        if (authorized) {
+            if (log.isDebugEnabled()) {
+                log.debug("userSession session information which cann be acces in controller");
+            }
+        } else {
             throw new RuntimeException("auth error..!!!");
         }
 
     }
+
+    private void audit(JoinPoint joinPoint, TokenDigest digest, AuditOutcome outcome) {
+        if (auditLog != null) {
+            auditLog.record(MethodNames.targetType(joinPoint), ((MethodSignature) joinPoint.getSignature()).getMethod(),
+                    digest, outcome);
+        }
+    }
+
+    private RequestBinding binding(JoinPoint joinPoint) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        RequestBinding binding = bindings.get(method);
+        if (binding == null) {
+            binding = bindings.computeIfAbsent(method, RequestBinding::of);
+        }
+        return binding;
+    }
 }
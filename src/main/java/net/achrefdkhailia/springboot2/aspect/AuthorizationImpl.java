@@ -1,11 +1,33 @@
 package net.achrefdkhailia.springboot2.aspect;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 @Component
 public class AuthorizationImpl {
+
+    @Autowired
+    TokenVerificationCache tokenCache;
+
     public boolean authorize(String token) {
+        return authorize(token, TokenDigest.of(token));
+    }
+
+    /**
+     * @param digest the digest of the token, null without a token
+     */
+    public boolean authorize(String token, TokenDigest digest) {
+        if (digest == null) {
+            return verify(token).isAuthorized();
+        }
+        return tokenCache.get(digest, token, this::verify).isAuthorized();
+    }
+
+    /**
+     * Verifies the token itself (signature, claims, expiry), the result is cached by {@link TokenVerificationCache}.
+     */
+    protected TokenVerification verify(String token) {
         // implemnt jwt or any any token based authorization logic
-        return true;
+        return TokenVerification.authorized(Long.MAX_VALUE);
     }
 }
@@ -0,0 +1,21 @@
+package net.achrefdkhailia.springboot2.aspect;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Caps the concurrent calls of the annotated methods, with a limit that adapts to their latency (see BulkheadAspect).
+ * Methods annotated with the same value share one limit.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD) // can use in method only.
+public @interface Bulkhead {
+
+    /**
+     * Name of the limit.
+     */
+    String value();
+
+}
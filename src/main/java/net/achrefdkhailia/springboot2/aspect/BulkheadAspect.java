@@ -0,0 +1,135 @@
+package net.achrefdkhailia.springboot2.aspect;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.achrefdkhailia.springboot2.exception.BulkheadFullException;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Applies {@link Bulkhead} to the service methods: a call over the adaptive concurrency limit of its group fails
+ * at once with a BulkheadFullException (503, Retry-After bulkhead.retry-after); calls failing with an unchecked
+ * exception, such as a connection pool timeout, make the limit back off. The aspect runs outside of the
+ * transaction, so a refused call never takes a database connection.
+ *
+ * bulkhead.enabled=false turns the limits off. Per group, bulkhead.limits.[name].initial-limit / min-limit / max-limit
+ * bound the limit (default 20 / 2 / 200), bulkhead.window and bulkhead.min-samples set how often it is recomputed.
+ * Published as bulkhead.limit, bulkhead.inflight and bulkhead.rejected {name}.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class BulkheadAspect {
+
+    private static final String PROPERTY_PREFIX = "bulkhead.limits.";
+
+    private final Logger log = LoggerFactory.getLogger(this.getClass());
+
+    @Autowired
+    Environment environment;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${bulkhead.enabled:true}")
+    boolean enabled;
+
+    @Value("${bulkhead.window:100ms}")
+    String window;
+
+    @Value("${bulkhead.min-samples:10}")
+    int minSamples;
+
+    @Value("${bulkhead.retry-after:1}")
+    long retryAfterSeconds;
+
+    /**
+     * Limit per advised method, and per name since methods share a limit.
+     */
+    private final ConcurrentMap<Method, LimitBinding> bindings = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LimitBinding> limits = new ConcurrentHashMap<>();
+
+    @Pointcut("execution(* net.achrefdkhailia.springboot2.service.*.*(..)) && @annotation(net.achrefdkhailia.springboot2.aspect.Bulkhead)")
+    public void serviceLayerAnnotatedBulkhead() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    @Around("serviceLayerAnnotatedBulkhead()")
+    public Object around(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!enabled) {
+            return joinPoint.proceed();
+        }
+        LimitBinding binding = binding(joinPoint);
+        AdaptiveConcurrencyLimit limit = binding.limit;
+        if (!limit.tryAcquire()) {
+            binding.rejected.increment();
+            if (log.isDebugEnabled()) {
+                log.debug("Bulkhead {} full at {} calls", limit.name(), limit.limit());
+            }
+            throw new BulkheadFullException("Too many concurrent " + limit.name() + " calls, try again later", retryAfterSeconds);
+        }
+        long start = System.nanoTime();
+        boolean dropped = true;
+        try {
+            Object result = joinPoint.proceed();
+            dropped = false;
+            return result;
+        } catch (Exception e) {
+            // the checked exceptions are answers of the service (not found, conflict...), the others may be overload
+            dropped = e instanceof RuntimeException;
+            throw e;
+        } finally {
+            limit.release(start, System.nanoTime(), dropped);
+        }
+    }
+
+    private LimitBinding binding(ProceedingJoinPoint joinPoint) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        LimitBinding binding = bindings.get(method);
+        if (binding == null) {
+            String name = method.getAnnotation(Bulkhead.class).value();
+            binding = bindings.computeIfAbsent(method, m -> limits.computeIfAbsent(name, this::limit));
+        }
+        return binding;
+    }
+
+    private LimitBinding limit(String name) {
+        int initialLimit = environment.getProperty(PROPERTY_PREFIX + name + ".initial-limit", Integer.class, 20);
+        int minLimit = environment.getProperty(PROPERTY_PREFIX + name + ".min-limit", Integer.class, 2);
+        int maxLimit = environment.getProperty(PROPERTY_PREFIX + name + ".max-limit", Integer.class, 200);
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(name, initialLimit, minLimit, maxLimit,
+                DurationStyle.detectAndParse(window).toNanos(), minSamples);
+        Gauge.builder("bulkhead.limit", limit, AdaptiveConcurrencyLimit::limit).tag("name", name).register(meterRegistry);
+        Gauge.builder("bulkhead.inflight", limit, AdaptiveConcurrencyLimit::inFlight).tag("name", name).register(meterRegistry);
+        Counter rejected = Counter.builder("bulkhead.rejected").tag("name", name).register(meterRegistry);
+        log.info("Bulkhead {}: limit {} between {} and {}", name, initialLimit, minLimit, maxLimit);
+        return new LimitBinding(limit, rejected);
+    }
+
+    private static final class LimitBinding {
+        final AdaptiveConcurrencyLimit limit;
+        final Counter rejected;
+
+        LimitBinding(AdaptiveConcurrencyLimit limit, Counter rejected) {
+            this.limit = limit;
+            this.rejected = rejected;
+        }
+    }
+}
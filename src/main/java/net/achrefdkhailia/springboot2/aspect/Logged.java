@@ -0,0 +1,35 @@
+package net.achrefdkhailia.springboot2.aspect;
+
+import org.slf4j.event.Level;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * How LoggingAspect logs the calls of the annotated method, or of all the methods of the annotated type.
+ * Methods without it are logged with the defaults: arguments and result at DEBUG, every call.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface Logged {
+
+    Level level() default Level.DEBUG;
+
+    /**
+     * Log the entry with the arguments.
+     */
+    boolean arguments() default true;
+
+    /**
+     * Log the exit with the returned value.
+     */
+    boolean result() default true;
+
+    /**
+     * Log one call out of sampleRate, at random.
+     */
+    int sampleRate() default 1;
+
+}
@@ -0,0 +1,52 @@
+package net.achrefdkhailia.springboot2.aspect;
+
+import net.achrefdkhailia.springboot2.logging.LogLevels;
+import net.achrefdkhailia.springboot2.metrics.MethodNames;
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * What LoggingAspect needs to log the calls of one method, resolved once from its {@link Logged} annotation:
+ * the "Type.method(ParameterTypes)" signature (see {@link MethodNames}) and the level, capture and sampling settings.
+ */
+final class LoggedMethod {
+
+    final String signature;
+    final Level level;
+    final boolean arguments;
+    final boolean result;
+    final int sampleRate;
+
+    private LoggedMethod(String signature, Level level, boolean arguments, boolean result, int sampleRate) {
+        this.signature = signature;
+        this.level = level;
+        this.arguments = arguments;
+        this.result = result;
+        this.sampleRate = Math.max(1, sampleRate);
+    }
+
+    /**
+     * The method's annotation, else the one of the type it is called on, else the defaults.
+     */
+    static LoggedMethod of(Class<?> type, Method method) {
+        String signature = MethodNames.of(type, method);
+        Logged logged = AnnotatedElementUtils.findMergedAnnotation(method, Logged.class);
+        if (logged == null) {
+            logged = AnnotatedElementUtils.findMergedAnnotation(type, Logged.class);
+        }
+        return logged == null ? new LoggedMethod(signature, Level.DEBUG, true, true, 1)
+                : new LoggedMethod(signature, logged.level(), logged.arguments(), logged.result(), logged.sampleRate());
+    }
+
+    /**
+     * Whether this call is logged: the level is enabled and the call is sampled.
+     */
+    boolean isLogged(Logger logger) {
+        return (arguments || result) && LogLevels.isEnabled(logger, level)
+                && (sampleRate == 1 || ThreadLocalRandom.current().nextInt(sampleRate) == 0);
+    }
+}
@@ -0,0 +1,64 @@
+package net.achrefdkhailia.springboot2.aspect;
+
+import net.achrefdkhailia.springboot2.metrics.MethodNames;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The {@link LoggedMethod} of each advised method, per type it is called on (see {@link MethodNames#targetType}).
+ * The methods of the application beans are resolved at startup into an immutable table, a method found later
+ * (or without a Spring context) is resolved on its first call.
+ */
+final class LoggedMethods {
+
+    private volatile Map<Class<?>, Map<Method, LoggedMethod>> table = Collections.emptyMap();
+
+    private final ConcurrentMap<Class<?>, ConcurrentMap<Method, LoggedMethod>> resolvedLate = new ConcurrentHashMap<>();
+
+    LoggedMethod get(Class<?> type, Method method) {
+        Map<Method, LoggedMethod> methods = table.get(type);
+        LoggedMethod logged = methods == null ? null : methods.get(method);
+        if (logged == null) {
+            ConcurrentMap<Method, LoggedMethod> late = resolvedLate.get(type);
+            if (late == null) {
+                late = resolvedLate.computeIfAbsent(type, t -> new ConcurrentHashMap<>());
+            }
+            logged = late.get(method);
+            if (logged == null) {
+                logged = late.computeIfAbsent(method, m -> LoggedMethod.of(type, m));
+            }
+        }
+        return logged;
+    }
+
+    /**
+     * Adds the public methods of the types to the table, those of the repository interface for a JDK proxy class.
+     */
+    void resolve(Iterable<Class<?>> types) {
+        Map<Class<?>, Map<Method, LoggedMethod>> resolved = new HashMap<>(table);
+        for (Class<?> type : types) {
+            Class<?> userType = MethodNames.userType(type);
+            Map<Method, LoggedMethod> methods = new HashMap<>();
+            for (Method method : userType.getMethods()) {
+                if (method.getDeclaringClass() != Object.class) {
+                    methods.put(method, LoggedMethod.of(userType, method));
+                }
+            }
+            resolved.put(userType, Collections.unmodifiableMap(methods));
+        }
+        table = Collections.unmodifiableMap(resolved);
+    }
+
+    int size() {
+        int size = 0;
+        for (Map<Method, LoggedMethod> methods : table.values()) {
+            size += methods.size();
+        }
+        return size;
+    }
+}
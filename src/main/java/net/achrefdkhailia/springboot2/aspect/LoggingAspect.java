@@ -1,15 +1,29 @@
 package net.achrefdkhailia.springboot2.aspect;
 
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.List;
 
+import net.achrefdkhailia.springboot2.logging.AsyncLogDispatcher;
+import net.achrefdkhailia.springboot2.logging.LogLevels;
+import net.achrefdkhailia.springboot2.logging.LogRenderer;
+import net.achrefdkhailia.springboot2.metrics.LatencyRecorder;
+import net.achrefdkhailia.springboot2.metrics.MethodNames;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.AfterThrowing;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.repository.Repository;
 import org.springframework.stereotype.Component;
 
 /**
@@ -24,67 +38,156 @@ import org.springframework.stereotype.Component;
  * One of the AOP Best Practices is to define a Common Aspect to store all the Pointcuts(springBeanPointcut() && applicationPackagePointcut())
  * This helps in maintaining the pointcuts at one place.
  * The above common definition can be used when defining point cuts in other aspects: @Around("com.xxx.pointcutNAme()")
+ *
+ * How each method is logged (level, arguments, result, sampling) comes from its {@link Logged} annotation,
+ * resolved once per method into {@link LoggedMethods} at startup: when its level is off a call only pays for
+ * a table lookup and the level check.
  */
 @Aspect
 @Component
-public class LoggingAspect {
+public class LoggingAspect implements BeanFactoryAware, SmartInitializingSingleton {
+
+    private static final String APPLICATION_PACKAGE = "net.achrefdkhailia.springboot2.";
+
+    private static final String ENTER = "Enter: {} with argument[s] = {}";
+    private static final String EXIT = "Exit: {} with result = {}";
 
     private final Logger log = LoggerFactory.getLogger(this.getClass());
 
+    private final LoggedMethods loggedMethods = new LoggedMethods();
+
+    private ListableBeanFactory beanFactory;
+
+    @Autowired
+    AsyncLogDispatcher dispatcher;
+
+    @Autowired
+    LatencyRecorder latencyRecorder;
+
+    @Autowired
+    LogRenderer renderer;
+
     /**
-     * Pointcut that matches all repositories, services and Web REST endpoints.
+     * Pointcut that matches all public method executions of repositories, services and Web REST endpoints.
+     * execution() keeps the AspectJ weaving mode to the join points Spring AOP proxies can advise.
      */
-    @Pointcut("within(@org.springframework.stereotype.Repository *)" +
+    @Pointcut("execution(public * *(..)) && (within(@org.springframework.stereotype.Repository *)" +
         " || within(@org.springframework.stereotype.Service *)" +
-        " || within(@org.springframework.web.bind.annotation.RestController *)")
+        " || within(@org.springframework.web.bind.annotation.RestController *))")
     public void springBeanPointcut() {
         // Method is empty as this is just a Pointcut, the implementations are in the advices.
     }
 
     /**
-     * Pointcut that matches all Spring beans in the application's main packages.
+     * Pointcut that matches all Spring beans in the application's packages.
      */
-    @Pointcut("within(net.guides.springboot2.springboot2jpacrudexample..*)"+
-        " || within(net.guides.springboot2.springboot2jpacrudexample.service..*)"+
-        " || within(net.guides.springboot2.springboot2jpacrudexample.controller..*)")
+    @Pointcut("within(net.achrefdkhailia.springboot2..*)")
     public void applicationPackagePointcut() {
         // Method is empty as this is just a Pointcut, the implementations are in the advices.
     }
 
+    /**
+     * Pointcut that matches the public methods annotated {@link Logged}, or of a type annotated {@link Logged}.
+     */
+    @Pointcut("execution(public * *(..)) && (@within(net.achrefdkhailia.springboot2.aspect.Logged)" +
+        " || @annotation(net.achrefdkhailia.springboot2.aspect.Logged))")
+    public void loggedPointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    /**
+     * Pointcut that matches the Spring Data repositories, their beans are JDK proxies living outside of the application's packages.
+     */
+    @Pointcut("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public void repositoryPointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+        if (beanFactory instanceof ListableBeanFactory) {
+            this.beanFactory = (ListableBeanFactory) beanFactory;
+        }
+    }
+
+    /**
+     * Resolves the logging of the methods of the application beans and repositories, once they are all defined.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (beanFactory == null) {
+            return;
+        }
+        List<Class<?>> types = new ArrayList<>();
+        for (String name : beanFactory.getBeanDefinitionNames()) {
+            Class<?> type = beanFactory.getType(name);
+            if (type != null && (type.getName().startsWith(APPLICATION_PACKAGE) || Repository.class.isAssignableFrom(type))) {
+                types.add(type);
+            }
+        }
+        loggedMethods.resolve(types);
+        log.info("Resolved the logging of {} methods", loggedMethods.size());
+    }
+
     /**
      * Advice that logs methods throwing exceptions.
      * @param joinPoint join point for advice
      * @param e exception
      */
-    @AfterThrowing(pointcut = "applicationPackagePointcut() && springBeanPointcut()", throwing = "e")
+    @AfterThrowing(pointcut = "(applicationPackagePointcut() && springBeanPointcut()) || repositoryPointcut() || loggedPointcut()", throwing = "e")
     public void logAfterThrowing(JoinPoint joinPoint, Throwable e) {
-            log.error("Exception in {}.{}() with cause = {}", joinPoint.getSignature().getDeclaringTypeName(),
-                joinPoint.getSignature().getName(), e.getCause() != null? e.getCause() : "NULL");
+            log.error("Exception in {} with cause = {}", loggedMethod(joinPoint).signature,
+                e.getCause() != null? e.getCause() : "NULL");
     }
 
     /**
-     * Advice that logs when a method is entered and exited.
+     * Advice that logs when a method is entered and exited, and records its latency.
      * @param joinPoint join point for advice
      * @return result
      * @throws Throwable throws IllegalArgumentException
      */
-    @Around("applicationPackagePointcut() && springBeanPointcut()")
+    @Around("(applicationPackagePointcut() && springBeanPointcut()) || repositoryPointcut() || loggedPointcut()")
     public Object logAround(ProceedingJoinPoint joinPoint) throws Throwable {
-        if (log.isDebugEnabled()) {
-            log.debug("Enter: {}.{}() with argument[s] = {}", joinPoint.getSignature().getDeclaringTypeName(),
-                joinPoint.getSignature().getName(), Arrays.toString(joinPoint.getArgs()));
+        LoggedMethod logged = loggedMethod(joinPoint);
+        boolean logging = logged.isLogged(log);
+        if (logging && logged.arguments) {
+            logArgs(logged, joinPoint);
         }
+        long start = System.nanoTime();
         try {
             Object result = joinPoint.proceed();
-            if (log.isDebugEnabled()) {
-                log.debug("Exit: {}.{}() with result = {}", joinPoint.getSignature().getDeclaringTypeName(),
-                    joinPoint.getSignature().getName(), result);
+            if (logging && logged.result) {
+                logResult(logged, result);
             }
             return result;
         } catch (IllegalArgumentException e) {
-            log.error("Illegal argument: {} in {}.{}()", Arrays.toString(joinPoint.getArgs()),
-                joinPoint.getSignature().getDeclaringTypeName(), joinPoint.getSignature().getName());
+            log.error("Illegal argument: {} in {}", renderer.renderArguments(joinPoint.getArgs()), logged.signature);
             throw e;
+        } finally {
+            latencyRecorder.record(joinPoint, System.nanoTime() - start);
+        }
+    }
+
+    private LoggedMethod loggedMethod(JoinPoint joinPoint) {
+        return loggedMethods.get(MethodNames.targetType(joinPoint), ((MethodSignature) joinPoint.getSignature()).getMethod());
+    }
+
+    /**
+     * Logs the join point arguments, on the request thread or through the {@link AsyncLogDispatcher}.
+     */
+    private void logArgs(LoggedMethod logged, JoinPoint joinPoint) {
+        if (dispatcher.isEnabled()) {
+            dispatcher.publishArgs(log, logged.level, ENTER, logged.signature, joinPoint.getArgs());
+        } else {
+            LogLevels.log(log, logged.level, ENTER, logged.signature, renderer.renderArguments(joinPoint.getArgs()));
+        }
+    }
+
+    private void logResult(LoggedMethod logged, Object result) {
+        if (dispatcher.isEnabled()) {
+            dispatcher.publishResult(log, logged.level, EXIT, logged.signature, result);
+        } else {
+            LogLevels.log(log, logged.level, EXIT, logged.signature, renderer.render(result));
         }
     }
 }
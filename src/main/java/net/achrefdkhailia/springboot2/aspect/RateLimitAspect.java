@@ -0,0 +1,148 @@
+package net.achrefdkhailia.springboot2.aspect;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.achrefdkhailia.springboot2.exception.TooManyRequestsException;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Before;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies {@link RateLimited} to the controller methods, before any other aspect so that a client over
+ * its limit is turned away (429, Retry-After and X-RateLimit-* headers) before authorization, EmployeeService
+ * and the database. Allowed calls get the X-RateLimit-* headers as well.
+ *
+ * A client is the {@link TokenDigest} of its Authorization header once the token is known to be valid
+ * ({@link TokenVerificationCache}), its remote address until then: the rate limit runs before the token is verified,
+ * and keying by an unverified header would give a fresh bucket to every made-up token. The digest is computed once
+ * per request and left in the request for the authorization and the audit log; the raw token is never a key.
+ *
+ * rate-limit.enabled=false turns the limits off, rate-limit.max-clients bounds the clients tracked per limit.
+ * Refused calls are counted as ratelimit.rejected {limit=name}, the tracked clients published as ratelimit.clients.
+ */
+@Aspect
+@Component
+// right after ExposeInvocationInterceptor, which the JoinPoint needs
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class RateLimitAspect {
+
+    private static final String PROPERTY_PREFIX = "rate-limit.limits.";
+
+    private final Logger log = LoggerFactory.getLogger(this.getClass());
+
+    @Autowired
+    Environment environment;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    TokenVerificationCache tokenCache;
+
+    @Value("${rate-limit.enabled:true}")
+    boolean enabled;
+
+    @Value("${rate-limit.max-clients:10000}")
+    int maxClients;
+
+    /**
+     * Limit per advised method, and per name since endpoints may share a limit.
+     */
+    private final ConcurrentMap<Method, LimitBinding> bindings = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LimitBinding> limits = new ConcurrentHashMap<>();
+
+    @Pointcut("execution(* net.achrefdkhailia.springboot2.controller.*Controller.*(..)) && @annotation(net.achrefdkhailia.springboot2.aspect.RateLimited)")
+    public void webLayerAnnotatedRateLimited() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    @Before("webLayerAnnotatedRateLimited()")
+    public void before(JoinPoint joinPoint) {
+        if (!enabled) {
+            return;
+        }
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            return;
+        }
+        HttpServletRequest request = ((ServletRequestAttributes) attributes).getRequest();
+        HttpServletResponse response = ((ServletRequestAttributes) attributes).getResponse();
+        LimitBinding binding = binding(joinPoint);
+        RateLimiter limiter = binding.limiter;
+
+        TokenDigest digest = TokenDigest.of(request);
+        Object client = digest != null && tokenCache.isAuthorized(digest) ? digest : request.getRemoteAddr();
+        long result = limiter.tryAcquire(client, System.nanoTime());
+        if (result < 0) {
+            binding.rejected.increment();
+            if (log.isDebugEnabled()) {
+                log.debug("Rate limit {} reached by {}", limiter.name(), request.getRemoteAddr());
+            }
+            throw new TooManyRequestsException("Rate limit " + limiter.name() + " exceeded, try again later",
+                    limiter.burst(), seconds(-result), seconds(limiter.resetNanos(result)));
+        }
+        if (response != null) {
+            response.setIntHeader(TooManyRequestsException.LIMIT_HEADER, limiter.burst());
+            response.setIntHeader(TooManyRequestsException.REMAINING_HEADER, limiter.remaining(result));
+            response.setIntHeader(TooManyRequestsException.RESET_HEADER, (int) seconds(limiter.resetNanos(result)));
+        }
+    }
+
+    private LimitBinding binding(JoinPoint joinPoint) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        LimitBinding binding = bindings.get(method);
+        if (binding == null) {
+            RateLimited rateLimited = method.getAnnotation(RateLimited.class);
+            binding = bindings.computeIfAbsent(method, m -> limits.computeIfAbsent(rateLimited.value(), name -> limit(rateLimited)));
+        }
+        return binding;
+    }
+
+    private LimitBinding limit(RateLimited rateLimited) {
+        String name = rateLimited.value();
+        int permits = environment.getProperty(PROPERTY_PREFIX + name + ".permits", Integer.class, rateLimited.permits());
+        String period = environment.getProperty(PROPERTY_PREFIX + name + ".period", rateLimited.period());
+        int burst = environment.getProperty(PROPERTY_PREFIX + name + ".burst", Integer.class, rateLimited.burst());
+        RateLimiter limiter = new RateLimiter(name, permits, DurationStyle.detectAndParse(period).toNanos(), burst, maxClients);
+        Counter rejected = Counter.builder("ratelimit.rejected").tag("limit", name).register(meterRegistry);
+        Gauge.builder("ratelimit.clients", limiter, RateLimiter::size).tag("limit", name).register(meterRegistry);
+        log.info("Rate limit {}: {} calls per {}, burst {}", name, permits, period, limiter.burst());
+        return new LimitBinding(limiter, rejected);
+    }
+
+    private static long seconds(long nanos) {
+        return Math.max(1L, (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private static final class LimitBinding {
+        final RateLimiter limiter;
+        final Counter rejected;
+
+        LimitBinding(RateLimiter limiter, Counter rejected) {
+            this.limiter = limiter;
+            this.rejected = rejected;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package net.achrefdkhailia.springboot2.aspect;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Limits the calls of each client (a verified Authorization header, or the remote address) to the annotated endpoint.
+ *
+ * Endpoints annotated with the same value share one limit. permits, period and burst can be overridden
+ * with the rate-limit.limits.[value].permits / period / burst properties.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD) // can use in method only.
+public @interface RateLimited {
+
+    /**
+     * Name of the limit.
+     */
+    String value();
+
+    /**
+     * Calls allowed per period, on average.
+     */
+    int permits();
+
+    /**
+     * e.g. 1s, 500ms, 1m
+     */
+    String period() default "1s";
+
+    /**
+     * Calls a client may send at once after being idle, permits when 0.
+     */
+    int burst() default 0;
+
+}
@@ -0,0 +1,113 @@
+package net.achrefdkhailia.springboot2.aspect;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-client token buckets of one {@link RateLimited} limit, as a generic cell rate algorithm:
+ * each client is a single AtomicLong holding the time at which its bucket is full again, and a call is
+ * one compare-and-set moving that time forward by one emission interval (period / permits), refused when
+ * it would move further than burst intervals ahead of now. A known client costs no lock and no allocation.
+ *
+ * A bucket whose time has passed is full, so it is the same as no bucket: such idle entries are removed
+ * when the table reaches maxClients, and while it is still full of active clients the new ones share one bucket.
+ */
+final class RateLimiter {
+
+    private final String name;
+    private final int burst;
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final int maxClients;
+
+    private final ConcurrentMap<Object, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong overflow = new AtomicLong(Long.MIN_VALUE);
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+
+    RateLimiter(String name, int permits, long periodNanos, int burst, int maxClients) {
+        if (permits <= 0 || periodNanos <= 0 || burst < 0) {
+            throw new IllegalArgumentException("Invalid rate limit " + name + ": " + permits + " permits per "
+                    + periodNanos + "ns, burst " + burst);
+        }
+        this.name = name;
+        this.burst = burst == 0 ? permits : burst;
+        this.intervalNanos = Math.max(1L, periodNanos / permits);
+        this.toleranceNanos = this.intervalNanos * this.burst;
+        this.maxClients = maxClients;
+    }
+
+    String name() {
+        return name;
+    }
+
+    int burst() {
+        return burst;
+    }
+
+    /**
+     * @param client the client's key, a remote address or a {@link TokenDigest}
+     * @return when allowed, the nanoseconds until the client's bucket is full again (&gt; 0);
+     * when refused, minus the nanoseconds until the next call would be allowed (&lt; 0)
+     */
+    long tryAcquire(Object client, long now) {
+        AtomicLong bucket = bucket(client, now);
+        for (;;) {
+            long full = bucket.get();
+            long next = Math.max(full, now) + intervalNanos;
+            long debt = next - now;
+            if (debt > toleranceNanos) {
+                return toleranceNanos - debt;
+            }
+            if (bucket.compareAndSet(full, next)) {
+                return debt;
+            }
+        }
+    }
+
+    /**
+     * Calls still allowed at once after a call that returned debtNanos.
+     */
+    int remaining(long debtNanos) {
+        return (int) ((toleranceNanos - debtNanos) / intervalNanos);
+    }
+
+    /**
+     * Nanoseconds until the client's bucket is full again, after a call that returned result.
+     */
+    long resetNanos(long result) {
+        return result > 0 ? result : toleranceNanos - result - intervalNanos;
+    }
+
+    int size() {
+        return buckets.size();
+    }
+
+    private AtomicLong bucket(Object client, long now) {
+        AtomicLong bucket = buckets.get(client);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxClients) {
+            evictIdle(now);
+            if (buckets.size() >= maxClients) {
+                return overflow;
+            }
+        }
+        AtomicLong created = new AtomicLong(now);
+        bucket = buckets.putIfAbsent(client, created);
+        return bucket == null ? created : bucket;
+    }
+
+    private void evictIdle(long now) {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+        } finally {
+            sweeping.set(false);
+        }
+    }
+}
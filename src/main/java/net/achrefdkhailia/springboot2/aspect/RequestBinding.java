@@ -0,0 +1,65 @@
+package net.achrefdkhailia.springboot2.aspect;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.aspectj.lang.JoinPoint;
+import org.springframework.aop.aspectj.MethodInvocationProceedingJoinPoint;
+import org.springframework.aop.interceptor.ExposeInvocationInterceptor;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.http.HttpServletRequest;
+import java.lang.reflect.Method;
+
+/**
+ * Where an advised method gets its HttpServletRequest from, resolved once per Method:
+ * either one of its arguments, or the request bound to the current thread by the DispatcherServlet.
+ */
+final class RequestBinding {
+
+    private static final int CURRENT_REQUEST = -1;
+
+    private final Method method;
+    private final int argIndex;
+
+    private RequestBinding(Method method, int argIndex) {
+        this.method = method;
+        this.argIndex = argIndex;
+    }
+
+    static RequestBinding of(Method method) {
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (HttpServletRequest.class.isAssignableFrom(parameterTypes[i])) {
+                return new RequestBinding(method, i);
+            }
+        }
+        return new RequestBinding(method, CURRENT_REQUEST);
+    }
+
+    HttpServletRequest resolve(JoinPoint joinPoint) {
+        if (argIndex != CURRENT_REQUEST) {
+            Object arg = argument(joinPoint);
+            if (arg != null) {
+                return (HttpServletRequest) arg;
+            }
+        }
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes) {
+            return ((ServletRequestAttributes) attributes).getRequest();
+        }
+        throw new IllegalStateException("No HttpServletRequest available for " + method);
+    }
+
+    /**
+     * The argument, read from the proxy's own arguments array when advised through a Spring AOP proxy
+     * (JoinPoint.getArgs() returns a copy of it); woven code (profile "aspectj") only has getArgs().
+     */
+    private Object argument(JoinPoint joinPoint) {
+        if (joinPoint instanceof MethodInvocationProceedingJoinPoint) {
+            MethodInvocation invocation = ExposeInvocationInterceptor.currentInvocation();
+            return invocation.getArguments()[argIndex];
+        }
+        return joinPoint.getArgs()[argIndex];
+    }
+}
@@ -0,0 +1,97 @@
+package net.achrefdkhailia.springboot2.aspect;
+
+import javax.servlet.http.HttpServletRequest;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * SHA-256 digest of an Authorization token, what the rate limit, the {@link TokenVerificationCache} and the audit log
+ * keep instead of the raw token. {@link #of(HttpServletRequest)} computes it once per request, the aspects that
+ * run after the first one find it in a request attribute.
+ */
+public final class TokenDigest {
+
+    static final String AUTHORIZATION_HEADER = "Authorization";
+
+    private static final String ATTRIBUTE = TokenDigest.class.getName();
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final byte[] bytes;
+    private final int hash;
+
+    private TokenDigest(byte[] bytes) {
+        this.bytes = bytes;
+        this.hash = Arrays.hashCode(bytes);
+    }
+
+    /**
+     * @return the digest of the token, null without a token
+     */
+    public static TokenDigest of(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        MessageDigest md = SHA_256.get();
+        md.reset();
+        return new TokenDigest(md.digest(token.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * The digest of the request's Authorization header, computed on the first call for the request.
+     * @return null without an Authorization header
+     */
+    public static TokenDigest of(HttpServletRequest request) {
+        Object digest = request.getAttribute(ATTRIBUTE);
+        if (digest instanceof TokenDigest) {
+            return (TokenDigest) digest;
+        }
+        TokenDigest computed = of(request.getHeader(AUTHORIZATION_HEADER));
+        if (computed != null) {
+            request.setAttribute(ATTRIBUTE, computed);
+        }
+        return computed;
+    }
+
+    public int length() {
+        return bytes.length;
+    }
+
+    public byte byteAt(int index) {
+        return bytes[index];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof TokenDigest && hash == ((TokenDigest) o).hash
+                && Arrays.equals(bytes, ((TokenDigest) o).bytes);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    /**
+     * The digest in hexadecimal.
+     */
+    @Override
+    public String toString() {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,34 @@
+package net.achrefdkhailia.springboot2.aspect;
+
+/**
+ * Outcome of verifying an authorization token, as kept in the {@link TokenVerificationCache}.
+ * expiresAtMillis is the token's own expiry (epoch millis), Long.MAX_VALUE when the token does not carry one.
+ */
+public final class TokenVerification {
+
+    private static final TokenVerification DENIED = new TokenVerification(false, Long.MAX_VALUE);
+
+    private final boolean authorized;
+    private final long expiresAtMillis;
+
+    private TokenVerification(boolean authorized, long expiresAtMillis) {
+        this.authorized = authorized;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    public static TokenVerification authorized(long expiresAtMillis) {
+        return new TokenVerification(true, expiresAtMillis);
+    }
+
+    public static TokenVerification denied() {
+        return DENIED;
+    }
+
+    public boolean isAuthorized() {
+        return authorized;
+    }
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+}
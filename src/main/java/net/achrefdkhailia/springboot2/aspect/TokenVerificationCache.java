@@ -0,0 +1,97 @@
+package net.achrefdkhailia.springboot2.aspect;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of verified tokens, keyed by the {@link TokenDigest} of the token so raw tokens are never kept on the heap.
+ *
+ * An entry expires at the token's own expiry or after authorization.token-cache.ttl, whichever comes first,
+ * a denied token after authorization.token-cache.negative-ttl (short, a token may be denied while it is not valid yet
+ * or while its issuer is unavailable), and the least recently used entries are evicted beyond
+ * authorization.token-cache.maximum-size.
+ * Concurrent first-time lookups of the same token block on a single verification (no stampede).
+ * Hit / miss / eviction counters are published as the "authorization.tokens" cache metrics (/actuator/metrics/cache.gets ...).
+ */
+@Component
+public class TokenVerificationCache {
+
+    private final Cache<TokenDigest, TokenVerification> cache;
+
+    public TokenVerificationCache(@Value("${authorization.token-cache.maximum-size:10000}") long maximumSize,
+                                  @Value("${authorization.token-cache.ttl:5m}") Duration ttl,
+                                  @Value("${authorization.token-cache.negative-ttl:10s}") Duration negativeTtl,
+                                  MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new TokenExpiry(ttl.toNanos(), negativeTtl.toNanos()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "authorization.tokens");
+    }
+
+    /**
+     * Returns the cached verification of the token, running the verifier at most once per token until the entry expires.
+     */
+    public TokenVerification get(String token, Function<String, TokenVerification> verifier) {
+        return get(TokenDigest.of(token), token, verifier);
+    }
+
+    /**
+     * Same as {@link #get(String, Function)} with the digest of the token already computed.
+     */
+    public TokenVerification get(TokenDigest digest, String token, Function<String, TokenVerification> verifier) {
+        return cache.get(digest, key -> verifier.apply(token));
+    }
+
+    /**
+     * Whether the token is cached as authorized, without verifying it.
+     */
+    public boolean isAuthorized(TokenDigest digest) {
+        TokenVerification verification = cache.getIfPresent(digest);
+        return verification != null && verification.isAuthorized();
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    static final class TokenExpiry implements Expiry<TokenDigest, TokenVerification> {
+
+        private final long ttlNanos;
+        private final long negativeTtlNanos;
+
+        TokenExpiry(long ttlNanos, long negativeTtlNanos) {
+            this.ttlNanos = ttlNanos;
+            this.negativeTtlNanos = negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(TokenDigest key, TokenVerification value, long currentTime) {
+            if (!value.isAuthorized()) {
+                return negativeTtlNanos;
+            }
+            long remainingMillis = Math.max(0L, value.getExpiresAtMillis() - System.currentTimeMillis());
+            return Math.min(ttlNanos, TimeUnit.MILLISECONDS.toNanos(remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(TokenDigest key, TokenVerification value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(TokenDigest key, TokenVerification value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package net.achrefdkhailia.springboot2.aspect;
+
+import net.achrefdkhailia.springboot2.metrics.MethodNames;
+import net.achrefdkhailia.springboot2.tracing.Span;
+import net.achrefdkhailia.springboot2.tracing.TraceContext;
+import net.achrefdkhailia.springboot2.tracing.TraceRecorder;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Records a span for each call of the LoggingAspect pointcuts (controllers, services, repositories) when tracing.enabled=true.
+ *
+ * The outermost call of a thread starts the trace, from the request's traceparent header or sampled at
+ * tracing.sample-rate, and a sampled trace returns its traceparent header. Calls of an unsampled trace only move
+ * the depth of the thread's {@link TraceContext}: no clock, no allocation.
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(name = "tracing.enabled", havingValue = "true")
+@Order(Ordered.HIGHEST_PRECEDENCE + 3)
+public class TracingAspect {
+
+    @Autowired
+    TraceRecorder recorder;
+
+    /**
+     * Span names per type called and method, see {@link MethodNames}.
+     */
+    private final ConcurrentMap<Class<?>, ConcurrentMap<Method, String>> names = new ConcurrentHashMap<>();
+
+    @Around("(net.achrefdkhailia.springboot2.aspect.LoggingAspect.applicationPackagePointcut()"
+            + " && net.achrefdkhailia.springboot2.aspect.LoggingAspect.springBeanPointcut())"
+            + " || net.achrefdkhailia.springboot2.aspect.LoggingAspect.repositoryPointcut()")
+    public Object trace(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (recorder == null) {
+            // woven without the tracing.enabled bean
+            return joinPoint.proceed();
+        }
+        TraceContext context = TraceContext.current();
+        ServletRequestAttributes request = null;
+        if (context.isIdle()) {
+            request = request();
+            context.start(request == null ? null : request.getRequest().getHeader(TraceContext.TRACEPARENT),
+                    recorder.getSampleRate());
+        }
+        long spanId = context.enter();
+        if (spanId != 0 && request != null) {
+            // the root span is the parent of the calls made with the returned header
+            HttpServletResponse response = request.getResponse();
+            if (response != null && !response.isCommitted()) {
+                response.setHeader(TraceContext.TRACEPARENT, context.traceparent());
+            }
+        }
+        try {
+            if (spanId == 0) {
+                return joinPoint.proceed();
+            }
+            long start = System.nanoTime();
+            boolean error = true;
+            try {
+                Object result = joinPoint.proceed();
+                error = false;
+                return result;
+            } finally {
+                recorder.record(new Span(context.getTraceIdHigh(), context.getTraceIdLow(), spanId, context.parentId(),
+                        context.epochMicros(start), System.nanoTime() - start, name(joinPoint), error));
+            }
+        } finally {
+            context.exit();
+        }
+    }
+
+    private static ServletRequestAttributes request() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes instanceof ServletRequestAttributes ? (ServletRequestAttributes) attributes : null;
+    }
+
+    private String name(ProceedingJoinPoint joinPoint) {
+        Class<?> type = MethodNames.targetType(joinPoint);
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        ConcurrentMap<Method, String> byMethod = names.get(type);
+        if (byMethod == null) {
+            byMethod = names.computeIfAbsent(type, t -> new ConcurrentHashMap<>());
+        }
+        String name = byMethod.get(method);
+        if (name == null) {
+            name = byMethod.computeIfAbsent(method, m -> MethodNames.of(type, m));
+        }
+        return name;
+    }
+}
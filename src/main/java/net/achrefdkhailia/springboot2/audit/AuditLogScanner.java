@@ -0,0 +1,195 @@
+package net.achrefdkhailia.springboot2.audit;
+
+import net.achrefdkhailia.springboot2.metrics.MethodNames;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static net.achrefdkhailia.springboot2.audit.AuthorizationAuditLog.DIGEST_LENGTH;
+import static net.achrefdkhailia.springboot2.audit.AuthorizationAuditLog.DIGEST_OFFSET;
+import static net.achrefdkhailia.springboot2.audit.AuthorizationAuditLog.METHOD_OFFSET;
+import static net.achrefdkhailia.springboot2.audit.AuthorizationAuditLog.OUTCOME_OFFSET;
+import static net.achrefdkhailia.springboot2.audit.AuthorizationAuditLog.RECORD_SIZE;
+
+/**
+ * Offline query of the {@link AuthorizationAuditLog} segments: each segment is mapped read-only and its records are
+ * filtered in place, only the matching ones become objects. Segments entirely before the time range are skipped
+ * from the first record of the next one, and the scan stops at the first segment after it.
+ *
+ * Usage: AuditLogScanner [directory, default audit] [from=ISO instant] [to=ISO instant]
+ * [outcome=GRANTED|DENIED|ERROR] [method=Type.method or Type.method(ParameterTypes)] [count]
+ * e.g. java -cp app.jar -Dloader.main=net.achrefdkhailia.springboot2.audit.AuditLogScanner
+ *      org.springframework.boot.loader.PropertiesLauncher audit from=2026-10-18T10:00:00Z outcome=DENIED
+ */
+public final class AuditLogScanner {
+
+    /**
+     * Concurrent writers take their timestamp before their slot, so neighbouring segments overlap by a few ms.
+     */
+    private static final long SEGMENT_OVERLAP_MILLIS = 1000;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Path directory;
+    private final Map<Integer, String> methods;
+
+    public AuditLogScanner(Path directory) throws IOException {
+        this.directory = directory;
+        this.methods = readMethodNames(directory);
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Paths.get(args.length > 0 && args[0].indexOf('=') < 0 && !"count".equals(args[0]) ? args[0] : "audit");
+        long from = Long.MIN_VALUE;
+        long to = Long.MAX_VALUE;
+        AuditOutcome outcome = null;
+        String method = null;
+        boolean countOnly = false;
+        for (String arg : args) {
+            if (arg.startsWith("from=")) {
+                from = Instant.parse(arg.substring(5)).toEpochMilli();
+            } else if (arg.startsWith("to=")) {
+                to = Instant.parse(arg.substring(3)).toEpochMilli();
+            } else if (arg.startsWith("outcome=")) {
+                outcome = AuditOutcome.valueOf(arg.substring(8));
+            } else if (arg.startsWith("method=")) {
+                method = arg.substring(7);
+            } else if ("count".equals(arg)) {
+                countOnly = true;
+            }
+        }
+        Consumer<AuditRecord> printer = countOnly ? record -> { } : System.out::println;
+        long matched = new AuditLogScanner(directory).scan(from, to, outcome, method, printer);
+        System.out.println(matched + " record(s)");
+    }
+
+    /**
+     * Passes the records of [fromMillis, toMillis] with the given outcome and method (null for any) to the consumer.
+     * A method without its parameter types matches all its overloads.
+     * @return the number of matching records
+     */
+    public long scan(long fromMillis, long toMillis, AuditOutcome outcome, String method,
+                     Consumer<AuditRecord> consumer) throws IOException {
+        Set<Integer> methodIds = method == null ? null : methodIds(method);
+        byte outcomeCode = outcome == null ? 0 : outcome.code();
+        List<Path> segments = segments();
+        // bounds of the segments that can hold records of the range, without overflowing the open bounds
+        long firstSegmentEnd = fromMillis == Long.MIN_VALUE ? Long.MIN_VALUE : fromMillis - SEGMENT_OVERLAP_MILLIS;
+        long lastSegmentStart = toMillis == Long.MAX_VALUE ? Long.MAX_VALUE : toMillis + SEGMENT_OVERLAP_MILLIS;
+        long matched = 0;
+        MappedByteBuffer next = segments.isEmpty() ? null : map(segments.get(0));
+        for (int i = 0; i < segments.size(); i++) {
+            MappedByteBuffer segment = next;
+            next = i + 1 < segments.size() ? map(segments.get(i + 1)) : null;
+            if (next != null && firstTimestamp(next) < firstSegmentEnd) {
+                continue;
+            }
+            if (firstTimestamp(segment) > lastSegmentStart) {
+                break;
+            }
+            for (int offset = 0; offset <= segment.limit() - RECORD_SIZE; offset += RECORD_SIZE) {
+                long timestamp = segment.getLong(offset);
+                if (timestamp == 0 || timestamp < fromMillis || timestamp > toMillis
+                        || (outcomeCode != 0 && segment.get(offset + OUTCOME_OFFSET) != outcomeCode)
+                        || (methodIds != null && !methodIds.contains(segment.getInt(offset + METHOD_OFFSET)))) {
+                    continue;
+                }
+                matched++;
+                consumer.accept(record(segment, offset, timestamp));
+            }
+        }
+        return matched;
+    }
+
+    private Set<Integer> methodIds(String method) {
+        Set<Integer> ids = new HashSet<>();
+        ids.add(method.hashCode());
+        for (Map.Entry<Integer, String> name : methods.entrySet()) {
+            if (MethodNames.withoutParameters(name.getValue()).equals(method)) {
+                ids.add(name.getKey());
+            }
+        }
+        return ids;
+    }
+
+    private AuditRecord record(MappedByteBuffer segment, int offset, long timestamp) {
+        int methodId = segment.getInt(offset + METHOD_OFFSET);
+        String method = methods.get(methodId);
+        char[] digest = new char[DIGEST_LENGTH * 2];
+        for (int i = 0; i < DIGEST_LENGTH; i++) {
+            byte b = segment.get(offset + DIGEST_OFFSET + i);
+            digest[i * 2] = HEX[(b >> 4) & 0xF];
+            digest[i * 2 + 1] = HEX[b & 0xF];
+        }
+        return new AuditRecord(timestamp, method == null ? "#" + methodId : method,
+                AuditOutcome.of(segment.get(offset + OUTCOME_OFFSET)), new String(digest));
+    }
+
+    /**
+     * The segments in write order.
+     */
+    private List<Path> segments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        String pattern = AuthorizationAuditLog.SEGMENT_PREFIX + "*" + AuthorizationAuditLog.SEGMENT_SUFFIX;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, pattern)) {
+            files.forEach(segments::add);
+        }
+        // the sequence is zero-padded
+        segments.sort(null);
+        return segments;
+    }
+
+    private static MappedByteBuffer map(Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * Timestamp of the first written record, Long.MAX_VALUE for an empty segment.
+     */
+    private static long firstTimestamp(MappedByteBuffer segment) {
+        for (int offset = 0; offset <= segment.limit() - RECORD_SIZE; offset += RECORD_SIZE) {
+            long timestamp = segment.getLong(offset);
+            if (timestamp != 0) {
+                return timestamp;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * The method names of methods.txt by id.
+     */
+    static Map<Integer, String> readMethodNames(Path directory) throws IOException {
+        Map<Integer, String> names = new HashMap<>();
+        Path file = directory.resolve(AuthorizationAuditLog.METHODS_FILE);
+        if (Files.exists(file)) {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                int tab = line.indexOf('\t');
+                if (tab > 0) {
+                    names.put(Integer.parseInt(line.substring(0, tab)), line.substring(tab + 1));
+                }
+            }
+        }
+        return names;
+    }
+}
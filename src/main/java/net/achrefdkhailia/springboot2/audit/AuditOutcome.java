@@ -0,0 +1,35 @@
+package net.achrefdkhailia.springboot2.audit;
+
+/**
+ * Decision of an authorization check, stored as one byte of the audit record.
+ */
+public enum AuditOutcome {
+
+    GRANTED(1),
+
+    DENIED(2),
+
+    /**
+     * The check itself failed, the request was refused.
+     */
+    ERROR(3);
+
+    private final byte code;
+
+    AuditOutcome(int code) {
+        this.code = (byte) code;
+    }
+
+    byte code() {
+        return code;
+    }
+
+    static AuditOutcome of(byte code) {
+        for (AuditOutcome outcome : values()) {
+            if (outcome.code == code) {
+                return outcome;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,48 @@
+package net.achrefdkhailia.springboot2.audit;
+
+import java.time.Instant;
+
+/**
+ * One authorization decision read back by {@link AuditLogScanner}.
+ */
+public final class AuditRecord {
+
+    private final long timestampMillis;
+    private final String method;
+    private final AuditOutcome outcome;
+    private final String tokenDigest;
+
+    AuditRecord(long timestampMillis, String method, AuditOutcome outcome, String tokenDigest) {
+        this.timestampMillis = timestampMillis;
+        this.method = method;
+        this.outcome = outcome;
+        this.tokenDigest = tokenDigest;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    /**
+     * "Class.method", or the method id when methods.txt does not name it.
+     */
+    public String getMethod() {
+        return method;
+    }
+
+    public AuditOutcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * Hex of the first 16 bytes of the token's SHA-256, all zeros without a token.
+     */
+    public String getTokenDigest() {
+        return tokenDigest;
+    }
+
+    @Override
+    public String toString() {
+        return Instant.ofEpochMilli(timestampMillis) + " " + outcome + " " + method + " " + tokenDigest;
+    }
+}
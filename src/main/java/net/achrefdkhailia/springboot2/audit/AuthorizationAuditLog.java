@@ -0,0 +1,234 @@
+package net.achrefdkhailia.springboot2.audit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.achrefdkhailia.springboot2.aspect.TokenDigest;
+import net.achrefdkhailia.springboot2.metrics.MethodNames;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Method;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Append-only log of the authorization decisions (audit.enabled), read offline with {@link AuditLogScanner}.
+ *
+ * Each decision is a fixed 32 bytes record written into a memory-mapped segment file of audit.segment-size:
+ * <pre>
+ *  0  long  timestamp, ms since the epoch, written last (0 = free slot)
+ *  8  int   method id, the hash code of the method's name (see {@link MethodNames}), named in methods.txt
+ * 12  byte  outcome, see {@link AuditOutcome}
+ * 13  3 bytes padding
+ * 16  16 bytes of the SHA-256 digest of the token (zeros without a token)
+ * </pre>
+ * Request threads reserve their slot with an atomic increment and write it in place, there is no lock and no
+ * system call per record; the thread that finds the segment full opens the next one. The files are named
+ * authorization-[sequence].audit and a restart continues with a new segment. The first segment is only created
+ * by the first decision. The OS writes the pages back to disk, records still in memory are lost with the machine
+ * (not with the process).
+ */
+@Component
+@ConditionalOnProperty(name = "audit.enabled", havingValue = "true", matchIfMissing = true)
+public class AuthorizationAuditLog {
+
+    static final int RECORD_SIZE = 32;
+    static final int METHOD_OFFSET = 8;
+    static final int OUTCOME_OFFSET = 12;
+    static final int DIGEST_OFFSET = 16;
+    static final int DIGEST_LENGTH = 16;
+
+    static final String SEGMENT_PREFIX = "authorization-";
+    static final String SEGMENT_SUFFIX = ".audit";
+    static final String METHODS_FILE = "methods.txt";
+
+    private final Logger log = LoggerFactory.getLogger(this.getClass());
+
+    private final Path directory;
+    private final int segmentSize;
+    private final LongAdder records = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    private final ConcurrentMap<Class<?>, ConcurrentMap<Method, Integer>> methodIds = new ConcurrentHashMap<>();
+
+    /**
+     * Method ids already in methods.txt, guarded by this.
+     */
+    private Set<Integer> namedMethods;
+
+    private volatile Segment current;
+
+    /**
+     * Sequence of the current segment, guarded by this.
+     */
+    private long sequence;
+
+    public AuthorizationAuditLog(@Value("${audit.directory:audit}") String directory,
+                                 @Value("${audit.segment-size:16MB}") DataSize segmentSize,
+                                 MeterRegistry meterRegistry) {
+        this.directory = Paths.get(directory);
+        long size = Math.min(segmentSize.toBytes(), 1L << 30);
+        this.segmentSize = (int) Math.max(RECORD_SIZE, size - size % RECORD_SIZE);
+        FunctionCounter.builder("audit.records", records, LongAdder::sum)
+                .description("authorization decisions written to the audit log")
+                .register(meterRegistry);
+        FunctionCounter.builder("audit.failures", failures, LongAdder::sum)
+                .description("authorization decisions that could not be written")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Appends a decision.
+     * @param type the type the method is called on, see {@link MethodNames#targetType}
+     * @param digest the digest of the Authorization header, null without a token
+     */
+    public void record(Class<?> type, Method method, TokenDigest digest, AuditOutcome outcome) {
+        long timestamp = System.currentTimeMillis();
+        try {
+            int methodId = methodId(type, method);
+            for (;;) {
+                Segment segment = current;
+                if (segment != null) {
+                    int offset = segment.position.getAndAdd(RECORD_SIZE);
+                    if (offset >= 0 && offset <= segmentSize - RECORD_SIZE) {
+                        segment.write(offset, timestamp, methodId, outcome, digest);
+                        records.increment();
+                        return;
+                    }
+                }
+                rotate(segment);
+            }
+        } catch (IOException e) {
+            failures.increment();
+            log.error("Failed to write the audit record of {} {}", method.getName(), outcome, e);
+        }
+    }
+
+    /**
+     * Forces the current segment to disk.
+     */
+    @PreDestroy
+    public void force() {
+        Segment segment = current;
+        if (segment != null) {
+            segment.buffer.force();
+        }
+    }
+
+    private int methodId(Class<?> type, Method method) throws IOException {
+        ConcurrentMap<Method, Integer> byMethod = methodIds.get(type);
+        if (byMethod == null) {
+            byMethod = methodIds.computeIfAbsent(type, t -> new ConcurrentHashMap<>());
+        }
+        Integer id = byMethod.get(method);
+        if (id == null) {
+            String name = MethodNames.of(type, method);
+            id = name.hashCode();
+            nameMethod(id, name);
+            byMethod.putIfAbsent(method, id);
+        }
+        return id;
+    }
+
+    /**
+     * Opens the next segment unless another thread already replaced the full one.
+     */
+    private synchronized void rotate(Segment full) throws IOException {
+        if (current != full) {
+            return;
+        }
+        init();
+        sequence++;
+        Path file = directory.resolve(segmentName(sequence));
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(segmentSize);
+            current = new Segment(raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentSize));
+        }
+        if (full != null) {
+            full.buffer.force();
+        }
+        log.info("Writing the authorization audit to {}", file.toAbsolutePath());
+    }
+
+    /**
+     * Adds the method to methods.txt on its first decision, before any record refers to it.
+     */
+    private synchronized void nameMethod(int id, String name) throws IOException {
+        init();
+        if (namedMethods.add(id)) {
+            Files.write(directory.resolve(METHODS_FILE), (id + "\t" + name + "\n").getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+    }
+
+    private void init() throws IOException {
+        if (namedMethods == null) {
+            Files.createDirectories(directory);
+            sequence = lastSequence(directory);
+            namedMethods = new HashSet<>(AuditLogScanner.readMethodNames(directory).keySet());
+        }
+    }
+
+    static String segmentName(long sequence) {
+        return String.format("%s%012d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX);
+    }
+
+    static long lastSequence(Path directory) throws IOException {
+        long last = 0;
+        try (DirectoryStream<Path> segments = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path segment : segments) {
+                String name = segment.getFileName().toString();
+                try {
+                    last = Math.max(last, Long.parseLong(
+                            name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    // not one of ours
+                }
+            }
+        }
+        return last;
+    }
+
+    private static final class Segment {
+
+        final MappedByteBuffer buffer;
+
+        /**
+         * Offset of the next free record, past the end once full.
+         */
+        final AtomicInteger position = new AtomicInteger();
+
+        Segment(MappedByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        void write(int offset, long timestamp, int methodId, AuditOutcome outcome, TokenDigest digest) {
+            // absolute puts only: the threads share the buffer but never its position
+            buffer.putInt(offset + METHOD_OFFSET, methodId);
+            buffer.put(offset + OUTCOME_OFFSET, outcome.code());
+            for (int i = 0; i < DIGEST_LENGTH; i++) {
+                buffer.put(offset + DIGEST_OFFSET + i, digest == null ? 0 : digest.byteAt(i));
+            }
+            buffer.putLong(offset, timestamp);
+        }
+    }
+}
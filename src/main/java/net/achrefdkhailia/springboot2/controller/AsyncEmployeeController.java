@@ -0,0 +1,210 @@
+package net.achrefdkhailia.springboot2.controller;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import javax.validation.Valid;
+
+import net.achrefdkhailia.springboot2.aspect.RateLimited;
+import net.achrefdkhailia.springboot2.exception.InvalidRequestException;
+import net.achrefdkhailia.springboot2.exception.ResourceNotFoundException;
+import net.achrefdkhailia.springboot2.model.Employee;
+import net.achrefdkhailia.springboot2.model.EmployeePatch;
+import net.achrefdkhailia.springboot2.model.EmployeeSearchField;
+import net.achrefdkhailia.springboot2.service.EmployeeDbExecutor;
+import net.achrefdkhailia.springboot2.service.EmployeeService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+
+/**
+ * The single-employee operations of EmployeeController as async requests: the servlet thread is released
+ * while EmployeeService runs on the bounded EmployeeDbExecutor, and requests over its capacity get a 503
+ * with Retry-After.
+ */
+@RestController
+@RequestMapping("/api/v1/async")
+@Api(value="Employee async API", description="Operations pertaining to Employee, run on a bounded database executor")
+public class AsyncEmployeeController {
+
+	@Autowired
+	private EmployeeService employeeService;
+
+	@Autowired
+	private EmployeeDbExecutor employeeDbExecutor;
+
+	@ApiOperation(value = "View a keyset page of Employees, after (last id seen) and limit", response = Iterable.class)
+	@ApiResponses(value = {
+			@ApiResponse(code = 200, message = "Successfully retrieved list"),
+			@ApiResponse(code = 304, message = "No Employee has changed since the ETag given in If-None-Match"),
+			@ApiResponse(code = 429, message = "Too many requests from this client, retry after the Retry-After delay"),
+			@ApiResponse(code = 503, message = "The database is saturated, retry after the Retry-After delay")
+	}
+	)
+	@RateLimited(value = "employees-read", permits = 200, burst = 400)
+	@GetMapping("/employees")
+	public CompletableFuture<ResponseEntity<List<Employee>>> getEmployees(
+			@RequestParam(value = "after", required = false) Long afterId,
+			@RequestParam(value = "limit", required = false) Integer limit,
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+		String eTag = EntityTags.of(employeeService.getCollectionVersion());
+		if (ifNoneMatch != null && EntityTags.matches(ifNoneMatch, eTag)) {
+			return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build());
+		}
+		int pageSize = limit == null ? EmployeeController.DEFAULT_PAGE_SIZE
+				: Math.max(1, Math.min(limit, EmployeeController.MAX_PAGE_SIZE));
+		return employeeDbExecutor.submit(() -> ResponseEntity.ok().eTag(eTag)
+				.body(employeeService.getEmployeesAfter(afterId == null ? 0L : afterId, pageSize)));
+	}
+
+	@ApiOperation(value = "Search Employees by firstName, lastName or emailId, on a prefix (match=prefix, default) or the exact value (match=exact)", response = Iterable.class)
+	@ApiResponses(value = {
+			@ApiResponse(code = 200, message = "Successfully retrieved list"),
+			@ApiResponse(code = 400, message = "Unknown field or match, or empty q"),
+			@ApiResponse(code = 429, message = "Too many requests from this client, retry after the Retry-After delay"),
+			@ApiResponse(code = 503, message = "The database is saturated, retry after the Retry-After delay")
+	}
+	)
+	@RateLimited(value = "employees-search", permits = 50)
+	@GetMapping("/employees/search")
+	public CompletableFuture<List<Employee>> searchEmployees(@RequestParam("field") String field,
+			@RequestParam("q") String value,
+			@RequestParam(value = "match", defaultValue = "prefix") String match,
+			@RequestParam(value = "limit", required = false) Integer limit) throws InvalidRequestException {
+		EmployeeSearchField searchField = EmployeeSearchField.fromAttribute(field);
+		if (searchField == null) {
+			throw new InvalidRequestException("Unknown search field :: " + field);
+		}
+		if (!"prefix".equals(match) && !"exact".equals(match)) {
+			throw new InvalidRequestException("match must be prefix or exact :: " + match);
+		}
+		if (value.isEmpty()) {
+			throw new InvalidRequestException("q cannot be empty");
+		}
+		int maxResults = limit == null ? EmployeeController.DEFAULT_SEARCH_LIMIT
+				: Math.max(1, Math.min(limit, EmployeeController.MAX_SEARCH_LIMIT));
+		return employeeDbExecutor.submit(() -> employeeService.searchEmployees(searchField, value, "prefix".equals(match), maxResults));
+	}
+
+	@ApiOperation(value = "View a  available Employees retrieved by id ", response = Iterable.class)
+	@ApiResponses(value = {
+			@ApiResponse(code = 200, message = "Successfully retrieved list"),
+			@ApiResponse(code = 304, message = "The Employee is still at the version given in If-None-Match"),
+			@ApiResponse(code = 404, message = "The resource you were trying to reach is not found"),
+			@ApiResponse(code = 429, message = "Too many requests from this client, retry after the Retry-After delay"),
+			@ApiResponse(code = 503, message = "The database is saturated, retry after the Retry-After delay")
+	}
+	)
+	@RateLimited(value = "employees-read", permits = 200, burst = 400)
+	@GetMapping("/employees/{id}")
+	public CompletableFuture<ResponseEntity<Employee>> getEmployeeById(@PathVariable(value = "id") Long employeeId,
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+		return employeeDbExecutor.submit(() -> {
+			if (ifNoneMatch != null) {
+				long version = employeeService.getEmployeeVersion(employeeId)
+						.orElseThrow(() -> new ResourceNotFoundException("Employee not found for this id :: " + employeeId));
+				String eTag = EntityTags.of(version);
+				if (EntityTags.matches(ifNoneMatch, eTag)) {
+					return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).<Employee>build();
+				}
+			}
+			Employee employee = employeeService.getEmployeeById(employeeId)
+					.orElseThrow(() -> new ResourceNotFoundException("Employee not found for this id :: " + employeeId));
+			return ResponseEntity.ok().eTag(EntityTags.of(employee.getVersion())).body(employee);
+		});
+	}
+
+	@ApiOperation(value = "create a new  Employee ", response = Iterable.class)
+	@ApiResponses(value = {
+			@ApiResponse(code = 200, message = "Successfully created"),
+			@ApiResponse(code = 429, message = "Too many requests from this client, retry after the Retry-After delay"),
+			@ApiResponse(code = 503, message = "The database is saturated, retry after the Retry-After delay")
+	}
+	)
+	@RateLimited(value = "employees-write", permits = 50)
+	@PostMapping("/employees")
+	public CompletableFuture<Employee> createEmployee(@Valid @RequestBody Employee employee) {
+		return employeeDbExecutor.submit(() -> employeeService.createEmployee(employee));
+	}
+
+	@ApiOperation(value = "update an existing Employee ", response = Iterable.class)
+	@ApiResponses(value = {
+			@ApiResponse(code = 200, message = "Successfully updated"),
+			@ApiResponse(code = 404, message = "The resource you were trying to reach is not found"),
+			@ApiResponse(code = 412, message = "The Employee is no longer at the version given in If-Match"),
+			@ApiResponse(code = 429, message = "Too many requests from this client, retry after the Retry-After delay"),
+			@ApiResponse(code = 503, message = "The database is saturated, retry after the Retry-After delay")
+	}
+	)
+	@RateLimited(value = "employees-write", permits = 50)
+	@PutMapping("/employees/{id}")
+	public CompletableFuture<ResponseEntity<Employee>> updateEmployee(@PathVariable(value = "id") Long employeeId,
+			@Valid @RequestBody Employee employeeDetails,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		Set<Long> versions = ifMatch == null ? null : EntityTags.versions(ifMatch);
+		return employeeDbExecutor.submit(() -> {
+			Employee updatedEmployee = versions == null
+					? employeeService.updateEmployee(employeeId, employeeDetails)
+					: employeeService.updateEmployeeIfMatch(employeeId, employeeDetails, versions);
+			return ResponseEntity.ok().eTag(EntityTags.of(updatedEmployee.getVersion())).body(updatedEmployee);
+		});
+	}
+
+	@ApiOperation(value = "update some fields of an existing Employee, optionally at a given version", response = Iterable.class)
+	@ApiResponses(value = {
+			@ApiResponse(code = 204, message = "Successfully updated"),
+			@ApiResponse(code = 400, message = "No field to update or invalid value"),
+			@ApiResponse(code = 404, message = "The resource you were trying to reach is not found"),
+			@ApiResponse(code = 409, message = "The Employee is no longer at the given version"),
+			@ApiResponse(code = 429, message = "Too many requests from this client, retry after the Retry-After delay"),
+			@ApiResponse(code = 503, message = "The database is saturated, retry after the Retry-After delay")
+	}
+	)
+	@RateLimited(value = "employees-write", permits = 50)
+	@PatchMapping("/employees/{id}")
+	public CompletableFuture<ResponseEntity<Void>> patchEmployee(@PathVariable(value = "id") Long employeeId,
+			@RequestBody EmployeePatch patch) {
+		return employeeDbExecutor.submit(() -> {
+			employeeService.patchEmployee(employeeId, patch);
+			return ResponseEntity.noContent().<Void>build();
+		});
+	}
+
+	@ApiOperation(value = "delete  an existing Employee ", response = Iterable.class)
+	@ApiResponses(value = {
+			@ApiResponse(code = 200, message = "Successfully deleted"),
+			@ApiResponse(code = 404, message = "The resource you were trying to reach is not found"),
+			@ApiResponse(code = 412, message = "The Employee is no longer at the version given in If-Match"),
+			@ApiResponse(code = 429, message = "Too many requests from this client, retry after the Retry-After delay"),
+			@ApiResponse(code = 503, message = "The database is saturated, retry after the Retry-After delay")
+	}
+	)
+	@RateLimited(value = "employees-write", permits = 50)
+	@DeleteMapping("/employees/{id}")
+	public CompletableFuture<Map<String, Boolean>> deleteEmployee(@PathVariable(value = "id") Long employeeId,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		Set<Long> versions = ifMatch == null ? null : EntityTags.versions(ifMatch);
+		return employeeDbExecutor.submit(() -> versions == null
+				? employeeService.deleteEmployee(employeeId)
+				: employeeService.deleteEmployeeIfMatch(employeeId, versions));
+	}
+}
@@ -1,23 +1,48 @@
 package net.achrefdkhailia.springboot2.controller;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import javax.validation.Valid;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import net.achrefdkhailia.springboot2.aspect.RateLimited;
+import net.achrefdkhailia.springboot2.exception.InvalidRequestException;
+import net.achrefdkhailia.springboot2.exception.PreconditionFailedException;
 import net.achrefdkhailia.springboot2.exception.ResourceNotFoundException;
+import net.achrefdkhailia.springboot2.exception.VersionConflictException;
+import net.achrefdkhailia.springboot2.model.BatchItemResult;
 import net.achrefdkhailia.springboot2.model.Employee;
+import net.achrefdkhailia.springboot2.model.EmployeePatch;
+import net.achrefdkhailia.springboot2.model.EmployeeSearchField;
+import net.achrefdkhailia.springboot2.service.EmployeeBatchService;
+import net.achrefdkhailia.springboot2.service.EmployeeJsonCache.EncodedEmployee;
 import net.achrefdkhailia.springboot2.service.EmployeeService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -28,35 +53,158 @@ import io.swagger.annotations.ApiResponses;
 @RequestMapping("/api/v1")
 @Api(value="Employee API", description="Operations pertaining to Employee")
 public class EmployeeController {
+	static final int DEFAULT_PAGE_SIZE = 100;
+	static final int MAX_PAGE_SIZE = 1000;
+	static final int DEFAULT_SEARCH_LIMIT = 20;
+	static final int MAX_SEARCH_LIMIT = 100;
+
 	@Autowired
 	private EmployeeService employeeService;
 
-	@ApiOperation(value = "View a list of available Employees", response = Iterable.class)
+	@Autowired
+	private EmployeeBatchService employeeBatchService;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@ApiOperation(value = "View a list of available Employees, a keyset page of them with after (last id seen) and limit", response = Iterable.class)
 	@ApiResponses(value = {
 			@ApiResponse(code = 200, message = "Successfully retrieved list"),
+			@ApiResponse(code = 304, message = "No Employee has changed since the ETag given in If-None-Match"),
 			@ApiResponse(code = 401, message = "You are not authorized to view the resource"),
 			@ApiResponse(code = 403, message = "Accessing the resource you were trying to reach is forbidden"),
-			@ApiResponse(code = 404, message = "The resource you were trying to reach is not found")
+			@ApiResponse(code = 404, message = "The resource you were trying to reach is not found"),
+			@ApiResponse(code = 429, message = "Too many requests from this client, retry after the Retry-After delay")
 	}
 	)
+	@RateLimited(value = "employees-read", permits = 200, burst = 400)
 	@GetMapping("/employees")
-	public List<Employee> getAllEmployees() {
-		return employeeService.getAllEmployees();
+	public ResponseEntity<List<Employee>> getAllEmployees(@RequestParam(value = "after", required = false) Long afterId,
+			@RequestParam(value = "limit", required = false) Integer limit,
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+		String eTag = EntityTags.of(employeeService.getCollectionVersion());
+		if (ifNoneMatch != null && EntityTags.matches(ifNoneMatch, eTag)) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+		}
+		if (afterId == null && limit == null) {
+			return ResponseEntity.ok().eTag(eTag).body(employeeService.getAllEmployees());
+		}
+		int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+		List<Employee> page = employeeService.getEmployeesAfter(afterId == null ? 0L : afterId, pageSize);
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(eTag);
+		if (page.size() == pageSize) {
+			String next = ServletUriComponentsBuilder.fromCurrentRequest()
+					.replaceQueryParam("after", page.get(page.size() - 1).getId())
+					.replaceQueryParam("limit", pageSize)
+					.toUriString();
+			response.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+		}
+		return response.body(page);
+	}
+
+	@ApiOperation(value = "Stream all the Employees as one chunked JSON array", response = Iterable.class)
+	@ApiResponses(value = {
+			@ApiResponse(code = 200, message = "Successfully retrieved list"),
+			@ApiResponse(code = 304, message = "No Employee has changed since the ETag given in If-None-Match"),
+			@ApiResponse(code = 401, message = "You are not authorized to view the resource"),
+			@ApiResponse(code = 403, message = "Accessing the resource you were trying to reach is forbidden"),
+			@ApiResponse(code = 429, message = "Too many requests from this client, retry after the Retry-After delay")
+	}
+	)
+	@RateLimited(value = "employees-stream", permits = 1, burst = 5)
+	@GetMapping(value = "/employees", params = "stream=true", produces = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> streamAllEmployees(
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+		String eTag = EntityTags.of(employeeService.getCollectionVersion());
+		if (ifNoneMatch != null && EntityTags.matches(ifNoneMatch, eTag)) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+		}
+		ObjectWriter writer = objectMapper.writerFor(Employee.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		StreamingResponseBody body = out -> {
+			// nothing reaches the client before the generator buffer fills up,
+			// so a query failing up front still ends in a regular error response
+			JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+			generator.writeStartArray();
+			employeeService.streamAllEmployees(employee -> {
+				try {
+					writer.writeValue(generator, employee);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+			generator.writeEndArray();
+			generator.flush();
+		};
+		return ResponseEntity.ok().eTag(eTag).contentType(MediaType.APPLICATION_JSON_UTF8).body(body);
 	}
+
+	@ApiOperation(value = "Search Employees by firstName, lastName or emailId, on a prefix (match=prefix, default) or the exact value (match=exact)", response = Iterable.class)
+	@ApiResponses(value = {
+			@ApiResponse(code = 200, message = "Successfully retrieved list"),
+			@ApiResponse(code = 400, message = "Unknown field or match, or empty q"),
+			@ApiResponse(code = 401, message = "You are not authorized to view the resource"),
+			@ApiResponse(code = 403, message = "Accessing the resource you were trying to reach is forbidden"),
+			@ApiResponse(code = 429, message = "Too many requests from this client, retry after the Retry-After delay")
+	}
+	)
+	@RateLimited(value = "employees-search", permits = 50)
+	@GetMapping("/employees/search")
+	public List<Employee> searchEmployees(@RequestParam("field") String field, @RequestParam("q") String value,
+			@RequestParam(value = "match", defaultValue = "prefix") String match,
+			@RequestParam(value = "limit", required = false) Integer limit) throws InvalidRequestException {
+		EmployeeSearchField searchField = EmployeeSearchField.fromAttribute(field);
+		if (searchField == null) {
+			throw new InvalidRequestException("Unknown search field :: " + field);
+		}
+		if (!"prefix".equals(match) && !"exact".equals(match)) {
+			throw new InvalidRequestException("match must be prefix or exact :: " + match);
+		}
+		if (value.isEmpty()) {
+			throw new InvalidRequestException("q cannot be empty");
+		}
+		int maxResults = limit == null ? DEFAULT_SEARCH_LIMIT : Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT));
+		return employeeService.searchEmployees(searchField, value, "prefix".equals(match), maxResults);
+	}
+
 	@ApiOperation(value = "View a  available Employees retrieved by id ", response = Iterable.class)
 	@ApiResponses(value = {
 			@ApiResponse(code = 200, message = "Successfully retrieved list"),
 			@ApiResponse(code = 401, message = "You are not authorized to view the resource"),
 			@ApiResponse(code = 403, message = "Accessing the resource you were trying to reach is forbidden"),
-			@ApiResponse(code = 404, message = "The resource you were trying to reach is not found")
+			@ApiResponse(code = 304, message = "The Employee is still at the version given in If-None-Match"),
+			@ApiResponse(code = 404, message = "The resource you were trying to reach is not found"),
+			@ApiResponse(code = 429, message = "Too many requests from this client, retry after the Retry-After delay")
 	}
 	)
+	@RateLimited(value = "employees-read", permits = 200, burst = 400)
 	@GetMapping("/employees/{id}")
-	public ResponseEntity<Employee> getEmployeeById(@PathVariable(value = "id") Long employeeId)
+	public ResponseEntity<?> getEmployeeById(@PathVariable(value = "id") Long employeeId,
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+			@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding)
 			throws ResourceNotFoundException {
+		if (ifNoneMatch != null) {
+			long version = employeeService.getEmployeeVersion(employeeId)
+					.orElseThrow(() -> new ResourceNotFoundException("Employee not found for this id :: " + employeeId));
+			String eTag = EntityTags.matching(ifNoneMatch, version);
+			if (eTag != null) {
+				return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+			}
+		}
+		if (employeeService.isJsonCacheEnabled()) {
+			EncodedEmployee encoded = employeeService.getEncodedEmployee(employeeId)
+					.orElseThrow(() -> new ResourceNotFoundException("Employee not found for this id :: " + employeeId));
+			ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+					.contentType(MediaType.APPLICATION_JSON_UTF8)
+					.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+			if (encoded.getGzip() != null && acceptsGzip(acceptEncoding)) {
+				return response.eTag(EntityTags.ofGzip(encoded.getVersion()))
+						.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(encoded.getGzip());
+			}
+			return response.eTag(EntityTags.of(encoded.getVersion())).body(encoded.getJson());
+		}
 		Employee employee = employeeService.getEmployeeById(employeeId)
 				.orElseThrow(() -> new ResourceNotFoundException("Employee not found for this id :: " + employeeId));
-		return ResponseEntity.ok().body(employee);
+		return ResponseEntity.ok().eTag(EntityTags.of(employee.getVersion())).body(employee);
 	}
 
 	@ApiOperation(value = "create a new  Employee ", response = Iterable.class)
@@ -64,9 +212,11 @@ public class EmployeeController {
 			@ApiResponse(code = 200, message = "Successfully retrieved list"),
 			@ApiResponse(code = 401, message = "You are not authorized to view the resource"),
 			@ApiResponse(code = 403, message = "Accessing the resource you were trying to reach is forbidden"),
-			@ApiResponse(code = 404, message = "The resource you were trying to reach is not found")
+			@ApiResponse(code = 404, message = "The resource you were trying to reach is not found"),
+			@ApiResponse(code = 429, message = "Too many requests from this client, retry after the Retry-After delay")
 	}
 	)
+	@RateLimited(value = "employees-write", permits = 50)
 	@PostMapping("/employees")
 	public Employee createEmployee(@Valid @RequestBody Employee employee) {
 		return employeeService.createEmployee(employee);
@@ -77,14 +227,42 @@ public class EmployeeController {
 			@ApiResponse(code = 200, message = "Successfully retrieved list"),
 			@ApiResponse(code = 401, message = "You are not authorized to view the resource"),
 			@ApiResponse(code = 403, message = "Accessing the resource you were trying to reach is forbidden"),
-			@ApiResponse(code = 404, message = "The resource you were trying to reach is not found")
+			@ApiResponse(code = 404, message = "The resource you were trying to reach is not found"),
+			@ApiResponse(code = 412, message = "The Employee is no longer at the version given in If-Match"),
+			@ApiResponse(code = 429, message = "Too many requests from this client, retry after the Retry-After delay")
 	}
 	)
+	@RateLimited(value = "employees-write", permits = 50)
 	@PutMapping("/employees/{id}")
 	public ResponseEntity<Employee> updateEmployee(@PathVariable(value = "id") Long employeeId,
-			@Valid @RequestBody Employee employeeDetails) throws ResourceNotFoundException {
-		Employee updatedEmployee = employeeService.updateEmployee(employeeId, employeeDetails);
-		return ResponseEntity.ok(updatedEmployee);
+			@Valid @RequestBody Employee employeeDetails,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch)
+			throws ResourceNotFoundException, PreconditionFailedException {
+		Set<Long> versions = ifMatch == null ? null : EntityTags.versions(ifMatch);
+		Employee updatedEmployee = versions == null
+				? employeeService.updateEmployee(employeeId, employeeDetails)
+				: employeeService.updateEmployeeIfMatch(employeeId, employeeDetails, versions);
+		return ResponseEntity.ok().eTag(EntityTags.of(updatedEmployee.getVersion())).body(updatedEmployee);
+	}
+
+	@ApiOperation(value = "update some fields of an existing Employee, optionally at a given version", response = Iterable.class)
+	@ApiResponses(value = {
+			@ApiResponse(code = 204, message = "Successfully updated"),
+			@ApiResponse(code = 400, message = "No field to update or invalid value"),
+			@ApiResponse(code = 401, message = "You are not authorized to view the resource"),
+			@ApiResponse(code = 403, message = "Accessing the resource you were trying to reach is forbidden"),
+			@ApiResponse(code = 404, message = "The resource you were trying to reach is not found"),
+			@ApiResponse(code = 409, message = "The Employee is no longer at the given version"),
+			@ApiResponse(code = 429, message = "Too many requests from this client, retry after the Retry-After delay")
+	}
+	)
+	@RateLimited(value = "employees-write", permits = 50)
+	@PatchMapping("/employees/{id}")
+	public ResponseEntity<Void> patchEmployee(@PathVariable(value = "id") Long employeeId,
+			@RequestBody EmployeePatch patch)
+			throws ResourceNotFoundException, VersionConflictException, InvalidRequestException {
+		employeeService.patchEmployee(employeeId, patch);
+		return ResponseEntity.noContent().build();
 	}
 
 	@ApiOperation(value = "delete  an existing Employee ", response = Iterable.class)
@@ -92,12 +270,77 @@ public class EmployeeController {
 			@ApiResponse(code = 200, message = "Successfully retrieved list"),
 			@ApiResponse(code = 401, message = "You are not authorized to view the resource"),
 			@ApiResponse(code = 403, message = "Accessing the resource you were trying to reach is forbidden"),
-			@ApiResponse(code = 404, message = "The resource you were trying to reach is not found")
+			@ApiResponse(code = 404, message = "The resource you were trying to reach is not found"),
+			@ApiResponse(code = 412, message = "The Employee is no longer at the version given in If-Match"),
+			@ApiResponse(code = 429, message = "Too many requests from this client, retry after the Retry-After delay")
 	}
 	)
+	@RateLimited(value = "employees-write", permits = 50)
 	@DeleteMapping("/employees/{id}")
-	public Map<String, Boolean> deleteEmployee(@PathVariable(value = "id") Long employeeId)
-			throws ResourceNotFoundException {
-		return employeeService.deleteEmployee(employeeId);
+	public Map<String, Boolean> deleteEmployee(@PathVariable(value = "id") Long employeeId,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch)
+			throws ResourceNotFoundException, PreconditionFailedException {
+		Set<Long> versions = ifMatch == null ? null : EntityTags.versions(ifMatch);
+		return versions == null
+				? employeeService.deleteEmployee(employeeId)
+				: employeeService.deleteEmployeeIfMatch(employeeId, versions);
+	}
+
+	@ApiOperation(value = "create Employees in bulk, one result per item", response = Iterable.class)
+	@ApiResponses(value = {
+			@ApiResponse(code = 200, message = "Batch processed, see the per-item status"),
+			@ApiResponse(code = 401, message = "You are not authorized to view the resource"),
+			@ApiResponse(code = 403, message = "Accessing the resource you were trying to reach is forbidden"),
+			@ApiResponse(code = 413, message = "Too many items in the batch"),
+			@ApiResponse(code = 429, message = "Too many requests from this client, retry after the Retry-After delay")
+	}
+	)
+	@RateLimited(value = "employees-batch", permits = 5)
+	@PostMapping("/employees/batch")
+	public List<BatchItemResult> createEmployees(@RequestBody List<Employee> employees) {
+		return employeeBatchService.createEmployees(employees);
+	}
+
+	@ApiOperation(value = "update existing Employees in bulk, one result per item", response = Iterable.class)
+	@ApiResponses(value = {
+			@ApiResponse(code = 200, message = "Batch processed, see the per-item status"),
+			@ApiResponse(code = 401, message = "You are not authorized to view the resource"),
+			@ApiResponse(code = 403, message = "Accessing the resource you were trying to reach is forbidden"),
+			@ApiResponse(code = 413, message = "Too many items in the batch"),
+			@ApiResponse(code = 429, message = "Too many requests from this client, retry after the Retry-After delay")
+	}
+	)
+	@RateLimited(value = "employees-batch", permits = 5)
+	@PutMapping("/employees/batch")
+	public List<BatchItemResult> updateEmployees(@RequestBody List<Employee> employees) {
+		return employeeBatchService.updateEmployees(employees);
+	}
+
+	@ApiOperation(value = "delete Employees in bulk by id, one result per item", response = Iterable.class)
+	@ApiResponses(value = {
+			@ApiResponse(code = 200, message = "Batch processed, see the per-item status"),
+			@ApiResponse(code = 401, message = "You are not authorized to view the resource"),
+			@ApiResponse(code = 403, message = "Accessing the resource you were trying to reach is forbidden"),
+			@ApiResponse(code = 413, message = "Too many items in the batch"),
+			@ApiResponse(code = 429, message = "Too many requests from this client, retry after the Retry-After delay")
+	}
+	)
+	@RateLimited(value = "employees-batch", permits = 5)
+	@DeleteMapping("/employees/batch")
+	public List<BatchItemResult> deleteEmployees(@RequestBody List<Long> employeeIds) {
+		return employeeBatchService.deleteEmployees(employeeIds);
+	}
+
+	static boolean acceptsGzip(String acceptEncoding) {
+		if (acceptEncoding == null) {
+			return false;
+		}
+		for (String coding : acceptEncoding.split(",")) {
+			String[] parts = coding.trim().split(";");
+			if (parts[0].trim().equalsIgnoreCase("gzip")) {
+				return parts.length == 1 || !parts[1].trim().matches("q=0(\\.0*)?");
+			}
+		}
+		return false;
 	}
 }
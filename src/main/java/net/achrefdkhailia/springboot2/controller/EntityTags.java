@@ -0,0 +1,87 @@
+package net.achrefdkhailia.springboot2.controller;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Strong entity tags of the employee resources: the quoted version of an employee ("7-gzip" for its gzip
+ * representation), the quoted collection version for the lists. Shared with the reactive module.
+ */
+public final class EntityTags {
+
+	private static final String GZIP = "-gzip";
+
+	private EntityTags() {
+	}
+
+	public static String of(long version) {
+		return of(Long.toString(version));
+	}
+
+	public static String of(String version) {
+		return "\"" + version + "\"";
+	}
+
+	/**
+	 * The tag of the gzip-encoded representation of an employee version: a different strong tag,
+	 * its bytes are not the identity ones.
+	 */
+	public static String ofGzip(long version) {
+		return of(version + GZIP);
+	}
+
+	/**
+	 * If-None-Match evaluation (weak comparison): true when the header lists the tag or is "*".
+	 */
+	public static boolean matches(String ifNoneMatch, String tag) {
+		for (String candidate : ifNoneMatch.split(",")) {
+			candidate = candidate.trim();
+			if (candidate.startsWith("W/")) {
+				candidate = candidate.substring(2);
+			}
+			if (candidate.equals("*") || candidate.equals(tag)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * If-None-Match evaluation for an employee version, either representation: the tag the header lists,
+	 * to send back with the 304 (the identity one for "*"), null when it lists neither.
+	 */
+	public static String matching(String ifNoneMatch, long version) {
+		String tag = of(version);
+		if (matches(ifNoneMatch, tag)) {
+			return tag;
+		}
+		String gzipTag = ofGzip(version);
+		return matches(ifNoneMatch, gzipTag) ? gzipTag : null;
+	}
+
+	/**
+	 * The employee versions listed in an If-Match header, either representation's tag, null for "*".
+	 * Weak and malformed tags never match (strong comparison) and are left out, the set may be empty.
+	 */
+	public static Set<Long> versions(String ifMatch) {
+		Set<Long> versions = new HashSet<>();
+		for (String candidate : ifMatch.split(",")) {
+			candidate = candidate.trim();
+			if (candidate.equals("*")) {
+				return null;
+			}
+			if (candidate.length() > 2 && candidate.startsWith("\"") && candidate.endsWith("\"")) {
+				String version = candidate.substring(1, candidate.length() - 1);
+				if (version.endsWith(GZIP)) {
+					version = version.substring(0, version.length() - GZIP.length());
+				}
+				try {
+					versions.add(Long.parseLong(version));
+				} catch (NumberFormatException e) {
+					// not one of our tags
+				}
+			}
+		}
+		return versions;
+	}
+}
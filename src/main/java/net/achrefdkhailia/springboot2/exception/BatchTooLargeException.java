@@ -0,0 +1,14 @@
+package net.achrefdkhailia.springboot2.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.PAYLOAD_TOO_LARGE)
+public class BatchTooLargeException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public BatchTooLargeException(String message) {
+		super(message);
+	}
+}
@@ -1,9 +1,12 @@
 package net.achrefdkhailia.springboot2.exception;
 
 import java.util.Date;
+import java.util.stream.Collectors;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
@@ -17,6 +20,70 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 		return new ResponseEntity<>(errorDetails, HttpStatus.NOT_FOUND);
 	}
 
+	@ExceptionHandler(BatchTooLargeException.class)
+	public ResponseEntity<?> batchTooLargeException(BatchTooLargeException ex, WebRequest request) {
+		ErrorDetails errorDetails = new ErrorDetails(new Date(), ex.getMessage(), request.getDescription(false));
+		return new ResponseEntity<>(errorDetails, HttpStatus.PAYLOAD_TOO_LARGE);
+	}
+
+	@ExceptionHandler(VersionConflictException.class)
+	public ResponseEntity<?> versionConflictException(VersionConflictException ex, WebRequest request) {
+		ErrorDetails errorDetails = new ErrorDetails(new Date(), ex.getMessage(), request.getDescription(false));
+		return new ResponseEntity<>(errorDetails, HttpStatus.CONFLICT);
+	}
+
+	@ExceptionHandler(PreconditionFailedException.class)
+	public ResponseEntity<?> preconditionFailedException(PreconditionFailedException ex, WebRequest request) {
+		ErrorDetails errorDetails = new ErrorDetails(new Date(), ex.getMessage(), request.getDescription(false));
+		return new ResponseEntity<>(errorDetails, HttpStatus.PRECONDITION_FAILED);
+	}
+
+	@ExceptionHandler(ServiceUnavailableException.class)
+	public ResponseEntity<?> serviceUnavailableException(ServiceUnavailableException ex, WebRequest request) {
+		ErrorDetails errorDetails = new ErrorDetails(new Date(), ex.getMessage(), request.getDescription(false));
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+				.header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+				.body(errorDetails);
+	}
+
+	@ExceptionHandler(BulkheadFullException.class)
+	public ResponseEntity<?> bulkheadFullException(BulkheadFullException ex, WebRequest request) {
+		ErrorDetails errorDetails = new ErrorDetails(new Date(), ex.getMessage(), request.getDescription(false));
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+				.header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+				.body(errorDetails);
+	}
+
+	@ExceptionHandler(TooManyRequestsException.class)
+	public ResponseEntity<?> tooManyRequestsException(TooManyRequestsException ex, WebRequest request) {
+		ErrorDetails errorDetails = new ErrorDetails(new Date(), ex.getMessage(), request.getDescription(false));
+		return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+				.header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+				.header(TooManyRequestsException.LIMIT_HEADER, Integer.toString(ex.getLimit()))
+				.header(TooManyRequestsException.REMAINING_HEADER, "0")
+				.header(TooManyRequestsException.RESET_HEADER, Long.toString(ex.getResetSeconds()))
+				.body(errorDetails);
+	}
+
+	@ExceptionHandler(InvalidRequestException.class)
+	public ResponseEntity<?> invalidRequestException(InvalidRequestException ex, WebRequest request) {
+		ErrorDetails errorDetails = new ErrorDetails(new Date(), ex.getMessage(), request.getDescription(false));
+		return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
+	}
+
+	/**
+	 * @Valid request bodies, e.g. an Employee without firstName: a 400 with the field errors instead of an empty body
+	 */
+	@Override
+	protected ResponseEntity<Object> handleMethodArgumentNotValid(MethodArgumentNotValidException ex, HttpHeaders headers,
+			HttpStatus status, WebRequest request) {
+		String message = ex.getBindingResult().getFieldErrors().stream()
+				.map(error -> error.getField() + " " + error.getDefaultMessage())
+				.collect(Collectors.joining(", "));
+		ErrorDetails errorDetails = new ErrorDetails(new Date(), message, request.getDescription(false));
+		return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
+	}
+
 	@ExceptionHandler(Exception.class)
 	public ResponseEntity<?> globleExcpetionHandler(Exception ex, WebRequest request) {
 		ErrorDetails errorDetails = new ErrorDetails(new Date(), ex.getMessage(), request.getDescription(false));
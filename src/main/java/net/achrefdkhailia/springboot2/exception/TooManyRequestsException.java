@@ -0,0 +1,49 @@
+package net.achrefdkhailia.springboot2.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * The client went over a rate limit, it may retry after retryAfterSeconds.
+ * Unchecked since it is thrown by an aspect in front of methods that do not declare it,
+ * and without a stack trace, the point being to turn the call away cheaply.
+ */
+@ResponseStatus(value = HttpStatus.TOO_MANY_REQUESTS)
+public class TooManyRequestsException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	/** calls allowed at once by the limit, also sent on the allowed calls with the two others */
+	public static final String LIMIT_HEADER = "X-RateLimit-Limit";
+
+	/** calls the client may still send at once */
+	public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+
+	/** seconds until the client may send LIMIT_HEADER calls at once again */
+	public static final String RESET_HEADER = "X-RateLimit-Reset";
+
+	private final int limit;
+
+	private final long retryAfterSeconds;
+
+	private final long resetSeconds;
+
+	public TooManyRequestsException(String message, int limit, long retryAfterSeconds, long resetSeconds) {
+		super(message, null, false, false);
+		this.limit = limit;
+		this.retryAfterSeconds = retryAfterSeconds;
+		this.resetSeconds = resetSeconds;
+	}
+
+	public int getLimit() {
+		return limit;
+	}
+
+	public long getRetryAfterSeconds() {
+		return retryAfterSeconds;
+	}
+
+	public long getResetSeconds() {
+		return resetSeconds;
+	}
+}
@@ -0,0 +1,14 @@
+package net.achrefdkhailia.springboot2.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.CONFLICT)
+public class VersionConflictException extends Exception {
+
+	private static final long serialVersionUID = 1L;
+
+	public VersionConflictException(String message) {
+		super(message);
+	}
+}
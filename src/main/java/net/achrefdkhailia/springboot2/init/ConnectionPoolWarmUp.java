@@ -0,0 +1,62 @@
+package net.achrefdkhailia.springboot2.init;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opens the pool's minimum-idle connections once all the singletons exist, that is before the web server
+ * starts accepting requests, so the first requests do not pay for connection set-up.
+ */
+@Component
+@ConditionalOnProperty(name = "datasource.warm-up.enabled", havingValue = "true", matchIfMissing = true)
+public class ConnectionPoolWarmUp implements SmartInitializingSingleton {
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+
+    private final Logger logger = LoggerFactory.getLogger(ConnectionPoolWarmUp.class);
+
+    @Autowired
+    DataSource dataSource;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!(dataSource instanceof HikariDataSource)) {
+            return;
+        }
+        HikariDataSource pool = (HikariDataSource) dataSource;
+        long start = System.nanoTime();
+        List<Connection> connections = new ArrayList<>(pool.getMinimumIdle());
+        try {
+            // holding the connections makes the pool open a new one for each borrow
+            while (connections.size() < pool.getMinimumIdle()) {
+                Connection connection = pool.getConnection();
+                connections.add(connection);
+                connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+            }
+        } catch (SQLException e) {
+            logger.warn("Connection pool {} warm-up stopped after {} connections", pool.getPoolName(), connections.size(), e);
+        } finally {
+            for (Connection connection : connections) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    logger.debug("Could not return a warm-up connection", e);
+                }
+            }
+        }
+        logger.info("Connection pool {} warmed up with {} connections in {} ms", pool.getPoolName(), connections.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+}
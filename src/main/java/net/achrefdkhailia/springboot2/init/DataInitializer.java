@@ -7,6 +7,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Arrays;
+
 @Component
 public class DataInitializer {
 
@@ -18,12 +20,14 @@ public class DataInitializer {
     public void initData() {
 
         try {
-            employeeRepository.save( new Employee("jhon"));
-            employeeRepository.save( new Employee("frederic"));
-            employeeRepository.save( new Employee("kevin"));
-            employeeRepository.save( new Employee("michel"));
-            employeeRepository.save( new Employee("franc"));
-            employeeRepository.save( new Employee("raymond"));
+            // one transaction, inserted as a JDBC batch
+            employeeRepository.saveAll(Arrays.asList(
+                    new Employee("jhon"),
+                    new Employee("frederic"),
+                    new Employee("kevin"),
+                    new Employee("michel"),
+                    new Employee("franc"),
+                    new Employee("raymond")));
         } catch (final Exception ex) {
             logger.error("Exception while inserting mock data {}", ex);
         }
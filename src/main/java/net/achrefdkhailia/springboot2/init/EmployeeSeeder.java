@@ -0,0 +1,284 @@
+package net.achrefdkhailia.springboot2.init;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Synthetic data loader for capacity testing, run by {@link InitData} under the "seed" profile
+ * (settings in application-seed.properties).
+ *
+ * Generates employees.seed.rows employees after the highest existing id. Every row is derived from
+ * employees.seed.random-seed and its index in the load only, not from its id (which depends on the rows and
+ * sequence already there), so a given seed always produces the same dataset whatever the number of threads,
+ * the mode or the database it is loaded into.
+ * JDBC_BATCH inserts id ranges in parallel, one connection per thread, in batches of employees.seed.batch-size.
+ * CSV (H2 only) writes the rows to a temporary file and loads it with one INSERT ... SELECT FROM CSVREAD.
+ * The rows bypass Hibernate, so employees_seq is moved past the loaded ids afterwards
+ * (sequence statements in H2 / SQL standard syntax).
+ */
+@Component
+@Profile("seed")
+public class EmployeeSeeder {
+
+    public enum Mode {
+        JDBC_BATCH, CSV
+    }
+
+    /** allocationSize of Employee's employees_seq generator */
+    private static final int SEQUENCE_ALLOCATION_SIZE = 50;
+
+    private static final String INSERT = "insert into employees (id, version, first_name, last_name, email_address) values (?, 0, ?, ?, ?)";
+
+    private static final String[] FIRST_NAMES = {
+            "james", "mary", "john", "patricia", "robert", "jennifer", "michael", "linda", "william", "elizabeth",
+            "david", "barbara", "richard", "susan", "joseph", "jessica", "thomas", "sarah", "charles", "karen",
+            "christopher", "nancy", "daniel", "lisa", "matthew", "betty", "anthony", "margaret", "mark", "sandra",
+            "achref", "amira", "youssef", "leila", "mehdi", "ines", "karim", "sonia", "frederic", "camille",
+            "kevin", "chloe", "michel", "manon", "franck", "julie", "raymond", "lea", "nicolas", "emma"
+    };
+
+    private static final String[] LAST_NAMES = {
+            "smith", "johnson", "williams", "brown", "jones", "garcia", "miller", "davis", "rodriguez", "martinez",
+            "hernandez", "lopez", "gonzalez", "wilson", "anderson", "thomas", "taylor", "moore", "jackson", "martin",
+            "lee", "perez", "thompson", "white", "harris", "sanchez", "clark", "ramirez", "lewis", "robinson",
+            "dkhailia", "benali", "trabelsi", "haddad", "mansour", "dubois", "durand", "lefebvre", "moreau", "laurent",
+            "simon", "michel", "leroy", "roux", "david", "bertrand", "morel", "fournier", "girard", "bonnet"
+    };
+
+    private static final String[] DOMAINS = {"mail.net", "corp.example", "example.com", "company.org"};
+
+    private final Logger logger = LoggerFactory.getLogger(EmployeeSeeder.class);
+
+    @Autowired
+    DataSource dataSource;
+
+    @Value("${employees.seed.rows:1000000}")
+    private long rows;
+
+    @Value("${employees.seed.random-seed:42}")
+    private long randomSeed;
+
+    @Value("${employees.seed.mode:JDBC_BATCH}")
+    private Mode mode;
+
+    @Value("${employees.seed.threads:4}")
+    private int threads;
+
+    @Value("${employees.seed.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${employees.seed.progress-interval:1s}")
+    private Duration progressInterval;
+
+    public void seed() throws SQLException, IOException, InterruptedException {
+        long firstId = firstFreeId();
+        Mode effectiveMode = mode == Mode.CSV && !isH2() ? Mode.JDBC_BATCH : mode;
+        if (effectiveMode != mode) {
+            logger.warn("CSV seeding needs H2, falling back to {}", effectiveMode);
+        }
+        logger.info("Seeding {} employees from id {} with {} (random seed {})", rows, firstId, effectiveMode, randomSeed);
+
+        AtomicLong inserted = new AtomicLong();
+        long start = System.nanoTime();
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(daemon("seed-progress"));
+        reporter.scheduleAtFixedRate(() -> logProgress(inserted.get(), start),
+                progressInterval.toMillis(), progressInterval.toMillis(), TimeUnit.MILLISECONDS);
+        try {
+            if (effectiveMode == Mode.CSV) {
+                loadCsv(firstId, inserted);
+            } else {
+                insertBatches(firstId, inserted);
+            }
+        } finally {
+            reporter.shutdownNow();
+        }
+        restartSequence(firstId + rows);
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        logger.info("Seeded {} employees in {} s, {} rows/s", inserted.get(), String.format("%.2f", seconds),
+                Math.round(inserted.get() / Math.max(seconds, 1e-9)));
+    }
+
+    private void insertBatches(long firstId, AtomicLong inserted) throws SQLException, InterruptedException {
+        int workers = (int) Math.max(1, Math.min(threads, rows / batchSize + 1));
+        ExecutorService executor = Executors.newFixedThreadPool(workers, daemon("seed-worker"));
+        try {
+            List<Future<?>> slices = new ArrayList<>(workers);
+            long sliceSize = (rows + workers - 1) / workers;
+            for (int w = 0; w < workers; w++) {
+                long from = firstId + w * sliceSize;
+                long to = Math.min(firstId + rows, from + sliceSize);
+                if (from < to) {
+                    slices.add(executor.submit(() -> {
+                        insertRange(firstId, from, to, inserted);
+                        return null;
+                    }));
+                }
+            }
+            for (Future<?> slice : slices) {
+                slice.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            }
+            throw new IllegalStateException("Seeding failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void insertRange(long firstId, long from, long to, AtomicLong inserted) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(INSERT)) {
+            connection.setAutoCommit(false);
+            int pending = 0;
+            for (long id = from; id < to; id++) {
+                long index = id - firstId;
+                long bits = mix(randomSeed + index);
+                String firstName = firstName(bits);
+                String lastName = lastName(bits);
+                statement.setLong(1, id);
+                statement.setString(2, firstName);
+                statement.setString(3, lastName);
+                statement.setString(4, email(firstName, lastName, index, bits));
+                statement.addBatch();
+                if (++pending == batchSize) {
+                    statement.executeBatch();
+                    connection.commit();
+                    inserted.addAndGet(pending);
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                statement.executeBatch();
+                connection.commit();
+                inserted.addAndGet(pending);
+            }
+        }
+    }
+
+    private void loadCsv(long firstId, AtomicLong inserted) throws SQLException, IOException {
+        Path file = Files.createTempFile("employees-seed-", ".csv");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                for (long index = 0; index < rows; index++) {
+                    long bits = mix(randomSeed + index);
+                    String firstName = firstName(bits);
+                    String lastName = lastName(bits);
+                    writer.append(Long.toString(firstId + index)).append(",0,").append(firstName).append(',').append(lastName)
+                            .append(',').append(email(firstName, lastName, index, bits)).append('\n');
+                }
+            }
+            logger.info("Seed file {} written, loading it", file);
+            // CSVREAD resolves its file when the statement is parsed, it cannot be a bind parameter
+            String fileName = file.toAbsolutePath().toString().replace("'", "''");
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                inserted.addAndGet(statement.executeUpdate("insert into employees (id, version, first_name, last_name, email_address)"
+                        + " select * from csvread('" + fileName + "', 'ID,VERSION,FIRST_NAME,LAST_NAME,EMAIL_ADDRESS', 'charset=UTF-8')"));
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Above the existing rows and above any id block Hibernate may already hold from employees_seq.
+     */
+    private long firstFreeId() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            long maxId;
+            try (ResultSet resultSet = statement.executeQuery("select coalesce(max(id), 0) from employees")) {
+                resultSet.next();
+                maxId = resultSet.getLong(1);
+            }
+            try (ResultSet resultSet = statement.executeQuery("select next value for employees_seq")) {
+                resultSet.next();
+                return Math.max(maxId, resultSet.getLong(1)) + 1;
+            }
+        }
+    }
+
+    private boolean isH2() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            return "H2".equals(connection.getMetaData().getDatabaseProductName());
+        }
+    }
+
+    /**
+     * The pooled optimizer hands out the allocationSize ids below each sequence value, the next value must leave
+     * all of them above the loaded ids.
+     */
+    private void restartSequence(long nextFreeId) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("alter sequence employees_seq restart with " + (nextFreeId + SEQUENCE_ALLOCATION_SIZE));
+        }
+    }
+
+    private void logProgress(long inserted, long start) {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        logger.info("Seeded {}/{} employees ({}%), {} rows/s", inserted, rows, inserted * 100 / Math.max(rows, 1),
+                Math.round(inserted / Math.max(seconds, 1e-9)));
+    }
+
+    private static String firstName(long bits) {
+        return FIRST_NAMES[(int) ((bits & 0xFFFF) % FIRST_NAMES.length)];
+    }
+
+    private static String lastName(long bits) {
+        return LAST_NAMES[(int) (((bits >>> 16) & 0xFFFF) % LAST_NAMES.length)];
+    }
+
+    private static String email(String firstName, String lastName, long index, long bits) {
+        return firstName + '.' + lastName + index + '@' + DOMAINS[(int) ((bits >>> 32) & 0xFF) % DOMAINS.length];
+    }
+
+    /**
+     * SplitMix64 finalizer: spreads consecutive indexes over the whole long range.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
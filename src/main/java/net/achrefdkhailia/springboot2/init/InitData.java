@@ -1,5 +1,6 @@
 package net.achrefdkhailia.springboot2.init;
 
+import net.achrefdkhailia.springboot2.service.EmployeeCollectionVersion;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,11 +20,24 @@ public class InitData implements CommandLineRunner {
     @Autowired
     DataInitializer initializer;
 
+    /** only present under the "seed" profile */
+    @Autowired(required = false)
+    EmployeeSeeder seeder;
+
+    @Autowired
+    EmployeeCollectionVersion collectionVersion;
+
     @Override
     public void run(String... arg0) throws Exception {
         logger.info(
                 "\n ******** Initializing Data ***********");
-        initializer.initData();
+        if (seeder != null) {
+            seeder.seed();
+        } else {
+            initializer.initData();
+        }
+        // the web server is already up, lists read while loading must not stay valid
+        collectionVersion.increment();
     }
 
 }
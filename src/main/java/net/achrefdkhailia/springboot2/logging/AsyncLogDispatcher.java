@@ -0,0 +1,174 @@
+package net.achrefdkhailia.springboot2.logging;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.slf4j.event.Level;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Takes the enter / exit logging of the aspects off the request thread (logging.aspect.async.enabled=true).
+ *
+ * Advices publish a {@link LogEvent} into a bounded {@link RingBuffer}, a background thread drains it in batches
+ * and does the argument / result rendering and the appender I/O. When the buffer is full the configured
+ * {@link OverflowPolicy} applies; dropped and sampled out events are counted
+ * (logging.aspect.events.dropped, logging.aspect.events.sampled-out, logging.aspect.events.pending).
+ * The capture time and request thread of an event are put in the MDC as "capturedAt" and "requestThread".
+ */
+@Component
+public class AsyncLogDispatcher {
+
+    private final Logger log = LoggerFactory.getLogger(this.getClass());
+
+    private final boolean enabled;
+    private final int batchSize;
+    private final OverflowPolicy overflowPolicy;
+    private final int sampleRate;
+    private final RingBuffer<LogEvent> buffer;
+    private final LogRenderer renderer;
+    private final int highWaterMark;
+
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder sampledOut = new LongAdder();
+
+    private volatile boolean running;
+    private Thread consumer;
+
+    public AsyncLogDispatcher(@Value("${logging.aspect.async.enabled:false}") boolean enabled,
+                              @Value("${logging.aspect.async.capacity:8192}") int capacity,
+                              @Value("${logging.aspect.async.batch-size:256}") int batchSize,
+                              @Value("${logging.aspect.async.overflow-policy:DROP}") OverflowPolicy overflowPolicy,
+                              @Value("${logging.aspect.async.sample-rate:10}") int sampleRate,
+                              LogRenderer renderer,
+                              MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.overflowPolicy = overflowPolicy;
+        this.sampleRate = Math.max(1, sampleRate);
+        this.buffer = new RingBuffer<>(enabled ? capacity : 1);
+        this.highWaterMark = buffer.capacity() - buffer.capacity() / 4;
+        this.renderer = renderer;
+
+        FunctionCounter.builder("logging.aspect.events.dropped", dropped, LongAdder::sum)
+                .description("aspect log events lost because the buffer was full")
+                .register(meterRegistry);
+        FunctionCounter.builder("logging.aspect.events.sampled-out", sampledOut, LongAdder::sum)
+                .description("aspect log events skipped by the SAMPLE overflow policy")
+                .register(meterRegistry);
+        Gauge.builder("logging.aspect.events.pending", buffer, RingBuffer::size)
+                .description("aspect log events waiting to be written")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        consumer = new Thread(this::consume, "aspect-log-dispatcher");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    /**
+     * Lets the consumer write what is left. A consumer still busy after 5 seconds keeps the buffer, whose single
+     * consumer it is: the events left are counted as dropped.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (consumer == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(consumer);
+        consumer.join(TimeUnit.SECONDS.toMillis(5));
+        if (consumer.isAlive()) {
+            int left = buffer.size();
+            dropped.add(left);
+            log.warn("Aspect log dispatcher still busy after 5s, {} event(s) not written", left);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Publishes an event rendering the arguments of a call.
+     * @param pattern with two placeholders, the signature and the arguments
+     */
+    public void publishArgs(Logger logger, Level level, String pattern, String signature, Object[] args) {
+        publish(new LogEvent(logger, level, pattern, signature, args, true));
+    }
+
+    /**
+     * Publishes an event rendering the value returned by a call.
+     * @param pattern with two placeholders, the signature and the result
+     */
+    public void publishResult(Logger logger, Level level, String pattern, String signature, Object result) {
+        publish(new LogEvent(logger, level, pattern, signature, result, false));
+    }
+
+    void publish(LogEvent event) {
+        if (overflowPolicy == OverflowPolicy.SAMPLE && buffer.size() >= highWaterMark
+                && ThreadLocalRandom.current().nextInt(sampleRate) != 0) {
+            sampledOut.increment();
+            return;
+        }
+        if (buffer.offer(event)) {
+            return;
+        }
+        if (overflowPolicy == OverflowPolicy.BLOCK) {
+            while (running && !buffer.offer(event)) {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+            }
+            if (running) {
+                return;
+            }
+        }
+        dropped.increment();
+    }
+
+    private void consume() {
+        while (running) {
+            try {
+                if (buffer.drain(this::write, batchSize) == 0) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to write aspect log event", e);
+            }
+        }
+        try {
+            while (buffer.drain(this::write, batchSize) > 0) {
+                // flush what was published while stopping
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to write aspect log event", e);
+        }
+    }
+
+    private void write(LogEvent event) {
+        MDC.put("capturedAt", Long.toString(event.timestamp));
+        MDC.put("requestThread", event.threadName);
+        try {
+            String rendered = event.arguments ? renderer.renderArguments((Object[]) event.detail) : renderer.render(event.detail);
+            LogLevels.log(event.logger, event.level, event.pattern, event.signature, rendered);
+        } finally {
+            MDC.remove("capturedAt");
+            MDC.remove("requestThread");
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package net.achrefdkhailia.springboot2.logging;
+
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+
+/**
+ * What an advice captures on the request thread: references only, formatting is done by the {@link AsyncLogDispatcher}.
+ * detail is either the argument array (arguments == true) or the returned value.
+ * Arguments and results are referenced, not copied, so a mutable object is rendered as it is when the event is written.
+ */
+public final class LogEvent {
+
+    final Logger logger;
+    final Level level;
+    final String pattern;
+    final String signature;
+    final Object detail;
+    final boolean arguments;
+    final long timestamp;
+    final String threadName;
+
+    LogEvent(Logger logger, Level level, String pattern, String signature, Object detail, boolean arguments) {
+        this.logger = logger;
+        this.level = level;
+        this.pattern = pattern;
+        this.signature = signature;
+        this.detail = detail;
+        this.arguments = arguments;
+        this.timestamp = System.currentTimeMillis();
+        this.threadName = Thread.currentThread().getName();
+    }
+}
@@ -0,0 +1,47 @@
+package net.achrefdkhailia.springboot2.logging;
+
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+
+/**
+ * Logging at a level chosen at runtime, SLF4J has one method per level.
+ */
+public final class LogLevels {
+
+    private LogLevels() {
+    }
+
+    public static boolean isEnabled(Logger logger, Level level) {
+        switch (level) {
+            case ERROR:
+                return logger.isErrorEnabled();
+            case WARN:
+                return logger.isWarnEnabled();
+            case INFO:
+                return logger.isInfoEnabled();
+            case DEBUG:
+                return logger.isDebugEnabled();
+            default:
+                return logger.isTraceEnabled();
+        }
+    }
+
+    public static void log(Logger logger, Level level, String pattern, Object first, Object second) {
+        switch (level) {
+            case ERROR:
+                logger.error(pattern, first, second);
+                break;
+            case WARN:
+                logger.warn(pattern, first, second);
+                break;
+            case INFO:
+                logger.info(pattern, first, second);
+                break;
+            case DEBUG:
+                logger.debug(pattern, first, second);
+                break;
+            default:
+                logger.trace(pattern, first, second);
+        }
+    }
+}
@@ -0,0 +1,388 @@
+package net.achrefdkhailia.springboot2.logging;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Renders the arguments and results logged by the aspects, bounded and redacted.
+ *
+ * The output stops at logging.render.max-length characters, collections, maps and arrays show their first
+ * logging.render.max-elements elements, and nesting stops at logging.render.max-depth: a large result costs
+ * the same as a small one. Application classes are rendered from their fields, those listed in
+ * logging.render.redacted-fields (SimpleClassName.field) as "***"; other types through a {@link TypeRenderer}
+ * or their toString(), cut to the remaining length. The text is built in a per-thread buffer.
+ */
+@Component
+public class LogRenderer {
+
+    static final String REDACTED = "***";
+
+    private static final String APPLICATION_PACKAGE = "net.achrefdkhailia.springboot2.";
+
+    private final int maxLength;
+    private final int maxElements;
+    private final int maxDepth;
+    private final Set<String> redactedFields;
+
+    private final List<TypeRenderer<?>> typeRenderers = new CopyOnWriteArrayList<>();
+
+    /**
+     * How each class is rendered, resolved on its first value.
+     */
+    private final ConcurrentMap<Class<?>, Plan> plans = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<Output> outputs = ThreadLocal.withInitial(() -> new Output(this));
+
+    public LogRenderer(@Value("${logging.render.max-length:1000}") int maxLength,
+                       @Value("${logging.render.max-elements:10}") int maxElements,
+                       @Value("${logging.render.max-depth:3}") int maxDepth,
+                       @Value("${logging.render.redacted-fields:Employee.emailId,EmployeePatch.emailId}") String[] redactedFields) {
+        this.maxLength = maxLength;
+        this.maxElements = maxElements;
+        this.maxDepth = maxDepth;
+        this.redactedFields = new HashSet<>(Arrays.asList(redactedFields));
+        register(new OptionalRenderer());
+        register(new HttpEntityRenderer());
+    }
+
+    @Autowired(required = false)
+    public void setTypeRenderers(List<TypeRenderer<?>> typeRenderers) {
+        typeRenderers.forEach(this::register);
+    }
+
+    /**
+     * Registers a renderer, it takes precedence over those registered before for the same types.
+     */
+    public void register(TypeRenderer<?> renderer) {
+        typeRenderers.add(0, renderer);
+        plans.clear();
+    }
+
+    public String render(Object value) {
+        return render(value, maxLength);
+    }
+
+    public String render(Object value, int maxLength) {
+        Output out = output(maxLength);
+        try {
+            out.value(value);
+            return out.text();
+        } finally {
+            out.release();
+        }
+    }
+
+    /**
+     * Renders the arguments of a call as "[first, second]".
+     */
+    public String renderArguments(Object[] args) {
+        Output out = output(maxLength);
+        try {
+            out.elements(args, args.length);
+            return out.text();
+        } finally {
+            out.release();
+        }
+    }
+
+    /**
+     * The buffer of the thread, or a new one when rendering is re-entered (a toString() that logs).
+     */
+    private Output output(int maxLength) {
+        Output out = outputs.get();
+        if (out.busy) {
+            out = new Output(this);
+        }
+        out.reset(maxLength);
+        return out;
+    }
+
+    private Plan plan(Class<?> type) {
+        Plan plan = plans.get(type);
+        if (plan == null) {
+            plan = plans.computeIfAbsent(type, this::resolve);
+        }
+        return plan;
+    }
+
+    private Plan resolve(Class<?> type) {
+        for (TypeRenderer<?> renderer : typeRenderers) {
+            if (renderer.type().isAssignableFrom(type)) {
+                return new Plan(renderer, null, null);
+            }
+        }
+        if (!type.getName().startsWith(APPLICATION_PACKAGE) || type.isSynthetic() || type.isEnum()
+                || type.getName().contains("$$")) {
+            return new Plan(null, null, null);
+        }
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers()) && !field.isSynthetic()) {
+                    field.setAccessible(true);
+                    fields.add(field);
+                }
+            }
+        }
+        boolean[] redacted = new boolean[fields.size()];
+        for (int i = 0; i < redacted.length; i++) {
+            Field field = fields.get(i);
+            redacted[i] = redactedFields.contains(field.getDeclaringClass().getSimpleName() + "." + field.getName());
+        }
+        return new Plan(null, fields.toArray(new Field[0]), redacted);
+    }
+
+    /**
+     * A type renderer, or the fields of an application class, or neither for toString().
+     */
+    private static final class Plan {
+
+        final TypeRenderer<?> renderer;
+        final Field[] fields;
+        final boolean[] redacted;
+
+        Plan(TypeRenderer<?> renderer, Field[] fields, boolean[] redacted) {
+            this.renderer = renderer;
+            this.fields = fields;
+            this.redacted = redacted;
+        }
+    }
+
+    /**
+     * The text being rendered, appends beyond the limit are dropped and end it with "...".
+     */
+    public static final class Output {
+
+        private final LogRenderer renderer;
+        private final StringBuilder text = new StringBuilder(256);
+        private int limit;
+        private int depth;
+        private boolean truncated;
+        private boolean busy;
+
+        Output(LogRenderer renderer) {
+            this.renderer = renderer;
+        }
+
+        void reset(int limit) {
+            this.limit = limit;
+            this.depth = 0;
+            this.truncated = false;
+            this.busy = true;
+            text.setLength(0);
+            if (text.capacity() > Math.max(limit, 256) * 2) {
+                // a previous render with a larger limit: give the memory back
+                text.trimToSize();
+            }
+        }
+
+        void release() {
+            busy = false;
+        }
+
+        String text() {
+            return truncated ? text + "..." : text.toString();
+        }
+
+        public boolean isFull() {
+            return truncated;
+        }
+
+        public Output append(char c) {
+            if (text.length() < limit) {
+                text.append(c);
+            } else {
+                truncated = true;
+            }
+            return this;
+        }
+
+        public Output append(CharSequence chars) {
+            int room = limit - text.length();
+            if (chars.length() <= room) {
+                text.append(chars);
+            } else {
+                text.append(chars, 0, Math.max(0, room));
+                truncated = true;
+            }
+            return this;
+        }
+
+        public Output value(Object value) {
+            if (truncated) {
+                return this;
+            }
+            if (value == null || value instanceof Number || value instanceof Boolean || value instanceof Character
+                    || value instanceof Enum) {
+                return append(String.valueOf(value));
+            }
+            if (value instanceof CharSequence) {
+                return append((CharSequence) value);
+            }
+            if (depth >= renderer.maxDepth) {
+                return append("{...}");
+            }
+            depth++;
+            try {
+                render(value);
+            } finally {
+                depth--;
+            }
+            return this;
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private void render(Object value) {
+            Class<?> type = value.getClass();
+            if (type.isArray()) {
+                if (type == byte[].class) {
+                    append("byte[").append(Integer.toString(((byte[]) value).length)).append(']');
+                } else {
+                    elements(value, Array.getLength(value));
+                }
+                return;
+            }
+            Plan plan = renderer.plan(type);
+            if (plan.renderer != null) {
+                ((TypeRenderer) plan.renderer).render(value, this);
+            } else if (value instanceof Collection) {
+                elements(((Collection<?>) value).iterator(), ((Collection<?>) value).size(), '[', ']');
+            } else if (value instanceof Map) {
+                entries((Map<?, ?>) value);
+            } else if (plan.fields != null) {
+                fields(value, plan);
+            } else {
+                append(value.toString());
+            }
+        }
+
+        /**
+         * The first elements of an array.
+         */
+        void elements(Object array, int length) {
+            append('[');
+            int shown = Math.min(length, renderer.maxElements);
+            for (int i = 0; i < shown && !truncated; i++) {
+                if (i > 0) {
+                    append(", ");
+                }
+                value(Array.get(array, i));
+            }
+            more(length - shown);
+            append(']');
+        }
+
+        private void elements(Iterator<?> elements, int size, char open, char close) {
+            append(open);
+            int shown = 0;
+            while (shown < renderer.maxElements && elements.hasNext() && !truncated) {
+                if (shown++ > 0) {
+                    append(", ");
+                }
+                value(elements.next());
+            }
+            more(size - shown);
+            append(close);
+        }
+
+        private void entries(Map<?, ?> map) {
+            append('{');
+            int shown = 0;
+            Iterator<? extends Map.Entry<?, ?>> entries = map.entrySet().iterator();
+            while (shown < renderer.maxElements && entries.hasNext() && !truncated) {
+                Map.Entry<?, ?> entry = entries.next();
+                if (shown++ > 0) {
+                    append(", ");
+                }
+                value(entry.getKey());
+                append('=');
+                value(entry.getValue());
+            }
+            more(map.size() - shown);
+            append('}');
+        }
+
+        private void more(int remaining) {
+            if (remaining > 0) {
+                append(", ... (").append(Integer.toString(remaining)).append(" more)");
+            }
+        }
+
+        private void fields(Object value, Plan plan) {
+            append(value.getClass().getSimpleName()).append('[');
+            for (int i = 0; i < plan.fields.length && !truncated; i++) {
+                if (i > 0) {
+                    append(", ");
+                }
+                Field field = plan.fields[i];
+                append(field.getName()).append('=');
+                if (plan.redacted[i]) {
+                    append(REDACTED);
+                } else {
+                    try {
+                        value(field.get(value));
+                    } catch (IllegalAccessException e) {
+                        append('?');
+                    }
+                }
+            }
+            append(']');
+        }
+    }
+
+    private static final class OptionalRenderer implements TypeRenderer<Optional> {
+
+        @Override
+        public Class<Optional> type() {
+            return Optional.class;
+        }
+
+        @Override
+        public void render(Optional value, Output out) {
+            if (value.isPresent()) {
+                out.append("Optional[").value(value.get()).append(']');
+            } else {
+                out.append("Optional.empty");
+            }
+        }
+    }
+
+    /**
+     * ResponseEntity and HttpEntity, without the headers.
+     */
+    private static final class HttpEntityRenderer implements TypeRenderer<HttpEntity> {
+
+        @Override
+        public Class<HttpEntity> type() {
+            return HttpEntity.class;
+        }
+
+        @Override
+        public void render(HttpEntity value, Output out) {
+            out.append('<');
+            if (value instanceof ResponseEntity) {
+                out.append(((ResponseEntity<?>) value).getStatusCode().toString()).append(", ");
+            }
+            out.value(value.getBody()).append('>');
+        }
+    }
+}
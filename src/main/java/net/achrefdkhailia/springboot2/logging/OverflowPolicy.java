@@ -0,0 +1,22 @@
+package net.achrefdkhailia.springboot2.logging;
+
+/**
+ * What the {@link AsyncLogDispatcher} does with an event when the ring buffer cannot take it.
+ */
+public enum OverflowPolicy {
+
+    /**
+     * Drop the event and count it.
+     */
+    DROP,
+
+    /**
+     * Above the high-water mark keep only one event out of logging.aspect.async.sample-rate, drop when full.
+     */
+    SAMPLE,
+
+    /**
+     * Make the request thread wait for room, nothing is lost.
+     */
+    BLOCK
+}
@@ -0,0 +1,83 @@
+package net.achrefdkhailia.springboot2.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free ring buffer, many producers and a single consumer.
+ *
+ * Producers claim a sequence with a CAS on the tail and publish the element into its slot,
+ * the consumer takes elements in sequence order and frees each slot before moving the head.
+ * An element is visible to the consumer only once its slot is published, so a slow producer
+ * delays (never reorders) the elements claimed after it.
+ */
+public final class RingBuffer<E> {
+
+    private final AtomicReferenceArray<E> slots;
+    private final int capacity;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * @param capacity rounded up to the next power of two
+     */
+    public RingBuffer(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity out of range: " + capacity);
+        }
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        this.capacity = size;
+        this.mask = size - 1;
+        this.slots = new AtomicReferenceArray<>(size);
+    }
+
+    /**
+     * Adds the element if there is room, never blocks.
+     * @return false when the buffer is full
+     */
+    public boolean offer(E element) {
+        long t;
+        do {
+            t = tail.get();
+            if (t - head.get() >= capacity) {
+                return false;
+            }
+        } while (!tail.compareAndSet(t, t + 1));
+        slots.lazySet((int) t & mask, element);
+        return true;
+    }
+
+    /**
+     * Hands up to max published elements to the sink, in order. Single consumer thread only.
+     * @return the number of elements drained
+     */
+    public int drain(Consumer<? super E> sink, int max) {
+        long h = head.get();
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) h & mask;
+            E element = slots.get(index);
+            if (element == null) {
+                break;
+            }
+            slots.lazySet(index, null);
+            head.lazySet(++h);
+            drained++;
+            sink.accept(element);
+        }
+        return drained;
+    }
+
+    public int size() {
+        return (int) Math.max(0L, tail.get() - head.get());
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+}
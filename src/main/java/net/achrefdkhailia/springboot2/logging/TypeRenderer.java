@@ -0,0 +1,15 @@
+package net.achrefdkhailia.springboot2.logging;
+
+/**
+ * Renders the values of one type (and its subtypes) for {@link LogRenderer}, instead of their fields or toString().
+ * Beans implementing it are registered with the LogRenderer.
+ */
+public interface TypeRenderer<T> {
+
+    Class<T> type();
+
+    /**
+     * Writes the value, nested values go through {@link LogRenderer.Output#value(Object)} to stay bounded.
+     */
+    void render(T value, LogRenderer.Output out);
+}
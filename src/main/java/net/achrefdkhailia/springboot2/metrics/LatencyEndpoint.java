@@ -0,0 +1,46 @@
+package net.achrefdkhailia.springboot2.metrics;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per-method latency recorded by the aspects, in milliseconds: /actuator/latency
+ */
+@Component
+@Endpoint(id = "latency")
+public class LatencyEndpoint {
+
+    private final LatencyRecorder recorder;
+
+    public LatencyEndpoint(LatencyRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @ReadOperation
+    public Map<String, Map<String, Object>> latency() {
+        Map<String, Map<String, Object>> methods = new TreeMap<>();
+        for (MethodLatency latency : recorder.all()) {
+            LatencyHistogram histogram = latency.getHistogram();
+            long count = histogram.count();
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("id", latency.getId());
+            summary.put("count", count);
+            summary.put("mean", count == 0 ? 0 : millis(histogram.totalNanos() / count));
+            summary.put("p50", millis(histogram.valueAtQuantile(0.5)));
+            summary.put("p99", millis(histogram.valueAtQuantile(0.99)));
+            summary.put("p999", millis(histogram.valueAtQuantile(0.999)));
+            summary.put("max", millis(histogram.maxNanos()));
+            methods.put(latency.getName(), summary);
+        }
+        return methods;
+    }
+
+    private static double millis(double nanos) {
+        return nanos / 1_000_000d;
+    }
+}
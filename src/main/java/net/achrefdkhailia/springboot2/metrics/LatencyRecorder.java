@@ -0,0 +1,95 @@
+package net.achrefdkhailia.springboot2.metrics;
+
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-method latency histograms fed by the @Around advices.
+ *
+ * Each advised method gets a {@link MethodLatency} on its first call, per type it is called on and named after it
+ * (see {@link MethodNames}); it is published as the Micrometer timer
+ * "aspect.method.latency" and the gauges "aspect.method.latency.percentile" (phi 0.5, 0.99, 0.999), tagged by method,
+ * and through the "latency" actuator endpoint. Calls over the method's slow call threshold are handed to the
+ * {@link SlowCallRecorder}, the other calls cost one comparison more.
+ */
+@Component
+public class LatencyRecorder {
+
+    private static final double[] PERCENTILES = {0.5, 0.99, 0.999};
+
+    private final MeterRegistry meterRegistry;
+    private final SlowCallRecorder slowCalls;
+    private final ConcurrentMap<Class<?>, ConcurrentMap<Method, MethodLatency>> byType = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, MethodLatency> byName = new ConcurrentHashMap<>();
+    private final AtomicInteger ids = new AtomicInteger();
+
+    public LatencyRecorder(MeterRegistry meterRegistry) {
+        this(meterRegistry, null);
+    }
+
+    @Autowired
+    public LatencyRecorder(MeterRegistry meterRegistry, SlowCallRecorder slowCalls) {
+        this.meterRegistry = meterRegistry;
+        this.slowCalls = slowCalls;
+    }
+
+    public void record(JoinPoint joinPoint, long nanos) {
+        MethodLatency latency = forMethod(MethodNames.targetType(joinPoint),
+                ((MethodSignature) joinPoint.getSignature()).getMethod());
+        latency.record(nanos);
+        if (nanos >= latency.getSlowThresholdNanos()) {
+            slowCalls.capture(latency.getName(), joinPoint, nanos);
+        }
+    }
+
+    /**
+     * @param type the type the method is called on, see {@link MethodNames#targetType}
+     */
+    public MethodLatency forMethod(Class<?> type, Method method) {
+        ConcurrentMap<Method, MethodLatency> byMethod = byType.get(type);
+        if (byMethod == null) {
+            byMethod = byType.computeIfAbsent(type, t -> new ConcurrentHashMap<>());
+        }
+        MethodLatency latency = byMethod.get(method);
+        if (latency == null) {
+            // bridge methods have the name of the method they bridge, they share its latency
+            latency = byMethod.computeIfAbsent(method, m -> byName.computeIfAbsent(MethodNames.of(type, m), this::register));
+        }
+        return latency;
+    }
+
+    public Collection<MethodLatency> all() {
+        return new ArrayList<>(byName.values());
+    }
+
+    private MethodLatency register(String name) {
+        MethodLatency latency = new MethodLatency(ids.incrementAndGet(), name,
+                slowCalls == null ? Long.MAX_VALUE : slowCalls.thresholdNanos(name));
+        LatencyHistogram histogram = latency.getHistogram();
+        FunctionTimer.builder("aspect.method.latency", histogram,
+                LatencyHistogram::count, LatencyHistogram::totalNanos, TimeUnit.NANOSECONDS)
+                .tag("method", latency.getName())
+                .register(meterRegistry);
+        for (double percentile : PERCENTILES) {
+            Gauge.builder("aspect.method.latency.percentile", histogram, h -> h.valueAtQuantile(percentile) / 1e9)
+                    .tag("method", latency.getName())
+                    .tag("phi", String.valueOf(percentile))
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+        }
+        return latency;
+    }
+}
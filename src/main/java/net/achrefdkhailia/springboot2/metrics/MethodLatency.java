@@ -0,0 +1,39 @@
+package net.achrefdkhailia.springboot2.metrics;
+
+/**
+ * Latency of one advised method: a signature id and display name computed once, its histogram,
+ * and the duration over which its calls are captured by the {@link SlowCallRecorder}.
+ */
+public final class MethodLatency {
+
+    private final int id;
+    private final String name;
+    private final long slowThresholdNanos;
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    MethodLatency(int id, String name, long slowThresholdNanos) {
+        this.id = id;
+        this.name = name;
+        this.slowThresholdNanos = slowThresholdNanos;
+    }
+
+    public void record(long nanos) {
+        histogram.record(nanos);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getSlowThresholdNanos() {
+        return slowThresholdNanos;
+    }
+
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+}
@@ -0,0 +1,65 @@
+package net.achrefdkhailia.springboot2.metrics;
+
+import org.aspectj.lang.JoinPoint;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * The name of an advised method as the latencies, slow calls and logs show it: "Type.method(ParameterTypes)",
+ * where Type is the called bean's class, or the repository interface for a JDK proxy, rather than the class
+ * declaring the method: the methods a repository inherits from JpaRepository are named after the repository,
+ * and the parameter types tell the overloads apart.
+ */
+public final class MethodNames {
+
+    private static final ClassValue<Class<?>> USER_TYPES = new ClassValue<Class<?>>() {
+        @Override
+        protected Class<?> computeValue(Class<?> type) {
+            if (Proxy.isProxyClass(type)) {
+                // the proxied interfaces come first, the repository's before Repository and Spring's own
+                Class<?>[] interfaces = type.getInterfaces();
+                return interfaces.length == 0 ? type : interfaces[0];
+            }
+            return ClassUtils.getUserClass(type);
+        }
+    };
+
+    private MethodNames() {
+    }
+
+    /**
+     * The type the join point's method is called on: the bean's class, without the CGLIB proxy subclass,
+     * or the first proxied interface of a JDK proxy.
+     */
+    public static Class<?> targetType(JoinPoint joinPoint) {
+        Object target = joinPoint.getThis();
+        return target == null ? joinPoint.getSignature().getDeclaringType() : userType(target.getClass());
+    }
+
+    public static Class<?> userType(Class<?> type) {
+        return USER_TYPES.get(type);
+    }
+
+    public static String of(Class<?> type, Method method) {
+        StringBuilder name = new StringBuilder(64).append(type.getSimpleName()).append('.').append(method.getName())
+                .append('(');
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (i > 0) {
+                name.append(',');
+            }
+            name.append(parameterTypes[i].getSimpleName());
+        }
+        return name.append(')').toString();
+    }
+
+    /**
+     * "Type.method", the name without the parameter types.
+     */
+    public static String withoutParameters(String name) {
+        int parameters = name.indexOf('(');
+        return parameters < 0 ? name : name.substring(0, parameters);
+    }
+}
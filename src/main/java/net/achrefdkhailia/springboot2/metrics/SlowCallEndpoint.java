@@ -0,0 +1,37 @@
+package net.achrefdkhailia.springboot2.metrics;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The slowest calls captured by the {@link SlowCallRecorder}: GET /actuator/slowcalls, emptied by DELETE.
+ */
+@Component
+@Endpoint(id = "slowcalls")
+public class SlowCallEndpoint {
+
+    private final SlowCallRecorder recorder;
+
+    public SlowCallEndpoint(SlowCallRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @ReadOperation
+    public Map<String, Object> slowCalls() {
+        Map<String, Object> slowCalls = new LinkedHashMap<>();
+        slowCalls.put("thresholdMillis", recorder.getThresholdNanos() / 1_000_000d);
+        slowCalls.put("capacity", recorder.getCapacity());
+        slowCalls.put("calls", recorder.slowest());
+        return slowCalls;
+    }
+
+    @DeleteOperation
+    public void clear() {
+        recorder.clear();
+    }
+}
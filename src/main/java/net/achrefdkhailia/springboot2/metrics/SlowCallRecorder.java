@@ -0,0 +1,211 @@
+package net.achrefdkhailia.springboot2.metrics;
+
+import net.achrefdkhailia.springboot2.logging.LogRenderer;
+import org.aspectj.lang.JoinPoint;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * The slow-calls.capacity slowest calls over their method's threshold, with their arguments, thread and
+ * (slow-calls.capture-stack) the stack of the caller: /actuator/slowcalls.
+ *
+ * The threshold is slow-calls.threshold, or slow-calls.thresholds.[Type.method] for one method and its overloads.
+ * Once the buffer is full a call must also be slower than the fastest one kept, which is checked before
+ * anything is captured; only the calls that make it into the buffer take its lock.
+ */
+@Component
+public class SlowCallRecorder {
+
+    private static final String THRESHOLD_PREFIX = "slow-calls.thresholds.";
+
+    private final Environment environment;
+    private final long thresholdNanos;
+    private final int capacity;
+    private final boolean captureStack;
+    private final int maxArgumentLength;
+    private final LogRenderer renderer;
+
+    /**
+     * Min-heap on the duration: the fastest kept call is at the top, replaced first.
+     */
+    private final SlowCall[] heap;
+    private int size;
+    private volatile long floorNanos;
+
+    public SlowCallRecorder(Environment environment,
+                            @Value("${slow-calls.threshold:100ms}") Duration threshold,
+                            @Value("${slow-calls.capacity:50}") int capacity,
+                            @Value("${slow-calls.capture-stack:false}") boolean captureStack,
+                            @Value("${slow-calls.max-argument-length:200}") int maxArgumentLength,
+                            LogRenderer renderer) {
+        this.environment = environment;
+        this.thresholdNanos = threshold.toNanos();
+        this.capacity = capacity;
+        this.captureStack = captureStack;
+        this.maxArgumentLength = maxArgumentLength;
+        this.renderer = renderer;
+        this.heap = new SlowCall[capacity];
+    }
+
+    /**
+     * @param name Type.method(ParameterTypes), see {@link MethodNames}
+     */
+    public long thresholdNanos(String name) {
+        String threshold = environment.getProperty(THRESHOLD_PREFIX + MethodNames.withoutParameters(name));
+        return threshold == null ? thresholdNanos : DurationStyle.detectAndParse(threshold).toNanos();
+    }
+
+    public void capture(String name, JoinPoint joinPoint, long nanos) {
+        if (nanos <= floorNanos || capacity == 0) {
+            return;
+        }
+        Thread thread = Thread.currentThread();
+        SlowCall call = new SlowCall(name, nanos, new Date(), thread.getName(), arguments(joinPoint.getArgs()),
+                captureStack ? stack(thread.getStackTrace()) : null);
+        synchronized (this) {
+            if (size < capacity) {
+                heap[size] = call;
+                siftUp(size++);
+            } else if (nanos > heap[0].nanos) {
+                heap[0] = call;
+                siftDown(0);
+            } else {
+                return;
+            }
+            if (size == capacity) {
+                floorNanos = heap[0].nanos;
+            }
+        }
+    }
+
+    /**
+     * @return the calls kept, slowest first
+     */
+    public synchronized List<SlowCall> slowest() {
+        List<SlowCall> calls = new ArrayList<>(Arrays.asList(heap).subList(0, size));
+        calls.sort(Comparator.comparingLong((SlowCall call) -> call.nanos).reversed());
+        return calls;
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(heap, null);
+        size = 0;
+        floorNanos = 0;
+    }
+
+    public long getThresholdNanos() {
+        return thresholdNanos;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    private List<String> arguments(Object[] args) {
+        List<String> arguments = new ArrayList<>(args.length);
+        for (Object arg : args) {
+            arguments.add(renderer.render(arg, maxArgumentLength));
+        }
+        return arguments;
+    }
+
+    private static List<String> stack(StackTraceElement[] elements) {
+        List<String> stack = new ArrayList<>();
+        // without the frames of the capture itself: getStackTrace, the recorders and the advice
+        for (int i = 0; i < elements.length; i++) {
+            String className = elements[i].getClassName();
+            if (className.startsWith("java.lang.Thread") || className.startsWith(SlowCallRecorder.class.getPackage().getName())
+                    || className.endsWith("LoggingAspect")) {
+                continue;
+            }
+            stack.add(elements[i].toString());
+        }
+        return Collections.unmodifiableList(stack);
+    }
+
+    private void siftUp(int index) {
+        SlowCall call = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent].nanos <= call.nanos) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = call;
+    }
+
+    private void siftDown(int index) {
+        SlowCall call = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && heap[child + 1].nanos < heap[child].nanos) {
+                child++;
+            }
+            if (call.nanos <= heap[child].nanos) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = call;
+    }
+
+    /**
+     * One captured call, as shown by the endpoint.
+     */
+    public static final class SlowCall {
+
+        private final String method;
+        private final long nanos;
+        private final Date timestamp;
+        private final String thread;
+        private final List<String> arguments;
+        private final List<String> stack;
+
+        SlowCall(String method, long nanos, Date timestamp, String thread, List<String> arguments, List<String> stack) {
+            this.method = method;
+            this.nanos = nanos;
+            this.timestamp = timestamp;
+            this.thread = thread;
+            this.arguments = arguments;
+            this.stack = stack;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public double getMillis() {
+            return nanos / 1_000_000d;
+        }
+
+        public Date getTimestamp() {
+            return timestamp;
+        }
+
+        public String getThread() {
+            return thread;
+        }
+
+        public List<String> getArguments() {
+            return arguments;
+        }
+
+        public List<String> getStack() {
+            return stack;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package net.achrefdkhailia.springboot2.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Outcome of one item of a /employees/batch call, index is the item's position in the request.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResult {
+
+	public enum Status {
+		CREATED, UPDATED, DELETED, NOT_FOUND, INVALID, FAILED
+	}
+
+	private final int index;
+	private final Long id;
+	private final Status status;
+	private final String message;
+
+	public BatchItemResult(int index, Long id, Status status, String message) {
+		this.index = index;
+		this.id = id;
+		this.status = status;
+		this.message = message;
+	}
+
+	public static BatchItemResult of(int index, long id, Status status) {
+		return new BatchItemResult(index, id, status, null);
+	}
+
+	public static BatchItemResult invalid(int index, Long id, String message) {
+		return new BatchItemResult(index, id, Status.INVALID, message);
+	}
+
+	public int getIndex() {
+		return index;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+}
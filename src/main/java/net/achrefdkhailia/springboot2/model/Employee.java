@@ -5,16 +5,24 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.Version;
+import javax.validation.constraints.NotNull;
 
 @Entity
-@Table(name = "employees")
+@Table(name = "employees", indexes = {
+		@Index(name = "idx_employees_first_name", columnList = "first_name"),
+		@Index(name = "idx_employees_last_name", columnList = "last_name"),
+		@Index(name = "idx_employees_email_address", columnList = "email_address")
+})
 public class Employee {
 
-	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
 	private long id;
 
+	private long version;
+
 	public Employee(String firstName) {
 		this.firstName = firstName;
 	}
@@ -32,9 +40,22 @@ public class Employee {
 		this.lastName = lastName;
 		this.emailId = emailId;
 	}
+
+	/**
+	 * Detached copy, for the in-memory caches and indexes.
+	 */
+	public Employee(Employee employee) {
+		this(employee.firstName, employee.lastName, employee.emailId);
+		this.id = employee.id;
+		this.version = employee.version;
+	}
 	
+	/**
+	 * Pooled sequence: one round trip hands out allocationSize ids, and inserts can be JDBC batched (IDENTITY cannot).
+	 */
 	@Id
-	@GeneratedValue(strategy = GenerationType.AUTO)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employees_seq")
+	@SequenceGenerator(name = "employees_seq", sequenceName = "employees_seq", allocationSize = 50)
 	public long getId() {
 		return id;
 	}
@@ -42,6 +63,21 @@ public class Employee {
 		this.id = id;
 	}
 	
+	/**
+	 * Optimistic lock, incremented by every update. The client's version is only checked by PATCH (version field)
+	 * and by PUT / DELETE with If-Match; PUT without it and the batch updates ignore the version they are sent,
+	 * their save only fails when the row changed since they read it.
+	 */
+	@Version
+	@Column(name = "version", nullable = false)
+	public long getVersion() {
+		return version;
+	}
+	public void setVersion(long version) {
+		this.version = version;
+	}
+	
+	@NotNull
 	@Column(name = "first_name", nullable = false)
 	public String getFirstName() {
 		return firstName;
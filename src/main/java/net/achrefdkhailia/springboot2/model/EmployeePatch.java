@@ -0,0 +1,64 @@
+package net.achrefdkhailia.springboot2.model;
+
+/**
+ * Body of PATCH /employees/{id}: only the fields present in the JSON are updated, an explicit null clears the field.
+ * When version is given the update only applies if the employee is still at that version.
+ */
+public class EmployeePatch {
+
+	private String firstName;
+	private String lastName;
+	private String emailId;
+	private Long version;
+
+	private boolean firstNameSet;
+	private boolean lastNameSet;
+	private boolean emailIdSet;
+
+	public String getFirstName() {
+		return firstName;
+	}
+	public void setFirstName(String firstName) {
+		this.firstName = firstName;
+		this.firstNameSet = true;
+	}
+
+	public String getLastName() {
+		return lastName;
+	}
+	public void setLastName(String lastName) {
+		this.lastName = lastName;
+		this.lastNameSet = true;
+	}
+
+	public String getEmailId() {
+		return emailId;
+	}
+	public void setEmailId(String emailId) {
+		this.emailId = emailId;
+		this.emailIdSet = true;
+	}
+
+	public Long getVersion() {
+		return version;
+	}
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
+	public boolean isFirstNameSet() {
+		return firstNameSet;
+	}
+
+	public boolean isLastNameSet() {
+		return lastNameSet;
+	}
+
+	public boolean isEmailIdSet() {
+		return emailIdSet;
+	}
+
+	public boolean isEmpty() {
+		return !firstNameSet && !lastNameSet && !emailIdSet;
+	}
+}
@@ -0,0 +1,41 @@
+package net.achrefdkhailia.springboot2.model;
+
+import java.util.function.Function;
+
+/**
+ * Employee attributes GET /employees/search can look up, each backed by an index on its column.
+ */
+public enum EmployeeSearchField {
+
+	FIRST_NAME("firstName", Employee::getFirstName),
+	LAST_NAME("lastName", Employee::getLastName),
+	EMAIL_ID("emailId", Employee::getEmailId);
+
+	private final String attribute;
+	private final Function<Employee, String> getter;
+
+	EmployeeSearchField(String attribute, Function<Employee, String> getter) {
+		this.attribute = attribute;
+		this.getter = getter;
+	}
+
+	public String getAttribute() {
+		return attribute;
+	}
+
+	public String valueOf(Employee employee) {
+		return getter.apply(employee);
+	}
+
+	/**
+	 * @return the field for the attribute name (firstName, lastName, emailId), null when there is none
+	 */
+	public static EmployeeSearchField fromAttribute(String attribute) {
+		for (EmployeeSearchField field : values()) {
+			if (field.attribute.equals(attribute)) {
+				return field;
+			}
+		}
+		return null;
+	}
+}
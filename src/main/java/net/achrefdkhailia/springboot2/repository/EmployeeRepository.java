@@ -1,10 +1,71 @@
 package net.achrefdkhailia.springboot2.repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
+
 import net.achrefdkhailia.springboot2.model.Employee;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
-public interface EmployeeRepository extends JpaRepository<Employee, Long>{
+public interface EmployeeRepository extends JpaRepository<Employee, Long>, EmployeeRepositoryCustom {
+
+	/**
+	 * Keyset page: the employees with an id greater than afterId, in id order.
+	 * Only pageable.getPageSize() is used (no offset, no count query).
+	 */
+	@Query("select e from Employee e where e.id > :afterId order by e.id")
+	List<Employee> findPageAfter(@Param("afterId") long afterId, Pageable pageable);
+
+	/**
+	 * All the employees in id order, read from an open cursor.
+	 * Must be consumed and closed inside a transaction.
+	 */
+	@Query("select e from Employee e order by e.id")
+	@QueryHints({
+			@QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+			@QueryHint(name = "org.hibernate.readOnly", value = "true")
+	})
+	Stream<Employee> streamAll();
+
+	@Query("select e.version from Employee e where e.id = :id")
+	Optional<Long> findVersionById(@Param("id") long id);
+
+	@Query("select e.id from Employee e where e.id in :ids")
+	List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+	/**
+	 * A single DELETE, bypasses the persistence context.
+	 * @return the number of deleted rows, 0 when the id is unknown
+	 */
+	@Transactional
+	@Modifying
+	@Query("delete from Employee e where e.id = :id")
+	int deleteEmployeeById(@Param("id") long id);
+
+	/**
+	 * Deletes the employee only if it is still at the given version, in a single DELETE.
+	 * @return the number of deleted rows, 0 when the id is unknown or the version has changed
+	 */
+	@Transactional
+	@Modifying
+	@Query("delete from Employee e where e.id = :id and e.version = :version")
+	int deleteEmployeeByIdAndVersion(@Param("id") long id, @Param("version") long version);
 
+	/**
+	 * One delete statement for all the ids, bypasses the persistence context.
+	 */
+	@Modifying
+	@Query("delete from Employee e where e.id in :ids")
+	int deleteByIds(@Param("ids") Collection<Long> ids);
 }
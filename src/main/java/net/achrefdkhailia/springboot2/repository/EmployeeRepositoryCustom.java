@@ -0,0 +1,23 @@
+package net.achrefdkhailia.springboot2.repository;
+
+import java.util.List;
+
+import net.achrefdkhailia.springboot2.model.Employee;
+import net.achrefdkhailia.springboot2.model.EmployeePatch;
+import net.achrefdkhailia.springboot2.model.EmployeeSearchField;
+
+public interface EmployeeRepositoryCustom {
+
+	/**
+	 * Applies the fields present in the patch with a single UPDATE ... WHERE id = ? [AND version = ?],
+	 * incrementing the version, without loading the employee.
+	 * @return the number of updated rows, 0 when the id is unknown or the version did not match
+	 */
+	int patch(long employeeId, EmployeePatch patch);
+
+	/**
+	 * Employees whose field equals the value, or starts with it when prefix is true (case sensitive, so the
+	 * column index serves the LIKE 'value%'), ordered by that field then id.
+	 */
+	List<Employee> search(EmployeeSearchField field, String value, boolean prefix, int limit);
+}
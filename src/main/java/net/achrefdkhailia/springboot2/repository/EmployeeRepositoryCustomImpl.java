@@ -0,0 +1,86 @@
+package net.achrefdkhailia.springboot2.repository;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.ParameterExpression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import net.achrefdkhailia.springboot2.model.Employee;
+import net.achrefdkhailia.springboot2.model.EmployeePatch;
+import net.achrefdkhailia.springboot2.model.EmployeeSearchField;
+import org.springframework.transaction.annotation.Transactional;
+
+public class EmployeeRepositoryCustomImpl implements EmployeeRepositoryCustom {
+
+	private static final char LIKE_ESCAPE = '\\';
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	@Transactional
+	public int patch(long employeeId, EmployeePatch patch) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaUpdate<Employee> update = cb.createCriteriaUpdate(Employee.class);
+		Root<Employee> employee = update.from(Employee.class);
+		if (patch.isFirstNameSet()) {
+			update.set(employee.<String>get("firstName"), patch.getFirstName());
+		}
+		if (patch.isLastNameSet()) {
+			update.set(employee.<String>get("lastName"), patch.getLastName());
+		}
+		if (patch.isEmailIdSet()) {
+			update.set(employee.<String>get("emailId"), patch.getEmailId());
+		}
+		update.set(employee.<Long>get("version"), cb.sum(employee.<Long>get("version"), 1L));
+		// bound parameters rather than inlined literals, one statement text per set of fields
+		ParameterExpression<Long> id = cb.parameter(Long.class, "id");
+		ParameterExpression<Long> version = cb.parameter(Long.class, "version");
+		Predicate where = cb.equal(employee.get("id"), id);
+		if (patch.getVersion() != null) {
+			where = cb.and(where, cb.equal(employee.get("version"), version));
+		}
+		update.where(where);
+		Query query = entityManager.createQuery(update).setParameter("id", employeeId);
+		if (patch.getVersion() != null) {
+			query.setParameter("version", patch.getVersion());
+		}
+		return query.executeUpdate();
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<Employee> search(EmployeeSearchField field, String value, boolean prefix, int limit) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaQuery<Employee> query = cb.createQuery(Employee.class);
+		Root<Employee> employee = query.from(Employee.class);
+		Path<String> attribute = employee.get(field.getAttribute());
+		ParameterExpression<String> parameter = cb.parameter(String.class, "value");
+		query.where(prefix ? cb.like(attribute, parameter, LIKE_ESCAPE) : cb.equal(attribute, parameter));
+		query.orderBy(cb.asc(attribute), cb.asc(employee.get("id")));
+		return entityManager.createQuery(query)
+				.setParameter("value", prefix ? escapeLike(value) + "%" : value)
+				.setMaxResults(limit)
+				.getResultList();
+	}
+
+	private static String escapeLike(String value) {
+		StringBuilder escaped = new StringBuilder(value.length() + 8);
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+				escaped.append(LIKE_ESCAPE);
+			}
+			escaped.append(c);
+		}
+		return escaped.toString();
+	}
+}
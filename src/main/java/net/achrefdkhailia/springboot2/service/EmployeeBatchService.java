@@ -0,0 +1,242 @@
+package net.achrefdkhailia.springboot2.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import net.achrefdkhailia.springboot2.exception.BatchTooLargeException;
+import net.achrefdkhailia.springboot2.model.BatchItemResult;
+import net.achrefdkhailia.springboot2.model.BatchItemResult.Status;
+import net.achrefdkhailia.springboot2.model.Employee;
+import net.achrefdkhailia.springboot2.repository.EmployeeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Bulk create / update / delete of employees.
+ *
+ * Items are processed in chunks of employees.batch.chunk-size, one transaction per chunk: the chunk is flushed
+ * as JDBC batches (hibernate.jdbc.batch_size) and the persistence context is cleared before the next one.
+ * When a chunk fails it is replayed one item per transaction, so only the offending items are reported FAILED.
+ * The ids written by a chunk are evicted from the {@link EmployeeCache} once the chunk has committed.
+ */
+@Service
+public class EmployeeBatchService {
+
+	private static final String FAILED_MESSAGE = "The item could not be written";
+
+	private final Logger logger = LoggerFactory.getLogger(EmployeeBatchService.class);
+
+	@Autowired
+	private EmployeeRepository employeeRepository;
+
+	@Autowired
+	private EmployeeCache employeeCache;
+
+	@Autowired
+	private EmployeeSearchIndex employeeSearchIndex;
+
+	@Autowired
+	private EmployeeCollectionVersion employeeCollectionVersion;
+
+	@Autowired
+	private EmployeeJsonCache employeeJsonCache;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private Validator validator;
+
+	@Value("${employees.batch.chunk-size:500}")
+	private int chunkSize;
+
+	@Value("${employees.batch.max-items:50000}")
+	private int maxItems;
+
+	public List<BatchItemResult> createEmployees(List<Employee> employees) {
+		checkSize(employees.size());
+		BatchItemResult[] results = new BatchItemResult[employees.size()];
+		List<Integer> pending = new ArrayList<>(employees.size());
+		for (int i = 0; i < employees.size(); i++) {
+			Employee employee = employees.get(i);
+			String violation = employee.getId() != 0 ? "id is assigned on create" : validate(employee);
+			if (violation != null) {
+				results[i] = BatchItemResult.invalid(i, null, violation);
+			} else {
+				pending.add(i);
+			}
+		}
+		runChunks(pending, results, chunk -> {
+			List<Long> created = new ArrayList<>(chunk.size());
+			for (int i : chunk) {
+				Employee employee = employees.get(i);
+				// a replayed item may carry the id of a rolled back attempt
+				employee.setId(0L);
+				entityManager.persist(employee);
+				created.add(employee.getId());
+				results[i] = BatchItemResult.of(i, employee.getId(), Status.CREATED);
+			}
+			// drops the negative entries of ids looked up before they existed
+			return created;
+		});
+		return Arrays.asList(results);
+	}
+
+	public List<BatchItemResult> updateEmployees(List<Employee> employees) {
+		checkSize(employees.size());
+		BatchItemResult[] results = new BatchItemResult[employees.size()];
+		List<Integer> pending = new ArrayList<>(employees.size());
+		for (int i = 0; i < employees.size(); i++) {
+			Employee employee = employees.get(i);
+			String violation = employee.getId() == 0 ? "id is required on update" : validate(employee);
+			if (violation != null) {
+				results[i] = BatchItemResult.invalid(i, employee.getId() == 0 ? null : employee.getId(), violation);
+			} else {
+				pending.add(i);
+			}
+		}
+		runChunks(pending, results, chunk -> {
+			Set<Long> ids = chunk.stream().map(i -> employees.get(i).getId()).collect(Collectors.toSet());
+			Map<Long, Employee> existing = employeeRepository.findAllById(ids).stream()
+					.collect(Collectors.toMap(Employee::getId, Function.identity()));
+			for (int i : chunk) {
+				Employee employeeDetails = employees.get(i);
+				Employee employee = existing.get(employeeDetails.getId());
+				if (employee == null) {
+					results[i] = BatchItemResult.of(i, employeeDetails.getId(), Status.NOT_FOUND);
+					continue;
+				}
+				employee.setEmailId(employeeDetails.getEmailId());
+				employee.setLastName(employeeDetails.getLastName());
+				employee.setFirstName(employeeDetails.getFirstName());
+				results[i] = BatchItemResult.of(i, employee.getId(), Status.UPDATED);
+			}
+			return existing.keySet();
+		});
+		return Arrays.asList(results);
+	}
+
+	public List<BatchItemResult> deleteEmployees(List<Long> employeeIds) {
+		checkSize(employeeIds.size());
+		BatchItemResult[] results = new BatchItemResult[employeeIds.size()];
+		List<Integer> pending = new ArrayList<>(employeeIds.size());
+		for (int i = 0; i < employeeIds.size(); i++) {
+			if (employeeIds.get(i) == null) {
+				results[i] = BatchItemResult.invalid(i, null, "id is required on delete");
+			} else {
+				pending.add(i);
+			}
+		}
+		runChunks(pending, results, chunk -> {
+			Set<Long> ids = chunk.stream().map(employeeIds::get).collect(Collectors.toSet());
+			Set<Long> existing = new HashSet<>(employeeRepository.findExistingIds(ids));
+			if (!existing.isEmpty()) {
+				employeeRepository.deleteByIds(existing);
+			}
+			Set<Long> deleted = new HashSet<>(existing);
+			for (int i : chunk) {
+				long id = employeeIds.get(i);
+				// an id listed twice is deleted by its first item, the next ones find nothing
+				results[i] = BatchItemResult.of(i, id, deleted.remove(id) ? Status.DELETED : Status.NOT_FOUND);
+			}
+			return existing;
+		});
+		return Arrays.asList(results);
+	}
+
+	private void checkSize(int size) {
+		if (size > maxItems) {
+			throw new BatchTooLargeException("Batch of " + size + " items exceeds the limit of " + maxItems);
+		}
+	}
+
+	private String validate(Employee employee) {
+		Set<ConstraintViolation<Employee>> violations = validator.validate(employee);
+		if (violations.isEmpty()) {
+			return null;
+		}
+		return violations.stream()
+				.map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+				.collect(Collectors.joining(", "));
+	}
+
+	/**
+	 * Runs the operation over the item indexes chunk by chunk, each chunk in its own transaction.
+	 */
+	private void runChunks(List<Integer> indexes, BatchItemResult[] results, ChunkOperation operation) {
+		for (int from = 0; from < indexes.size(); from += chunkSize) {
+			List<Integer> chunk = indexes.subList(from, Math.min(from + chunkSize, indexes.size()));
+			try {
+				runChunk(chunk, operation);
+			} catch (RuntimeException e) {
+				if (chunk.size() == 1) {
+					failed(results, chunk.get(0), e);
+					continue;
+				}
+				logger.warn("Batch chunk of {} items failed, replaying them one by one: {}", chunk.size(), e.getMessage());
+				for (int k = 0; k < chunk.size(); k++) {
+					try {
+						runChunk(chunk.subList(k, k + 1), operation);
+					} catch (RuntimeException itemFailure) {
+						failed(results, chunk.get(k), itemFailure);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * The cause is logged, not returned: database messages name tables, columns and constraints.
+	 */
+	private void failed(BatchItemResult[] results, int i, RuntimeException e) {
+		logger.warn("Batch item {} failed: {}", i, NestedExceptionUtils.getMostSpecificCause(e).toString());
+		results[i] = new BatchItemResult(i, null, Status.FAILED, FAILED_MESSAGE);
+	}
+
+	private void runChunk(List<Integer> chunk, ChunkOperation operation) {
+		try {
+			Collection<Long> written = transactionTemplate.execute(status -> {
+				Collection<Long> ids = operation.apply(chunk);
+				entityManager.flush();
+				return ids;
+			});
+			employeeCache.invalidateAll(written);
+			employeeJsonCache.invalidateAll(written);
+			employeeSearchIndex.refresh(written);
+			if (!written.isEmpty()) {
+				employeeCollectionVersion.increment();
+			}
+		} finally {
+			// the request may share one persistence context across chunks (open-in-view)
+			entityManager.clear();
+		}
+	}
+
+	@FunctionalInterface
+	private interface ChunkOperation {
+		/**
+		 * @return the ids of the employees written by the chunk
+		 */
+		Collection<Long> apply(List<Integer> chunk);
+	}
+}
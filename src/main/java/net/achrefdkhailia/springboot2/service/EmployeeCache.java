@@ -0,0 +1,91 @@
+package net.achrefdkhailia.springboot2.service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import net.achrefdkhailia.springboot2.model.Employee;
+import net.achrefdkhailia.springboot2.repository.EmployeeRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded read-through cache of employees by id, in front of EmployeeRepository.findById.
+ *
+ * Found employees live for employees.cache.ttl, unknown ids are remembered for employees.cache.negative-ttl
+ * so that repeated 404s do not all reach the database; the least recently used entries are evicted beyond
+ * employees.cache.maximum-size. The cache holds detached copies and hands out copies, callers never share
+ * (or mutate) a cached instance.
+ * Writers call {@link #invalidate} once their transaction has committed and never put what they wrote: a put
+ * landing after a later write's invalidation would bring an outdated version back, while an invalidation racing a
+ * load waits for it and removes its result. The next read loads the employee again, so a cached version is current.
+ * Hit, miss, load time and eviction metrics are published as the "employees" cache (/actuator/metrics/cache.gets ...).
+ */
+@Component
+public class EmployeeCache {
+
+	private final LoadingCache<Long, Optional<Employee>> cache;
+
+	public EmployeeCache(EmployeeRepository employeeRepository,
+			@Value("${employees.cache.maximum-size:10000}") long maximumSize,
+			@Value("${employees.cache.ttl:10m}") Duration ttl,
+			@Value("${employees.cache.negative-ttl:10s}") Duration negativeTtl,
+			MeterRegistry meterRegistry) {
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.expireAfter(new EmployeeExpiry(ttl.toNanos(), negativeTtl.toNanos()))
+				.recordStats()
+				.build(id -> employeeRepository.findById(id).map(Employee::new));
+		CaffeineCacheMetrics.monitor(meterRegistry, cache, "employees");
+	}
+
+	public Optional<Employee> get(long employeeId) {
+		return cache.get(employeeId).map(Employee::new);
+	}
+
+	/**
+	 * The version of a cached employee, without loading it: empty when the id is not cached (or cached as unknown).
+	 */
+	public Optional<Long> cachedVersion(long employeeId) {
+		Optional<Employee> employee = cache.getIfPresent(employeeId);
+		return employee == null ? Optional.empty() : employee.map(Employee::getVersion);
+	}
+
+	public void invalidate(long employeeId) {
+		cache.invalidate(employeeId);
+	}
+
+	public void invalidateAll(Iterable<Long> employeeIds) {
+		cache.invalidateAll(employeeIds);
+	}
+
+	private static final class EmployeeExpiry implements Expiry<Long, Optional<Employee>> {
+
+		private final long ttlNanos;
+		private final long negativeTtlNanos;
+
+		EmployeeExpiry(long ttlNanos, long negativeTtlNanos) {
+			this.ttlNanos = ttlNanos;
+			this.negativeTtlNanos = negativeTtlNanos;
+		}
+
+		@Override
+		public long expireAfterCreate(Long key, Optional<Employee> value, long currentTime) {
+			return value.isPresent() ? ttlNanos : negativeTtlNanos;
+		}
+
+		@Override
+		public long expireAfterUpdate(Long key, Optional<Employee> value, long currentTime, long currentDuration) {
+			return expireAfterCreate(key, value, currentTime);
+		}
+
+		@Override
+		public long expireAfterRead(Long key, Optional<Employee> value, long currentTime, long currentDuration) {
+			return currentDuration;
+		}
+	}
+}
@@ -0,0 +1,29 @@
+package net.achrefdkhailia.springboot2.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Version of the employee collection as a whole, the ETag of GET /employees.
+ *
+ * Writers call {@link #increment} once their transaction has committed, readers take {@link #current}
+ * before querying: a write racing with a read can only label newer data with an older version, which the
+ * next request corrects, never the reverse. The start time is part of the version so that a restarted
+ * (in-memory) database never reuses the tags of the previous run.
+ */
+@Component
+public class EmployeeCollectionVersion {
+
+	private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+	private final AtomicLong version = new AtomicLong();
+
+	public String current() {
+		return epoch + "-" + version.get();
+	}
+
+	public void increment() {
+		version.incrementAndGet();
+	}
+}
@@ -0,0 +1,104 @@
+package net.achrefdkhailia.springboot2.service;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import net.achrefdkhailia.springboot2.exception.ServiceUnavailableException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded executor running the database work of the async API (/api/v1/async), off the servlet threads.
+ *
+ * employees.async.threads (by default the connection pool size) workers take calls from a queue of
+ * employees.async.queue-capacity. A call finding the queue full, or still queued after employees.async.queue-timeout,
+ * fails at once with a ServiceUnavailableException (503, Retry-After employees.async.retry-after) without touching
+ * the database, so that an overloaded database sheds requests instead of piling them up.
+ * Queue depth, active workers and completions are published as executor.* {name=employees-db}, queue time as
+ * employees.async.queue.wait and turned away calls as employees.async.rejected {reason=full|deadline}.
+ */
+@Component
+public class EmployeeDbExecutor {
+
+	private final ThreadPoolExecutor executor;
+
+	private final long queueTimeoutNanos;
+
+	private final long retryAfterSeconds;
+
+	private final Timer queueWait;
+
+	private final Counter rejectedFull;
+
+	private final Counter rejectedDeadline;
+
+	public EmployeeDbExecutor(@Value("${employees.async.threads:${spring.datasource.hikari.maximum-pool-size:10}}") int threads,
+			@Value("${employees.async.queue-capacity:100}") int queueCapacity,
+			@Value("${employees.async.queue-timeout:1s}") Duration queueTimeout,
+			@Value("${employees.async.retry-after:1s}") Duration retryAfter,
+			MeterRegistry meterRegistry) {
+		this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("employees-db-"),
+				new ThreadPoolExecutor.AbortPolicy());
+		this.queueTimeoutNanos = queueTimeout.toNanos();
+		this.retryAfterSeconds = Math.max(1L, (retryAfter.toMillis() + 999) / 1000);
+		new ExecutorServiceMetrics(executor, "employees-db", Tags.empty()).bindTo(meterRegistry);
+		this.queueWait = Timer.builder("employees.async.queue.wait")
+				.description("Time spent by the async API calls waiting for a database worker")
+				.publishPercentiles(0.5, 0.99)
+				.register(meterRegistry);
+		this.rejectedFull = Counter.builder("employees.async.rejected").tag("reason", "full").register(meterRegistry);
+		this.rejectedDeadline = Counter.builder("employees.async.rejected").tag("reason", "deadline").register(meterRegistry);
+	}
+
+	/**
+	 * Runs the call on a database worker; the future fails with the call's exception,
+	 * or with a ServiceUnavailableException when the call was turned away.
+	 */
+	public <T> CompletableFuture<T> submit(Callable<T> call) {
+		CompletableFuture<T> result = new CompletableFuture<>();
+		long queued = System.nanoTime();
+		try {
+			executor.execute(() -> {
+				long waited = System.nanoTime() - queued;
+				queueWait.record(waited, TimeUnit.NANOSECONDS);
+				if (waited > queueTimeoutNanos) {
+					rejectedDeadline.increment();
+					result.completeExceptionally(new ServiceUnavailableException(
+							"Request waited " + TimeUnit.NANOSECONDS.toMillis(waited) + " ms for the database, try again later",
+							retryAfterSeconds));
+					return;
+				}
+				try {
+					result.complete(call.call());
+				} catch (Throwable e) {
+					result.completeExceptionally(e);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			rejectedFull.increment();
+			result.completeExceptionally(new ServiceUnavailableException("Too many requests waiting for the database, try again later",
+					retryAfterSeconds));
+		}
+		return result;
+	}
+
+	@PreDestroy
+	public void shutdown() throws InterruptedException {
+		executor.shutdown();
+		executor.awaitTermination(10, TimeUnit.SECONDS);
+	}
+}
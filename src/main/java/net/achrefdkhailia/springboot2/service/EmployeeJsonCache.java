@@ -0,0 +1,133 @@
+package net.achrefdkhailia.springboot2.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import net.achrefdkhailia.springboot2.model.Employee;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Optional cache of GET /employees/{id} bodies, encoded once per employee version with the application ObjectMapper
+ * (the same bytes as the JSON message converter) and written to the response as they are.
+ *
+ * Disabled by default (employees.json-cache.enabled). An entry is only used for the version it was encoded from,
+ * writers also {@link #invalidate} it so that outdated bodies do not hold memory. With employees.json-cache.gzip
+ * a gzip copy is compressed along, and kept only when it is smaller than the JSON.
+ * Hit and miss metrics are published as the "employees.json" cache.
+ */
+@Component
+public class EmployeeJsonCache {
+
+	private final boolean enabled;
+
+	private final boolean gzip;
+
+	private final ObjectWriter writer;
+
+	private final Cache<Long, EncodedEmployee> cache;
+
+	public EmployeeJsonCache(ObjectMapper objectMapper,
+			@Value("${employees.json-cache.enabled:false}") boolean enabled,
+			@Value("${employees.json-cache.gzip:false}") boolean gzip,
+			@Value("${employees.json-cache.maximum-size:10000}") long maximumSize,
+			MeterRegistry meterRegistry) {
+		this.enabled = enabled;
+		this.gzip = gzip;
+		this.writer = objectMapper.writerFor(Employee.class);
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.recordStats()
+				.build();
+		CaffeineCacheMetrics.monitor(meterRegistry, cache, "employees.json");
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * The encoded employee, from the cache when it holds this version.
+	 */
+	public EncodedEmployee encode(Employee employee) {
+		EncodedEmployee cached = cache.getIfPresent(employee.getId());
+		if (cached != null && cached.getVersion() == employee.getVersion()) {
+			return cached;
+		}
+		EncodedEmployee encoded = encodeNow(employee);
+		// a slower request must not replace a newer version
+		cache.asMap().merge(employee.getId(), encoded,
+				(previous, current) -> previous.getVersion() > current.getVersion() ? previous : current);
+		return encoded;
+	}
+
+	public void invalidate(long employeeId) {
+		cache.invalidate(employeeId);
+	}
+
+	public void invalidateAll(Iterable<Long> employeeIds) {
+		cache.invalidateAll(employeeIds);
+	}
+
+	private EncodedEmployee encodeNow(Employee employee) {
+		byte[] json;
+		try {
+			json = writer.writeValueAsBytes(employee);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Employee " + employee.getId() + " cannot be serialized", e);
+		}
+		byte[] compressed = gzip ? gzip(json) : null;
+		return new EncodedEmployee(employee.getVersion(), json,
+				compressed != null && compressed.length < json.length ? compressed : null);
+	}
+
+	private static byte[] gzip(byte[] json) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(json.length);
+		try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+			out.write(json);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * JSON body of one employee version; the arrays are shared and must not be modified.
+	 */
+	public static final class EncodedEmployee {
+
+		private final long version;
+		private final byte[] json;
+		private final byte[] gzip;
+
+		EncodedEmployee(long version, byte[] json, byte[] gzip) {
+			this.version = version;
+			this.json = json;
+			this.gzip = gzip;
+		}
+
+		public long getVersion() {
+			return version;
+		}
+
+		public byte[] getJson() {
+			return json;
+		}
+
+		/**
+		 * The gzip-compressed JSON, null when not enabled or not smaller.
+		 */
+		public byte[] getGzip() {
+			return gzip;
+		}
+	}
+}
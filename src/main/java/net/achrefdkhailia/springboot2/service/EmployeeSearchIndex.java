@@ -0,0 +1,201 @@
+package net.achrefdkhailia.springboot2.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.achrefdkhailia.springboot2.model.Employee;
+import net.achrefdkhailia.springboot2.model.EmployeeSearchField;
+import net.achrefdkhailia.springboot2.repository.EmployeeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Optional in-memory copy of the employees, sorted by each {@link EmployeeSearchField}, serving the same
+ * prefix / exact searches as EmployeeRepository.search without a database round trip.
+ *
+ * Disabled by default (employees.search.index.enabled), it holds one detached copy of every employee.
+ * It is built from a cursor once the application is ready, searches go to the database until then.
+ * Writers call {@link #put} / {@link #remove} / {@link #refresh} once their transaction has committed;
+ * a put never replaces a newer version of the same employee. The updates of one id are serialized and, in each
+ * sorted view, add the new copy before unlinking the old one, so a search never misses an employee being updated.
+ * The ids removed while the index is built are remembered until it is, so that the cursor does not bring back
+ * an employee deleted after it started.
+ * The number of indexed employees is published as employees.search.index.size.
+ */
+@Component
+public class EmployeeSearchIndex {
+
+	private final Logger logger = LoggerFactory.getLogger(EmployeeSearchIndex.class);
+
+	@Autowired
+	private EmployeeRepository employeeRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	private final boolean enabled;
+
+	private volatile boolean ready;
+
+	private final Map<Long, Employee> employees = new ConcurrentHashMap<>();
+
+	/**
+	 * Per field, the copies keyed by themselves in (value, id) order: a put of an unchanged value replaces
+	 * the copy in place.
+	 */
+	private final Map<EmployeeSearchField, ConcurrentSkipListMap<Employee, Employee>> sorted = new EnumMap<>(EmployeeSearchField.class);
+
+	/**
+	 * The ids removed since the build started, null when no build is running.
+	 */
+	private volatile Set<Long> removedDuringBuild;
+
+	public EmployeeSearchIndex(@Value("${employees.search.index.enabled:false}") boolean enabled,
+			MeterRegistry meterRegistry) {
+		this.enabled = enabled;
+		for (EmployeeSearchField field : EmployeeSearchField.values()) {
+			Comparator<Employee> byValue = Comparator.comparing(employee -> field.valueOf(employee),
+					Comparator.nullsFirst(Comparator.<String>naturalOrder()));
+			sorted.put(field, new ConcurrentSkipListMap<>(byValue.thenComparingLong(Employee::getId)));
+		}
+		Gauge.builder("employees.search.index.size", employees, Map::size)
+				.description("Employees held by the in-memory search index")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * True once the index is enabled and fully built.
+	 */
+	public boolean isReady() {
+		return ready;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void build() {
+		if (!enabled) {
+			return;
+		}
+		long start = System.nanoTime();
+		Set<Long> removed = ConcurrentHashMap.newKeySet();
+		removedDuringBuild = removed;
+		try {
+			transactionTemplate.execute(status -> {
+				try (Stream<Employee> all = employeeRepository.streamAll()) {
+					all.forEach(employee -> {
+						put(employee, removed);
+						entityManager.detach(employee);
+					});
+				}
+				return null;
+			});
+		} finally {
+			removedDuringBuild = null;
+		}
+		ready = true;
+		logger.info("Employee search index built with {} employees in {} ms", employees.size(),
+				(System.nanoTime() - start) / 1_000_000);
+	}
+
+	/**
+	 * At most limit employees whose field starts with (or, when prefix is false, equals) value,
+	 * ordered by the field then id, as copies.
+	 */
+	public List<Employee> search(EmployeeSearchField field, String value, boolean prefix, int limit) {
+		Employee probe = new Employee(value, value, value);
+		probe.setId(Long.MIN_VALUE);
+		List<Employee> found = new ArrayList<>(Math.min(limit, 64));
+		for (Employee employee : sorted.get(field).tailMap(probe).values()) {
+			String fieldValue = field.valueOf(employee);
+			if (found.size() == limit || fieldValue == null
+					|| (prefix ? !fieldValue.startsWith(value) : !fieldValue.equals(value))) {
+				break;
+			}
+			found.add(new Employee(employee));
+		}
+		return found;
+	}
+
+	public void put(Employee employee) {
+		put(employee, null);
+	}
+
+	/**
+	 * @param removed ids not to add back, those removed since the build started
+	 */
+	private void put(Employee employee, Set<Long> removed) {
+		if (!enabled) {
+			return;
+		}
+		Employee copy = new Employee(employee);
+		employees.compute(copy.getId(), (id, previous) -> {
+			if (removed != null && removed.contains(id)) {
+				return previous;
+			}
+			if (previous != null && previous.getVersion() > copy.getVersion()) {
+				return previous;
+			}
+			for (ConcurrentSkipListMap<Employee, Employee> view : sorted.values()) {
+				view.put(copy, copy);
+				if (previous != null && view.comparator().compare(previous, copy) != 0) {
+					view.remove(previous);
+				}
+			}
+			return copy;
+		});
+	}
+
+	public void remove(long employeeId) {
+		if (!enabled) {
+			return;
+		}
+		employees.compute(employeeId, (id, previous) -> {
+			Set<Long> removed = removedDuringBuild;
+			if (removed != null) {
+				removed.add(id);
+			}
+			if (previous != null) {
+				sorted.values().forEach(view -> view.remove(previous));
+			}
+			return null;
+		});
+	}
+
+	/**
+	 * Reloads the employees from the database, after writes that did not go through an entity
+	 * (bulk statements, partial updates). Ids no longer found are removed.
+	 */
+	public void refresh(Collection<Long> employeeIds) {
+		if (!enabled || employeeIds.isEmpty()) {
+			return;
+		}
+		Set<Long> missing = new HashSet<>(employeeIds);
+		for (Employee employee : employeeRepository.findAllById(employeeIds)) {
+			put(employee);
+			missing.remove(employee.getId());
+		}
+		missing.forEach(this::remove);
+	}
+}
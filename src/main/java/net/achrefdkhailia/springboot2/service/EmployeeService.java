@@ -1,15 +1,33 @@
 package net.achrefdkhailia.springboot2.service;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import net.achrefdkhailia.springboot2.aspect.Bulkhead;
+import net.achrefdkhailia.springboot2.aspect.Logged;
+import net.achrefdkhailia.springboot2.exception.InvalidRequestException;
+import net.achrefdkhailia.springboot2.exception.PreconditionFailedException;
 import net.achrefdkhailia.springboot2.exception.ResourceNotFoundException;
+import net.achrefdkhailia.springboot2.exception.VersionConflictException;
 import net.achrefdkhailia.springboot2.model.Employee;
+import net.achrefdkhailia.springboot2.model.EmployeePatch;
+import net.achrefdkhailia.springboot2.model.EmployeeSearchField;
 import net.achrefdkhailia.springboot2.repository.EmployeeRepository;
+import net.achrefdkhailia.springboot2.service.EmployeeJsonCache.EncodedEmployee;
+import org.slf4j.event.Level;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Employee Service
@@ -20,20 +38,116 @@ import org.springframework.stereotype.Service;
 public class EmployeeService {
 	@Autowired
 	private EmployeeRepository employeeRepository;
+
+	@Autowired
+	private EmployeeCache employeeCache;
+
+	@Autowired
+	private EmployeeSearchIndex employeeSearchIndex;
+
+	@Autowired
+	private EmployeeCollectionVersion employeeCollectionVersion;
+
+	@Autowired
+	private EmployeeJsonCache employeeJsonCache;
+
+	@PersistenceContext
+	private EntityManager entityManager;
 	
+	/**
+	 * Changes whenever an employee is written, to be read before the employees themselves.
+	 */
+	@Logged(level = Level.TRACE)
+	public String getCollectionVersion() {
+		return employeeCollectionVersion.current();
+	}
+
+	@Bulkhead("employees-read")
+	@Logged(result = false)
 	public List<Employee> getAllEmployees() {
 		return employeeRepository.findAll();
 	}
 
+	/**
+	 * Keyset pagination: at most limit employees with an id greater than afterId, in id order.
+	 */
+	@Bulkhead("employees-read")
+	public List<Employee> getEmployeesAfter(long afterId, int limit) {
+		return employeeRepository.findPageAfter(afterId, PageRequest.of(0, limit));
+	}
+
+	/**
+	 * Hands every employee to the sink in id order, reading them from a cursor so that memory stays bounded.
+	 * Each employee is detached once the sink returns, the persistence context never holds more than one row.
+	 */
+	@Bulkhead("employees-stream")
+	@Logged(arguments = false, result = false)
+	@Transactional(readOnly = true)
+	public void streamAllEmployees(Consumer<Employee> sink) {
+		try (Stream<Employee> employees = employeeRepository.streamAll()) {
+			employees.forEach(employee -> {
+				sink.accept(employee);
+				entityManager.detach(employee);
+			});
+		}
+	}
+
+	/**
+	 * Employees whose field starts with (or equals) value, ordered by that field then id.
+	 * Served by the in-memory index once it is built, by the database indexes otherwise.
+	 */
+	@Bulkhead("employees-lookup")
+	public List<Employee> searchEmployees(EmployeeSearchField field, String value, boolean prefix, int limit) {
+		if (employeeSearchIndex.isReady()) {
+			return employeeSearchIndex.search(field, value, prefix, limit);
+		}
+		return employeeRepository.search(field, value, prefix, limit);
+	}
+
+	/**
+	 * The current version of an employee, from the cache or with a single-column query,
+	 * to answer conditional requests without loading the employee.
+	 */
+	@Bulkhead("employees-lookup")
+	public Optional<Long> getEmployeeVersion(Long employeeId) {
+		Optional<Long> version = employeeCache.cachedVersion(employeeId);
+		return version.isPresent() ? version : employeeRepository.findVersionById(employeeId);
+	}
+
+	@Bulkhead("employees-lookup")
 	public Optional<Employee> getEmployeeById(Long employeeId)
 			throws ResourceNotFoundException {
-		return employeeRepository.findById(employeeId);
+		return employeeCache.get(employeeId);
 	}
 
+	/**
+	 * True when employees by id are served as pre-encoded JSON, see getEncodedEmployee.
+	 */
+	@Logged(level = Level.TRACE)
+	public boolean isJsonCacheEnabled() {
+		return employeeJsonCache.isEnabled();
+	}
+
+	/**
+	 * The employee as ready-to-write JSON, encoded at most once per version.
+	 */
+	@Bulkhead("employees-lookup")
+	@Logged(result = false)
+	public Optional<EncodedEmployee> getEncodedEmployee(Long employeeId) {
+		return employeeCache.get(employeeId).map(employeeJsonCache::encode);
+	}
+
+	@Bulkhead("employees-write")
 	public Employee createEmployee(Employee employee) {
-		return employeeRepository.save(employee);
+		Employee createdEmployee = employeeRepository.save(employee);
+		// an id read before it existed may be cached as unknown
+		employeeCache.invalidate(createdEmployee.getId());
+		employeeSearchIndex.put(createdEmployee);
+		employeeCollectionVersion.increment();
+		return createdEmployee;
 	}
 
+	@Bulkhead("employees-write")
 	public Employee updateEmployee(Long employeeId,
 			Employee employeeDetails) throws ResourceNotFoundException {
 		Employee employee = employeeRepository.findById(employeeId)
@@ -43,17 +157,128 @@ public class EmployeeService {
 		employee.setLastName(employeeDetails.getLastName());
 		employee.setFirstName(employeeDetails.getFirstName());
 		final Employee updatedEmployee = employeeRepository.save(employee);
+		employeeCache.invalidate(employeeId);
+		employeeJsonCache.invalidate(employeeId);
+		employeeSearchIndex.put(updatedEmployee);
+		employeeCollectionVersion.increment();
+		return updatedEmployee;
+	}
+
+	/**
+	 * PUT with If-Match: a single UPDATE conditioned on the version, the employee is only read again
+	 * when nothing was updated (404 or 412), or when the header lists several versions.
+	 */
+	@Bulkhead("employees-write")
+	public Employee updateEmployeeIfMatch(Long employeeId, Employee employeeDetails, Set<Long> versions)
+			throws ResourceNotFoundException, PreconditionFailedException {
+		long version = expectedVersion(employeeId, versions);
+		EmployeePatch patch = new EmployeePatch();
+		patch.setFirstName(employeeDetails.getFirstName());
+		patch.setLastName(employeeDetails.getLastName());
+		patch.setEmailId(employeeDetails.getEmailId());
+		patch.setVersion(version);
+		if (employeeRepository.patch(employeeId, patch) == 0) {
+			rejectVersion(employeeId, version);
+		}
+		Employee updatedEmployee = new Employee(employeeDetails);
+		updatedEmployee.setId(employeeId);
+		updatedEmployee.setVersion(version + 1);
+		employeeCache.invalidate(employeeId);
+		employeeJsonCache.invalidate(employeeId);
+		employeeSearchIndex.put(updatedEmployee);
+		employeeCollectionVersion.increment();
 		return updatedEmployee;
 	}
 
+	/**
+	 * Applies the fields present in the patch with one UPDATE statement.
+	 * Only when nothing was updated a second query tells an unknown id (404) from a version conflict (409).
+	 */
+	@Bulkhead("employees-write")
+	public void patchEmployee(Long employeeId, EmployeePatch patch)
+			throws ResourceNotFoundException, VersionConflictException, InvalidRequestException {
+		if (patch.isEmpty()) {
+			throw new InvalidRequestException("No field to update for this id :: " + employeeId);
+		}
+		if (patch.isFirstNameSet() && patch.getFirstName() == null) {
+			throw new InvalidRequestException("firstName cannot be null");
+		}
+		int updated = employeeRepository.patch(employeeId, patch);
+		employeeCache.invalidate(employeeId);
+		employeeJsonCache.invalidate(employeeId);
+		if (updated > 0) {
+			employeeSearchIndex.refresh(Collections.singleton(employeeId));
+			employeeCollectionVersion.increment();
+		}
+		if (updated == 0) {
+			if (patch.getVersion() != null && employeeRepository.existsById(employeeId)) {
+				throw new VersionConflictException("Employee " + employeeId + " is no longer at version " + patch.getVersion());
+			}
+			throw new ResourceNotFoundException("Employee not found for this id :: " + employeeId);
+		}
+	}
+
+	@Bulkhead("employees-write")
 	public Map<String, Boolean> deleteEmployee(Long employeeId)
 			throws ResourceNotFoundException {
-		Employee employee = employeeRepository.findById(employeeId)
-				.orElseThrow(() -> new ResourceNotFoundException("Employee not found for this id :: " + employeeId));
+		int deleted = employeeRepository.deleteEmployeeById(employeeId);
+		employeeCache.invalidate(employeeId);
+		employeeJsonCache.invalidate(employeeId);
+		employeeSearchIndex.remove(employeeId);
+		if (deleted == 0) {
+			throw new ResourceNotFoundException("Employee not found for this id :: " + employeeId);
+		}
+		employeeCollectionVersion.increment();
+		Map<String, Boolean> response = new HashMap<>();
+		response.put("deleted", Boolean.TRUE);
+		return response;
+	}
 
-		employeeRepository.delete(employee);
+	/**
+	 * DELETE with If-Match, in a single statement conditioned on the version.
+	 */
+	@Bulkhead("employees-write")
+	public Map<String, Boolean> deleteEmployeeIfMatch(Long employeeId, Set<Long> versions)
+			throws ResourceNotFoundException, PreconditionFailedException {
+		long version = expectedVersion(employeeId, versions);
+		int deleted = employeeRepository.deleteEmployeeByIdAndVersion(employeeId, version);
+		if (deleted == 0) {
+			rejectVersion(employeeId, version);
+		}
+		employeeCache.invalidate(employeeId);
+		employeeJsonCache.invalidate(employeeId);
+		employeeSearchIndex.remove(employeeId);
+		employeeCollectionVersion.increment();
 		Map<String, Boolean> response = new HashMap<>();
 		response.put("deleted", Boolean.TRUE);
 		return response;
 	}
+
+	/**
+	 * The version a conditional write must find: the only one listed, otherwise the current one
+	 * if it is listed at all.
+	 */
+	private long expectedVersion(Long employeeId, Set<Long> versions)
+			throws ResourceNotFoundException, PreconditionFailedException {
+		if (versions.size() == 1) {
+			return versions.iterator().next();
+		}
+		long current = employeeRepository.findVersionById(employeeId)
+				.orElseThrow(() -> new ResourceNotFoundException("Employee not found for this id :: " + employeeId));
+		if (!versions.contains(current)) {
+			throw new PreconditionFailedException("Employee " + employeeId + " is at version " + current);
+		}
+		return current;
+	}
+
+	/**
+	 * After a conditional write changed nothing: 412 if the employee still exists, 404 otherwise.
+	 */
+	private void rejectVersion(Long employeeId, long version)
+			throws ResourceNotFoundException, PreconditionFailedException {
+		if (employeeRepository.existsById(employeeId)) {
+			throw new PreconditionFailedException("Employee " + employeeId + " is no longer at version " + version);
+		}
+		throw new ResourceNotFoundException("Employee not found for this id :: " + employeeId);
+	}
 }
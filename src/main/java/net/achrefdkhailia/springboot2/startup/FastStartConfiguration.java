@@ -0,0 +1,45 @@
+package net.achrefdkhailia.springboot2.startup;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Fast start, profile "fast-start" (see application-fast-start.properties): no Swagger, no Hibernate schema update,
+ * and the singletons are created when first needed instead of at startup, so the first requests pay for the beans
+ * they use. mvn -Pfast-start package also replaces the classpath scanning by the compile-time component index
+ * (META-INF/spring.components) and activates the profile in the jar: with an index on the classpath, the scanning
+ * of the jars without one, Springfox's included, finds nothing.
+ */
+@Configuration
+@Profile("fast-start")
+public class FastStartConfiguration {
+
+    /**
+     * Makes the application's and the auto-configured beans lazy, except the infrastructure ones and the
+     * SmartInitializingSingleton beans, whose callback only runs for the singletons created at startup.
+     */
+    @Bean
+    public static BeanFactoryPostProcessor lazyInitialization() {
+        return beanFactory -> {
+            for (String name : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definition = beanFactory.getBeanDefinition(name);
+                if (definition.isLazyInit() || definition.isAbstract() || !definition.isSingleton()
+                        || definition.getRole() == BeanDefinition.ROLE_INFRASTRUCTURE) {
+                    continue;
+                }
+                String className = definition.getBeanClassName();
+                if (className != null && definition.getFactoryMethodName() == null
+                        && SmartInitializingSingleton.class.isAssignableFrom(
+                                ClassUtils.resolveClassName(className, beanFactory.getBeanClassLoader()))) {
+                    continue;
+                }
+                definition.setLazyInit(true);
+            }
+        };
+    }
+}
@@ -0,0 +1,64 @@
+package net.achrefdkhailia.springboot2.startup;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Time to first request: logs, and publishes as the gauge "startup.first-request", the time from the JVM start
+ * to the end of the first request handled (for an async request, when its handler has returned).
+ * That includes the creation of the beans left lazy under the "fast-start" profile.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class FirstRequestTimer extends OncePerRequestFilter {
+
+    private final Logger logger = LoggerFactory.getLogger(FirstRequestTimer.class);
+
+    private final AtomicBoolean first = new AtomicBoolean(true);
+    private volatile long readyMillis = -1;
+    private volatile long firstRequestMillis = -1;
+
+    public FirstRequestTimer(MeterRegistry meterRegistry) {
+        TimeGauge.builder("startup.first-request", this, TimeUnit.MILLISECONDS,
+                t -> t.firstRequestMillis < 0 ? Double.NaN : t.firstRequestMillis)
+                .description("JVM start to the end of the first request")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ready() {
+        readyMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (firstRequestMillis < 0 && first.compareAndSet(true, false)) {
+                firstRequestMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+                logger.info("First request ({} {}) done {} ms after JVM start, {} ms after the application was ready",
+                        request.getMethod(), request.getRequestURI(), firstRequestMillis,
+                        readyMillis < 0 ? "?" : String.valueOf(firstRequestMillis - readyMillis));
+            }
+        }
+    }
+}
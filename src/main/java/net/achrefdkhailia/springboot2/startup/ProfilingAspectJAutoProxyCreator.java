@@ -0,0 +1,29 @@
+package net.achrefdkhailia.springboot2.startup;
+
+import org.springframework.aop.aspectj.annotation.AnnotationAwareAspectJAutoProxyCreator;
+
+/**
+ * Spring's @Aspect auto-proxy creator, timing for each bean the matching of the advisors and the creation
+ * of its proxy. The first bean looked at also pays for building the advisors of every @Aspect bean.
+ */
+@SuppressWarnings("serial")
+public class ProfilingAspectJAutoProxyCreator extends AnnotationAwareAspectJAutoProxyCreator {
+
+    private transient StartupProfiler profiler;
+
+    public void setProfiler(StartupProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    @Override
+    protected Object wrapIfNecessary(Object bean, String beanName, Object cacheKey) {
+        long start = System.nanoTime();
+        try {
+            return super.wrapIfNecessary(bean, beanName, cacheKey);
+        } finally {
+            if (profiler != null && beanName != null) {
+                profiler.proxied(beanName, System.nanoTime() - start);
+            }
+        }
+    }
+}
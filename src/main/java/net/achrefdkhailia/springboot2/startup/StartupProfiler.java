@@ -0,0 +1,207 @@
+package net.achrefdkhailia.springboot2.startup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.PriorityOrdered;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the creation of each singleton created before the application is ready, and reports the slowest ones.
+ *
+ * A bean's creation runs from its instantiation (constructor or factory method, constructor arguments included)
+ * through its initialization (field injection, init methods and every post-processor, proxying included) and
+ * contains the creation of the beans it depends on: its own time ("self") is its total minus theirs.
+ * The proxy column is the auto-proxy creator's share, advisor matching and proxy creation
+ * (see {@link ProfilingAspectJAutoProxyCreator}). Only the beans created by the thread that refreshes the context
+ * are timed.
+ */
+public class StartupProfiler implements InstantiationAwareBeanPostProcessor, PriorityOrdered, BeanFactoryAware,
+        ApplicationListener<ApplicationReadyEvent> {
+
+    private final Logger logger = LoggerFactory.getLogger(StartupProfiler.class);
+
+    private final int top;
+    private final Thread owner = Thread.currentThread();
+    private final Deque<BeanStartup> creating = new ArrayDeque<>();
+    private final List<BeanStartup> created = new ArrayList<>();
+    private final Map<String, Long> proxyNanos = new ConcurrentHashMap<>();
+    private volatile boolean reported;
+    private ConfigurableBeanFactory beanFactory;
+
+    public StartupProfiler(int top) {
+        this.top = top;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) {
+        this.beanFactory = beanFactory instanceof ConfigurableBeanFactory ? (ConfigurableBeanFactory) beanFactory : null;
+    }
+
+    @Override
+    public Object postProcessBeforeInstantiation(Class<?> beanClass, String beanName) {
+        if (profiling()) {
+            dropAbandoned();
+            creating.push(new BeanStartup(beanName, beanClass, System.nanoTime()));
+        }
+        return null;
+    }
+
+    @Override
+    public boolean postProcessAfterInstantiation(Object bean, String beanName) {
+        BeanStartup startup = profiling() ? creating.peek() : null;
+        if (startup != null && startup.name.equals(beanName)) {
+            startup.instantiated = System.nanoTime();
+        }
+        return true;
+    }
+
+    /**
+     * The end of the creation, called by {@link #last()} once every other post-processor is done with the bean.
+     */
+    void created(Object bean, String beanName) {
+        if (!profiling()) {
+            return;
+        }
+        long now = System.nanoTime();
+        dropAbandoned();
+        BeanStartup startup = creating.peek();
+        if (startup == null || !startup.name.equals(beanName)) {
+            // a FactoryBean's product, or a bean this profiler did not see being instantiated
+            return;
+        }
+        creating.pop();
+        startup.totalNanos = now - startup.start;
+        if (startup.instantiated == 0) {
+            startup.instantiated = now;
+        }
+        startup.proxyNanos = proxyNanos.getOrDefault(beanName, 0L);
+        startup.proxied = AopUtils.isAopProxy(bean);
+        BeanStartup parent = creating.peek();
+        if (parent != null) {
+            parent.dependenciesNanos += startup.totalNanos;
+        }
+        created.add(startup);
+    }
+
+    void proxied(String beanName, long nanos) {
+        if (profiling()) {
+            proxyNanos.merge(beanName, nanos, Long::sum);
+        }
+    }
+
+    /**
+     * The post-processor ending the creations, without an order so that it runs after the ordered ones.
+     */
+    BeanPostProcessor last() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                created(bean, beanName);
+                return bean;
+            }
+        };
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (reported) {
+            return;
+        }
+        reported = true;
+        List<BeanStartup> beans = new ArrayList<>(created);
+        beans.sort(Comparator.comparingLong(BeanStartup::selfNanos).reversed());
+        long selfNanos = 0;
+        long totalProxyNanos = 0;
+        int proxied = 0;
+        for (BeanStartup startup : beans) {
+            selfNanos += startup.selfNanos();
+            totalProxyNanos += startup.proxyNanos;
+            if (startup.proxied) {
+                proxied++;
+            }
+        }
+        StringBuilder report = new StringBuilder(128 + Math.min(top, beans.size()) * 120);
+        report.append(String.format("Startup profile: ready %d ms after JVM start, %d beans created in %d ms,"
+                        + " auto-proxy creator %d ms (%d proxies)%n",
+                ManagementFactory.getRuntimeMXBean().getUptime(), beans.size(), millis(selfNanos),
+                millis(totalProxyNanos), proxied));
+        report.append(String.format("%10s %10s %10s %10s %10s  %s%n", "self ms", "total ms", "instant ms", "init ms",
+                "proxy ms", "bean"));
+        Iterator<BeanStartup> slowest = beans.iterator();
+        for (int i = 0; i < top && slowest.hasNext(); i++) {
+            BeanStartup startup = slowest.next();
+            report.append(String.format("%10.1f %10.1f %10.1f %10.1f %10.1f  %s (%s)%n",
+                    startup.selfNanos() / 1e6, startup.totalNanos / 1e6, (startup.instantiated - startup.start) / 1e6,
+                    (startup.start + startup.totalNanos - startup.instantiated) / 1e6, startup.proxyNanos / 1e6,
+                    startup.name, startup.type == null ? "?" : startup.type.getName()));
+        }
+        logger.info(report.toString());
+        created.clear();
+        proxyNanos.clear();
+    }
+
+    private boolean profiling() {
+        return !reported && Thread.currentThread() == owner;
+    }
+
+    /**
+     * Drops the beans no longer in creation: those only instantiated to find a FactoryBean's product type
+     * (before-instantiation is called, the bean is not created) and those whose creation failed.
+     */
+    private void dropAbandoned() {
+        if (beanFactory != null) {
+            creating.removeIf(startup -> !beanFactory.isCurrentlyInCreation(startup.name));
+        }
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    private static final class BeanStartup {
+        final String name;
+        final Class<?> type;
+        final long start;
+        /** end of the instantiation, the constructor returned */
+        long instantiated;
+        long totalNanos;
+        /** creation of the beans created while this one was */
+        long dependenciesNanos;
+        long proxyNanos;
+        boolean proxied;
+
+        BeanStartup(String name, Class<?> type, long start) {
+            this.name = name;
+            this.type = type;
+            this.start = start;
+        }
+
+        long selfNanos() {
+            return totalNanos - dependenciesNanos;
+        }
+    }
+}
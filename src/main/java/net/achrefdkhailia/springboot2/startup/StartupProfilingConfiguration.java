@@ -0,0 +1,54 @@
+package net.achrefdkhailia.springboot2.startup;
+
+import org.springframework.aop.aspectj.annotation.AnnotationAwareAspectJAutoProxyCreator;
+import org.springframework.aop.config.AopConfigUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Startup profiling mode, profile "startup-profiling": the {@link StartupProfiler} report is logged
+ * when the application is ready, e.g.
+ * java -jar app.jar --spring.profiles.active=startup-profiling (or fast-start,startup-profiling)
+ *
+ * The beans are static so that the profiler is registered before the other post-processors and
+ * sees the configuration classes created.
+ */
+@Configuration
+@Profile("startup-profiling")
+public class StartupProfilingConfiguration {
+
+    private static final String PROFILER = "startupProfiler";
+
+    @Bean(PROFILER)
+    public static StartupProfiler startupProfiler(@Value("${startup.profiling.top:20}") int top) {
+        return new StartupProfiler(top);
+    }
+
+    @Bean
+    public static BeanPostProcessor startupProfilerEnd(StartupProfiler startupProfiler) {
+        return startupProfiler.last();
+    }
+
+    /**
+     * Times the auto-proxy creator, when Spring AOP proxies are used (not under the "aspectj" profile).
+     */
+    @Bean
+    public static BeanFactoryPostProcessor profiledAutoProxyCreator() {
+        return beanFactory -> {
+            if (!beanFactory.containsBeanDefinition(AopConfigUtils.AUTO_PROXY_CREATOR_BEAN_NAME)) {
+                return;
+            }
+            BeanDefinition definition = beanFactory.getBeanDefinition(AopConfigUtils.AUTO_PROXY_CREATOR_BEAN_NAME);
+            if (AnnotationAwareAspectJAutoProxyCreator.class.getName().equals(definition.getBeanClassName())) {
+                definition.setBeanClassName(ProfilingAspectJAutoProxyCreator.class.getName());
+                definition.getPropertyValues().add("profiler", new RuntimeBeanReference(PROFILER));
+            }
+        };
+    }
+}
@@ -2,6 +2,7 @@ package net.achrefdkhailia.springboot2.swagger;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import springfox.documentation.builders.ApiInfoBuilder;
 import springfox.documentation.builders.PathSelectors;
 import springfox.documentation.builders.RequestHandlerSelectors;
@@ -13,6 +14,7 @@ import springfox.documentation.swagger2.annotations.EnableSwagger2;
 
 /**
  * http://localhost:8080/swagger-ui.html#
+ * not under the "fast-start" profile, the Docket scans every controller at startup
 
  */
 
@@ -20,6 +22,7 @@ import springfox.documentation.swagger2.annotations.EnableSwagger2;
 
 @Configuration
 @EnableSwagger2
+@Profile("!fast-start")
 public class SwaggerConfig {
 
     @Bean
@@ -0,0 +1,28 @@
+package net.achrefdkhailia.springboot2.tracing;
+
+/**
+ * One finished span, as written to the trace file.
+ */
+public final class Span {
+
+    final long traceIdHigh;
+    final long traceIdLow;
+    final long spanId;
+    final long parentId;
+    final long startMicros;
+    final long durationNanos;
+    final String name;
+    final boolean error;
+
+    public Span(long traceIdHigh, long traceIdLow, long spanId, long parentId, long startMicros, long durationNanos,
+                String name, boolean error) {
+        this.traceIdHigh = traceIdHigh;
+        this.traceIdLow = traceIdLow;
+        this.spanId = spanId;
+        this.parentId = parentId;
+        this.startMicros = startMicros;
+        this.durationNanos = durationNanos;
+        this.name = name;
+        this.error = error;
+    }
+}
@@ -0,0 +1,169 @@
+package net.achrefdkhailia.springboot2.tracing;
+
+import org.slf4j.MDC;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The trace of the current thread: its ids, whether it is sampled, and the stack of open spans.
+ *
+ * One mutable instance per thread, reused from request to request: an unsampled request only moves the depth.
+ * A sampled trace puts "traceId" and "spanId" in the MDC. Trace ids follow the W3C traceparent header
+ * (00-[32 hex trace id]-[16 hex parent span id]-[2 hex flags, 01 = sampled]).
+ */
+public final class TraceContext {
+
+    public static final String TRACEPARENT = "traceparent";
+
+    static final String MDC_TRACE_ID = "traceId";
+    static final String MDC_SPAN_ID = "spanId";
+
+    private static final int MAX_DEPTH = 64;
+
+    private static final ThreadLocal<TraceContext> CURRENT = ThreadLocal.withInitial(TraceContext::new);
+
+    private long traceIdHigh;
+    private long traceIdLow;
+    private boolean sampled;
+    private int depth;
+    private long epochMicros;
+    private long epochNanos;
+
+    /**
+     * spanIds[0] is the remote parent (0 without one), spanIds[depth] the innermost open span.
+     */
+    private final long[] spanIds = new long[MAX_DEPTH + 1];
+
+    private TraceContext() {
+    }
+
+    public static TraceContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * True when no span is open on this thread, the next one starts a trace.
+     */
+    public boolean isIdle() {
+        return depth == 0;
+    }
+
+    public boolean isSampled() {
+        return sampled;
+    }
+
+    /**
+     * Starts a trace, continuing the traceparent header when it is valid.
+     * @param sampleRate used when there is no header, between 0 and 1
+     */
+    public void start(String traceparent, double sampleRate) {
+        if (!parse(traceparent)) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            sampled = sampleRate > 0 && (sampleRate >= 1 || random.nextDouble() < sampleRate);
+            if (sampled) {
+                traceIdHigh = random.nextLong();
+                traceIdLow = random.nextLong();
+                spanIds[0] = 0;
+            }
+        }
+        if (sampled) {
+            epochMicros = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+            epochNanos = System.nanoTime();
+            MDC.put(MDC_TRACE_ID, traceId());
+        }
+    }
+
+    /**
+     * Enters an advised call: opens a span when the trace is sampled.
+     * @return the span id, 0 when no span was opened
+     */
+    public long enter() {
+        depth++;
+        if (!sampled || depth > MAX_DEPTH) {
+            return 0;
+        }
+        long spanId = ThreadLocalRandom.current().nextLong();
+        spanIds[depth] = spanId;
+        MDC.put(MDC_SPAN_ID, hex(spanId));
+        return spanId;
+    }
+
+    /**
+     * The parent of the span opened by the last enter().
+     */
+    public long parentId() {
+        return depth <= MAX_DEPTH ? spanIds[depth - 1] : 0;
+    }
+
+    /**
+     * Leaves an advised call, and ends the trace with the outermost one.
+     */
+    public void exit() {
+        depth--;
+        if (!sampled) {
+            return;
+        }
+        if (depth == 0) {
+            MDC.remove(MDC_TRACE_ID);
+            MDC.remove(MDC_SPAN_ID);
+            sampled = false;
+        } else if (depth < MAX_DEPTH) {
+            MDC.put(MDC_SPAN_ID, hex(spanIds[depth]));
+        }
+    }
+
+    public long getTraceIdHigh() {
+        return traceIdHigh;
+    }
+
+    public long getTraceIdLow() {
+        return traceIdLow;
+    }
+
+    /**
+     * Wall clock time, in microseconds since the epoch, of a System.nanoTime() value taken during the trace.
+     */
+    public long epochMicros(long nanoTime) {
+        return epochMicros + TimeUnit.NANOSECONDS.toMicros(nanoTime - epochNanos);
+    }
+
+    public String traceId() {
+        return hex(traceIdHigh) + hex(traceIdLow);
+    }
+
+    /**
+     * The traceparent header of the current span, to be returned or sent downstream.
+     */
+    public String traceparent() {
+        return "00-" + traceId() + "-" + hex(spanIds[Math.min(depth, MAX_DEPTH)]) + "-01";
+    }
+
+    private boolean parse(String traceparent) {
+        if (traceparent == null || traceparent.length() != 55 || traceparent.charAt(2) != '-'
+                || traceparent.charAt(35) != '-' || traceparent.charAt(52) != '-') {
+            return false;
+        }
+        try {
+            long high = Long.parseUnsignedLong(traceparent.substring(3, 19), 16);
+            long low = Long.parseUnsignedLong(traceparent.substring(19, 35), 16);
+            long parent = Long.parseUnsignedLong(traceparent.substring(36, 52), 16);
+            int flags = Integer.parseInt(traceparent.substring(53, 55), 16);
+            if ((high | low) == 0 || parent == 0) {
+                return false;
+            }
+            traceIdHigh = high;
+            traceIdLow = low;
+            spanIds[0] = parent;
+            sampled = (flags & 1) == 1;
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    static String hex(long value) {
+        String hex = Long.toHexString(value);
+        return hex.length() == 16 ? hex : "0000000000000000".substring(hex.length()) + hex;
+    }
+}
@@ -0,0 +1,160 @@
+package net.achrefdkhailia.springboot2.tracing;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prints the traces of a file written by {@link TraceRecorder} as waterfalls, one line per span:
+ * start and duration in ms from the start of the trace, a bar over the trace's duration, the nesting and the name.
+ *
+ * File format (big-endian): the int magic "TRC1", then records starting with a type byte:
+ * NAME (2): int id, UTF name; SPAN (1): long trace id high, long trace id low, long span id, long parent id,
+ * long start (µs since the epoch), long duration (ns), int name id, boolean error.
+ * A record cut off at the end of the file is ignored.
+ *
+ * Usage: TraceFileReader [file] [trace id | number of last traces, default 20]
+ * e.g. java -cp app.jar -Dloader.main=net.achrefdkhailia.springboot2.tracing.TraceFileReader
+ *      org.springframework.boot.loader.PropertiesLauncher traces.bin 5
+ */
+public final class TraceFileReader {
+
+    private static final int BAR_WIDTH = 40;
+
+    private TraceFileReader() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        String file = args.length > 0 ? args[0] : "traces.bin";
+        String selection = args.length > 1 ? args[1] : "20";
+        Map<String, List<SpanRecord>> traces = read(file);
+        List<String> ids = new ArrayList<>(traces.keySet());
+        if (selection.length() == 32) {
+            ids.retainAll(Collections.singleton(selection));
+        } else {
+            ids = ids.subList(Math.max(0, ids.size() - Integer.parseInt(selection)), ids.size());
+        }
+        for (String id : ids) {
+            print(System.out, id, traces.get(id));
+        }
+    }
+
+    /**
+     * @return the spans of each trace, traces in the order they were first seen
+     */
+    static Map<String, List<SpanRecord>> read(String file) throws IOException {
+        Map<String, List<SpanRecord>> traces = new LinkedHashMap<>();
+        Map<Integer, String> names = new HashMap<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != TraceRecorder.MAGIC) {
+                throw new IOException(file + " is not a trace file");
+            }
+            for (;;) {
+                try {
+                    int type = in.read();
+                    if (type < 0) {
+                        break;
+                    }
+                    if (type == TraceRecorder.NAME) {
+                        names.put(in.readInt(), in.readUTF());
+                    } else if (type == TraceRecorder.SPAN) {
+                        String traceId = TraceContext.hex(in.readLong()) + TraceContext.hex(in.readLong());
+                        SpanRecord span = new SpanRecord(in.readLong(), in.readLong(), in.readLong(), in.readLong(),
+                                null, false);
+                        span.name = names.get(in.readInt());
+                        span.error = in.readBoolean();
+                        traces.computeIfAbsent(traceId, id -> new ArrayList<>()).add(span);
+                    } else {
+                        throw new IOException("Unknown record type " + type + " in " + file);
+                    }
+                } catch (EOFException e) {
+                    // the last record is cut off, the file is being written or its writer died: keep the complete ones
+                    break;
+                }
+            }
+        }
+        return traces;
+    }
+
+    static void print(PrintStream out, String traceId, List<SpanRecord> spans) {
+        Map<Long, SpanRecord> byId = new HashMap<>();
+        for (SpanRecord span : spans) {
+            byId.put(span.spanId, span);
+        }
+        Map<Long, List<SpanRecord>> children = new HashMap<>();
+        List<SpanRecord> roots = new ArrayList<>();
+        for (SpanRecord span : spans) {
+            if (byId.containsKey(span.parentId)) {
+                children.computeIfAbsent(span.parentId, id -> new ArrayList<>()).add(span);
+            } else {
+                roots.add(span);
+            }
+        }
+        long start = Long.MAX_VALUE;
+        long end = Long.MIN_VALUE;
+        for (SpanRecord span : spans) {
+            start = Math.min(start, span.startMicros);
+            end = Math.max(end, span.startMicros + span.durationNanos / 1000);
+        }
+        long total = Math.max(1, end - start);
+        out.printf("trace %s  %.3f ms  %s%n", traceId, total / 1000d, Instant.ofEpochMilli(start / 1000));
+        roots.sort(Comparator.comparingLong(span -> span.startMicros));
+        for (SpanRecord root : roots) {
+            print(out, root, 0, start, total, children);
+        }
+        out.println();
+    }
+
+    private static void print(PrintStream out, SpanRecord span, int level, long start, long total,
+                              Map<Long, List<SpanRecord>> children) {
+        long offset = span.startMicros - start;
+        int from = (int) (offset * BAR_WIDTH / total);
+        int to = Math.max(from + 1, (int) Math.min(BAR_WIDTH, (offset + span.durationNanos / 1000) * BAR_WIDTH / total));
+        StringBuilder bar = new StringBuilder(BAR_WIDTH);
+        for (int i = 0; i < BAR_WIDTH; i++) {
+            bar.append(i >= from && i < to ? '#' : ' ');
+        }
+        StringBuilder indent = new StringBuilder();
+        for (int i = 0; i < level; i++) {
+            indent.append("  ");
+        }
+        out.printf("%9.3f %9.3f |%s| %s%s%s%n", offset / 1000d, span.durationNanos / 1e6, bar, indent,
+                span.name, span.error ? " !" : "");
+        List<SpanRecord> nested = children.get(span.spanId);
+        if (nested != null) {
+            nested.sort(Comparator.comparingLong(child -> child.startMicros));
+            for (SpanRecord child : nested) {
+                print(out, child, level + 1, start, total, children);
+            }
+        }
+    }
+
+    static final class SpanRecord {
+        final long spanId;
+        final long parentId;
+        final long startMicros;
+        final long durationNanos;
+        String name;
+        boolean error;
+
+        SpanRecord(long spanId, long parentId, long startMicros, long durationNanos, String name, boolean error) {
+            this.spanId = spanId;
+            this.parentId = parentId;
+            this.startMicros = startMicros;
+            this.durationNanos = durationNanos;
+            this.name = name;
+            this.error = error;
+        }
+    }
+}
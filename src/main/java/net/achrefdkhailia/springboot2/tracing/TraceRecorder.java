@@ -0,0 +1,163 @@
+package net.achrefdkhailia.springboot2.tracing;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.achrefdkhailia.springboot2.logging.RingBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes the finished spans to tracing.file (tracing.enabled=true), see TraceFileReader for the format.
+ *
+ * Spans are published into a bounded {@link RingBuffer} and a background thread appends them in batches,
+ * flushing after each batch. A span that finds the buffer full is dropped (tracing.spans.dropped).
+ */
+@Component
+@ConditionalOnProperty(name = "tracing.enabled", havingValue = "true")
+public class TraceRecorder {
+
+    static final int MAGIC = 0x54524331; // "TRC1"
+    static final byte SPAN = 1;
+    static final byte NAME = 2;
+
+    private final Logger log = LoggerFactory.getLogger(this.getClass());
+
+    private final File file;
+    private final double sampleRate;
+    private final int batchSize;
+    private final RingBuffer<Span> buffer;
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * Span names already written to the file, by the writer thread only.
+     */
+    private final Map<String, Integer> nameIds = new HashMap<>();
+
+    private DataOutputStream out;
+    private volatile boolean running;
+    private Thread writer;
+
+    public TraceRecorder(@Value("${tracing.file:traces.bin}") File file,
+                         @Value("${tracing.sample-rate:0.01}") double sampleRate,
+                         @Value("${tracing.buffer-capacity:8192}") int capacity,
+                         @Value("${tracing.batch-size:256}") int batchSize,
+                         MeterRegistry meterRegistry) {
+        this.file = file;
+        this.sampleRate = sampleRate;
+        this.batchSize = batchSize;
+        this.buffer = new RingBuffer<>(capacity);
+        FunctionCounter.builder("tracing.spans.dropped", dropped, LongAdder::sum)
+                .description("spans lost because the buffer was full")
+                .register(meterRegistry);
+        Gauge.builder("tracing.spans.pending", buffer, RingBuffer::size)
+                .description("spans waiting to be written")
+                .register(meterRegistry);
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public void record(Span span) {
+        if (!buffer.offer(span)) {
+            dropped.increment();
+        }
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        // a new file gets the magic number, an existing one is appended to (its names are written again)
+        boolean exists = file.length() > 0;
+        out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true), 64 * 1024));
+        if (!exists) {
+            out.writeInt(MAGIC);
+        }
+        running = true;
+        writer = new Thread(this::write, "trace-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Tracing to {}, sample rate {}", file.getAbsolutePath(), sampleRate);
+    }
+
+    /**
+     * Lets the writer write what is left and closes the file. A writer still busy after 5 seconds keeps the buffer
+     * and the file, its single consumer and writer: the spans left are counted as dropped.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+        if (writer.isAlive()) {
+            int left = buffer.size();
+            dropped.add(left);
+            log.warn("Trace writer still busy after 5s, {} span(s) not written to {}", left, file);
+            return;
+        }
+        out.close();
+    }
+
+    private void write() {
+        while (running) {
+            try {
+                if (buffer.drain(this::write, batchSize) == 0) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+                } else {
+                    out.flush();
+                }
+            } catch (IOException | RuntimeException e) {
+                log.error("Failed to write spans to {}", file, e);
+            }
+        }
+        try {
+            while (buffer.drain(this::write, batchSize) > 0) {
+                // write what was published while stopping
+            }
+            out.flush();
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to write spans to {}", file, e);
+        }
+    }
+
+    private void write(Span span) {
+        try {
+            Integer nameId = nameIds.get(span.name);
+            if (nameId == null) {
+                nameId = nameIds.size();
+                nameIds.put(span.name, nameId);
+                out.writeByte(NAME);
+                out.writeInt(nameId);
+                out.writeUTF(span.name);
+            }
+            out.writeByte(SPAN);
+            out.writeLong(span.traceIdHigh);
+            out.writeLong(span.traceIdLow);
+            out.writeLong(span.spanId);
+            out.writeLong(span.parentId);
+            out.writeLong(span.startMicros);
+            out.writeLong(span.durationNanos);
+            out.writeInt(nameId);
+            out.writeBoolean(span.error);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+-- the employees table as Hibernate creates it from the Employee mapping (profile "fast-start", no schema update)
+create sequence if not exists employees_seq start with 1 increment by 50;
+create table if not exists employees (
+    id bigint not null primary key,
+    version bigint not null,
+    first_name varchar(255) not null,
+    last_name varchar(255),
+    email_address varchar(255)
+);
+create index if not exists idx_employees_first_name on employees (first_name);
+create index if not exists idx_employees_last_name on employees (last_name);
+create index if not exists idx_employees_email_address on employees (email_address);
@@ -0,0 +1,62 @@
+package net.achrefdkhailia.springboot2.aspect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class AdaptiveConcurrencyLimitTest {
+
+	private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+	@Test
+	public void callsOverTheLimitAreRefused() {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("test", 2, 1, 10, 100 * MILLI, 1);
+		assertTrue(limit.tryAcquire());
+		assertTrue(limit.tryAcquire());
+		assertFalse(limit.tryAcquire());
+		assertEquals(2, limit.inFlight());
+	}
+
+	@Test
+	public void limitGrowsWhileLatencyHoldsAndShrinksWhenItRises() {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("test", 20, 2, 200, 0, 1);
+		long now = System.nanoTime();
+		for (int window = 0; window < 20; window++) {
+			now = saturate(limit, now, MILLI);
+		}
+		int grown = limit.limit();
+		assertTrue("limit " + grown, grown > 20);
+
+		for (int window = 0; window < 20; window++) {
+			now = saturate(limit, now, 10 * MILLI);
+		}
+		assertTrue("limit " + limit.limit(), limit.limit() < grown / 2);
+	}
+
+	@Test
+	public void failedCallsMakeTheLimitBackOff() {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("test", 100, 2, 200, 0, 1);
+		long now = System.nanoTime();
+		assertTrue(limit.tryAcquire());
+		limit.release(now, now + MILLI, true);
+		assertEquals(90, limit.limit());
+	}
+
+	/**
+	 * Runs the limit full, every call taking latency, and closes the window.
+	 */
+	private static long saturate(AdaptiveConcurrencyLimit limit, long now, long latency) {
+		int calls = 0;
+		while (limit.tryAcquire()) {
+			calls++;
+		}
+		for (int i = 0; i < calls; i++) {
+			limit.release(now, now + latency, false);
+		}
+		return now + latency;
+	}
+}
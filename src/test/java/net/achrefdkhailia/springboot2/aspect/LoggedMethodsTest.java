@@ -0,0 +1,78 @@
+package net.achrefdkhailia.springboot2.aspect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+
+import org.junit.Test;
+import org.slf4j.event.Level;
+
+public class LoggedMethodsTest {
+
+	@Logged(level = Level.INFO, result = false)
+	public static class Annotated {
+
+		public void inherited() {
+		}
+
+		@Logged(level = Level.TRACE, sampleRate = 10)
+		public void overridden() {
+		}
+	}
+
+	public static class Plain {
+
+		public void plain() {
+		}
+	}
+
+	public static class Overloaded extends Plain {
+
+		public void plain(int times) {
+		}
+	}
+
+	@Test
+	public void methodAnnotationWinsOverTypeAnnotationAndDefaults() throws Exception {
+		LoggedMethods methods = new LoggedMethods();
+		methods.resolve(Collections.singletonList(Annotated.class));
+
+		LoggedMethod inherited = methods.get(Annotated.class, Annotated.class.getMethod("inherited"));
+		assertEquals("Annotated.inherited()", inherited.signature);
+		assertEquals(Level.INFO, inherited.level);
+		assertTrue(inherited.arguments);
+		assertFalse(inherited.result);
+
+		LoggedMethod overridden = methods.get(Annotated.class, Annotated.class.getMethod("overridden"));
+		assertEquals(Level.TRACE, overridden.level);
+		assertTrue(overridden.result);
+		assertEquals(10, overridden.sampleRate);
+
+		LoggedMethod plain = methods.get(Plain.class, Plain.class.getMethod("plain"));
+		assertEquals(Level.DEBUG, plain.level);
+		assertTrue(plain.arguments && plain.result);
+		assertSame(plain, methods.get(Plain.class, Plain.class.getMethod("plain")));
+	}
+
+	@Test
+	public void signatureNamesTheCalledTypeAndTheParameterTypes() throws Exception {
+		LoggedMethods methods = new LoggedMethods();
+		methods.resolve(Collections.singletonList(Overloaded.class));
+
+		assertEquals("Overloaded.plain()", methods.get(Overloaded.class, Plain.class.getMethod("plain")).signature);
+		assertEquals("Overloaded.plain(int)", methods.get(Overloaded.class, Overloaded.class.getMethod("plain", int.class)).signature);
+		assertEquals("Plain.plain()", methods.get(Plain.class, Plain.class.getMethod("plain")).signature);
+	}
+
+	@Test
+	public void tableHoldsThePublicMethodsOfTheResolvedTypes() throws Exception {
+		LoggedMethods methods = new LoggedMethods();
+		methods.resolve(Collections.singletonList(Annotated.class));
+		assertEquals(2, methods.size());
+		methods.resolve(Collections.singletonList(Plain.class));
+		assertEquals(3, methods.size());
+	}
+}
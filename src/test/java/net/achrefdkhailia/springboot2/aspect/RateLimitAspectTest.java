@@ -0,0 +1,111 @@
+package net.achrefdkhailia.springboot2.aspect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Map;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.achrefdkhailia.springboot2.exception.TooManyRequestsException;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+public class RateLimitAspectTest {
+
+	private final RateLimitAspect aspect = new RateLimitAspect();
+
+	private final JoinPoint joinPoint = mock(JoinPoint.class);
+
+	@RateLimited(value = "test", permits = 1, period = "1m", burst = 2)
+	public void limited() {
+	}
+
+	@Before
+	public void setUp() throws Exception {
+		aspect.environment = new MockEnvironment();
+		aspect.meterRegistry = new SimpleMeterRegistry();
+		aspect.enabled = true;
+		aspect.maxClients = 100;
+		aspect.tokenCache = new TokenVerificationCache(100, Duration.ofMinutes(5), Duration.ofSeconds(10),
+				new SimpleMeterRegistry());
+		MethodSignature signature = mock(MethodSignature.class);
+		when(signature.getMethod()).thenReturn(RateLimitAspectTest.class.getMethod("limited"));
+		when(joinPoint.getSignature()).thenReturn(signature);
+	}
+
+	@After
+	public void tearDown() {
+		RequestContextHolder.resetRequestAttributes();
+	}
+
+	@Test
+	public void unverifiedTokensShareTheRemoteAddressBucket() {
+		call("10.0.0.1", "made-up-1");
+		call("10.0.0.1", "made-up-2");
+		try {
+			call("10.0.0.1", "made-up-3");
+			fail("a new token must not get a fresh bucket");
+		} catch (TooManyRequestsException expected) {
+		}
+		call("10.0.0.2", "made-up-4");
+	}
+
+	@Test
+	public void verifiedTokenHasItsOwnBucket() {
+		aspect.tokenCache.get("valid", token -> TokenVerification.authorized(Long.MAX_VALUE));
+		aspect.tokenCache.get("denied", token -> TokenVerification.denied());
+		call("10.0.0.1", "denied");
+		call("10.0.0.1", "denied");
+		call("10.0.0.1", "valid");
+		call("10.0.0.1", "valid");
+		try {
+			call("10.0.0.1", "valid");
+			fail("the token's burst is spent");
+		} catch (TooManyRequestsException expected) {
+		}
+
+		Map<?, ?> buckets = buckets();
+		assertTrue(buckets.containsKey(TokenDigest.of("valid")));
+		assertTrue(buckets.containsKey("10.0.0.1"));
+		for (Object client : buckets.keySet()) {
+			assertFalse("raw token kept as " + client, "valid".equals(client) || "denied".equals(client));
+		}
+	}
+
+	@Test
+	public void digestIsLeftInTheRequestForTheAuthorization() {
+		MockHttpServletRequest request = call("10.0.0.1", "token");
+		TokenDigest digest = TokenDigest.of(request);
+		assertSame(digest, TokenDigest.of(request));
+		assertEquals(TokenDigest.of("token"), digest);
+	}
+
+	private MockHttpServletRequest call(String remoteAddress, String authorization) {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.setRemoteAddr(remoteAddress);
+		request.addHeader("Authorization", authorization);
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, new MockHttpServletResponse()));
+		aspect.before(joinPoint);
+		return request;
+	}
+
+	private Map<?, ?> buckets() {
+		Object binding = ((Map<?, ?>) ReflectionTestUtils.getField(aspect, "limits")).get("test");
+		return (Map<?, ?>) ReflectionTestUtils.getField(ReflectionTestUtils.getField(binding, "limiter"), "buckets");
+	}
+}
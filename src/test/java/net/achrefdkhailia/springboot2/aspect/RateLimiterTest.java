@@ -0,0 +1,69 @@
+package net.achrefdkhailia.springboot2.aspect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class RateLimiterTest {
+
+	private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	@Test
+	public void burstThenOnePermitPerInterval() {
+		RateLimiter limiter = new RateLimiter("test", 10, SECOND, 3, 100);
+		long now = 1_000 * SECOND;
+		for (int i = 0; i < 3; i++) {
+			long result = limiter.tryAcquire("a", now);
+			assertTrue(result > 0);
+			assertEquals(2 - i, limiter.remaining(result));
+		}
+		long refused = limiter.tryAcquire("a", now);
+		assertEquals(-SECOND / 10, refused);
+		assertEquals(3 * SECOND / 10, limiter.resetNanos(refused));
+
+		assertTrue(limiter.tryAcquire("b", now) > 0);
+		assertTrue(limiter.tryAcquire("a", now + SECOND / 10) > 0);
+		assertTrue(limiter.tryAcquire("a", now + SECOND / 10) < 0);
+	}
+
+	@Test
+	public void idleClientsAreEvictedWhenFull() {
+		RateLimiter limiter = new RateLimiter("test", 1, SECOND, 1, 2);
+		long now = 1_000 * SECOND;
+		limiter.tryAcquire("a", now);
+		limiter.tryAcquire("b", now);
+		// both active: the third client goes to the shared bucket
+		assertTrue(limiter.tryAcquire("c", now) > 0);
+		assertTrue(limiter.tryAcquire("d", now) < 0);
+		assertEquals(2, limiter.size());
+
+		assertTrue(limiter.tryAcquire("d", now + 2 * SECOND) > 0);
+		assertEquals(1, limiter.size());
+	}
+
+	@Test
+	public void concurrentCallsNeverExceedTheBurst() throws InterruptedException {
+		RateLimiter limiter = new RateLimiter("test", 1, TimeUnit.HOURS.toNanos(1), 1_000, 100);
+		long now = System.nanoTime();
+		AtomicInteger allowed = new AtomicInteger();
+		int threads = 4;
+		CountDownLatch done = new CountDownLatch(threads);
+		for (int t = 0; t < threads; t++) {
+			new Thread(() -> {
+				for (int i = 0; i < 1_000; i++) {
+					if (limiter.tryAcquire("a", now) > 0) {
+						allowed.incrementAndGet();
+					}
+				}
+				done.countDown();
+			}).start();
+		}
+		done.await();
+		assertEquals(1_000, allowed.get());
+	}
+}
@@ -0,0 +1,103 @@
+package net.achrefdkhailia.springboot2.aspect;
+
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aspectj.lang.JoinPoint;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.aop.aspectj.MethodInvocationProceedingJoinPoint;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.interceptor.ExposeInvocationInterceptor;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+public class RequestBindingTest {
+
+	private final MockHttpServletRequest current = new MockHttpServletRequest();
+
+	public static class Handler {
+
+		public String withRequest(String id, HttpServletRequest request) {
+			return id;
+		}
+
+		public String withoutRequest(String id) {
+			return id;
+		}
+	}
+
+	@After
+	public void tearDown() {
+		RequestContextHolder.resetRequestAttributes();
+	}
+
+	@Test
+	public void requestArgumentIsReadFromTheJoinPoint() throws Exception {
+		MockHttpServletRequest argument = new MockHttpServletRequest();
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(current));
+		JoinPoint joinPoint = mock(JoinPoint.class);
+		when(joinPoint.getArgs()).thenReturn(new Object[] {"1", argument});
+
+		assertSame(argument, RequestBinding.of(method("withRequest")).resolve(joinPoint));
+	}
+
+	@Test
+	public void requestArgumentIsReadFromTheProxyInvocation() {
+		MockHttpServletRequest argument = new MockHttpServletRequest();
+		RequestBinding binding = RequestBinding.of(method("withRequest"));
+		AtomicReference<HttpServletRequest> resolved = new AtomicReference<>();
+		ProxyFactory proxyFactory = new ProxyFactory(new Handler());
+		proxyFactory.setProxyTargetClass(true);
+		proxyFactory.addAdvisor(ExposeInvocationInterceptor.ADVISOR);
+		proxyFactory.addAdvice((MethodInterceptor) invocation -> {
+			resolved.set(binding.resolve(new MethodInvocationProceedingJoinPoint((ProxyMethodInvocation) invocation)));
+			return invocation.proceed();
+		});
+
+		((Handler) proxyFactory.getProxy()).withRequest("1", argument);
+
+		assertSame(argument, resolved.get());
+	}
+
+	@Test
+	public void currentRequestIsTheFallback() {
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(current));
+
+		assertSame(current, RequestBinding.of(method("withoutRequest")).resolve(mock(JoinPoint.class)));
+
+		JoinPoint nullArgument = mock(JoinPoint.class);
+		when(nullArgument.getArgs()).thenReturn(new Object[] {"1", null});
+		assertSame(current, RequestBinding.of(method("withRequest")).resolve(nullArgument));
+	}
+
+	@Test
+	public void noRequestNamesTheMethod() {
+		try {
+			RequestBinding.of(method("withoutRequest")).resolve(mock(JoinPoint.class));
+			fail("no request bound to the thread");
+		} catch (IllegalStateException expected) {
+			assertTrue(expected.getMessage(), expected.getMessage().contains("Handler.withoutRequest(java.lang.String)"));
+		}
+	}
+
+	private static Method method(String name) {
+		for (Method method : Handler.class.getMethods()) {
+			if (method.getName().equals(name)) {
+				return method;
+			}
+		}
+		throw new IllegalArgumentException(name);
+	}
+}
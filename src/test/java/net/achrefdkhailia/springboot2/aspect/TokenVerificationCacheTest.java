@@ -0,0 +1,78 @@
+package net.achrefdkhailia.springboot2.aspect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+
+public class TokenVerificationCacheTest {
+
+	private static final long MINUTE = TimeUnit.MINUTES.toNanos(1);
+	private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	private static final TokenDigest KEY = TokenDigest.of("k");
+
+	private final TokenVerificationCache.TokenExpiry expiry = new TokenVerificationCache.TokenExpiry(5 * MINUTE, 10 * SECOND);
+
+	@Test
+	public void entryExpiresAtTheTokenExpiryOrTheTtl() {
+		assertEquals(5 * MINUTE, expiry.expireAfterCreate(KEY, TokenVerification.authorized(Long.MAX_VALUE), 0));
+
+		long expiresIn = expiry.expireAfterCreate(KEY,
+				TokenVerification.authorized(System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(1)), 0);
+		assertTrue(expiresIn > 59 * SECOND && expiresIn <= MINUTE);
+
+		assertEquals(0, expiry.expireAfterCreate(KEY, TokenVerification.authorized(System.currentTimeMillis() - 1), 0));
+	}
+
+	@Test
+	public void deniedTokenIsOnlyCachedForTheNegativeTtl() {
+		assertEquals(10 * SECOND, expiry.expireAfterCreate(KEY, TokenVerification.denied(), 0));
+		assertEquals(10 * SECOND, expiry.expireAfterUpdate(KEY, TokenVerification.denied(), 0, 5 * MINUTE));
+	}
+
+	@Test
+	public void concurrentLookupsVerifyTheTokenOnce() throws Exception {
+		TokenVerificationCache cache = new TokenVerificationCache(100, Duration.ofMinutes(5), Duration.ofSeconds(10),
+				new SimpleMeterRegistry());
+		AtomicInteger verifications = new AtomicInteger();
+		CountDownLatch verifying = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			Future<?>[] lookups = new Future<?>[8];
+			for (int i = 0; i < lookups.length; i++) {
+				lookups[i] = executor.submit(() -> cache.get("token", token -> {
+					verifications.incrementAndGet();
+					verifying.countDown();
+					try {
+						release.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+					return TokenVerification.authorized(Long.MAX_VALUE);
+				}));
+			}
+			assertTrue(verifying.await(5, TimeUnit.SECONDS));
+			// let the other lookups reach the cache while the verification is running
+			Thread.sleep(100);
+			release.countDown();
+			for (Future<?> lookup : lookups) {
+				lookup.get(5, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		assertEquals(1, verifications.get());
+		assertTrue(cache.isAuthorized(TokenDigest.of("token")));
+	}
+}
@@ -0,0 +1,82 @@
+package net.achrefdkhailia.springboot2.audit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.achrefdkhailia.springboot2.aspect.TokenDigest;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.util.unit.DataSize;
+
+public class AuthorizationAuditLogTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void concurrentAppendsRotateSegmentsWithoutLosingRecords() throws Exception {
+		File directory = folder.getRoot();
+		// 100 records per segment
+		AuthorizationAuditLog auditLog = new AuthorizationAuditLog(directory.getPath(),
+				DataSize.ofBytes(100 * AuthorizationAuditLog.RECORD_SIZE), new SimpleMeterRegistry());
+		Method granted = getClass().getMethod("concurrentAppendsRotateSegmentsWithoutLosingRecords");
+		Method denied = Object.class.getMethod("toString");
+
+		List<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < 4; t++) {
+			threads.add(new Thread(() -> {
+				for (int i = 0; i < 500; i++) {
+					if (i % 5 == 0) {
+						auditLog.record(Object.class, denied, null, AuditOutcome.DENIED);
+					} else {
+						auditLog.record(getClass(), granted, TokenDigest.of("Bearer " + i), AuditOutcome.GRANTED);
+					}
+				}
+			}));
+		}
+		threads.forEach(Thread::start);
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		auditLog.force();
+
+		assertTrue(directory.list((dir, name) -> name.endsWith(AuthorizationAuditLog.SEGMENT_SUFFIX)).length >= 20);
+		AuditLogScanner scanner = new AuditLogScanner(directory.toPath());
+		assertEquals(2000, scanner.scan(Long.MIN_VALUE, Long.MAX_VALUE, null, null, record -> { }));
+
+		AtomicInteger mismatched = new AtomicInteger();
+		long deniedCount = scanner.scan(Long.MIN_VALUE, Long.MAX_VALUE, AuditOutcome.DENIED, "Object.toString", record -> {
+			if (!"Object.toString()".equals(record.getMethod()) || !record.getTokenDigest().equals("00000000000000000000000000000000")) {
+				mismatched.incrementAndGet();
+			}
+		});
+		assertEquals(400, deniedCount);
+		assertEquals(0, mismatched.get());
+		assertEquals(1600, scanner.scan(Long.MIN_VALUE, Long.MAX_VALUE, AuditOutcome.GRANTED, null, record -> { }));
+		assertEquals(0, scanner.scan(Long.MIN_VALUE, System.currentTimeMillis() - 60_000, null, null, record -> { }));
+	}
+
+	@Test
+	public void overloadsAreRecordedApart() throws Exception {
+		File directory = folder.getRoot();
+		AuthorizationAuditLog auditLog = new AuthorizationAuditLog(directory.getPath(), DataSize.ofKilobytes(4),
+				new SimpleMeterRegistry());
+		auditLog.record(String.class, String.class.getMethod("valueOf", int.class), null, AuditOutcome.GRANTED);
+		auditLog.record(String.class, String.class.getMethod("valueOf", long.class), null, AuditOutcome.GRANTED);
+		auditLog.record(String.class, String.class.getMethod("valueOf", long.class), null, AuditOutcome.GRANTED);
+		auditLog.force();
+
+		AuditLogScanner scanner = new AuditLogScanner(directory.toPath());
+		assertEquals(1, scanner.scan(Long.MIN_VALUE, Long.MAX_VALUE, null, "String.valueOf(int)", record -> { }));
+		assertEquals(2, scanner.scan(Long.MIN_VALUE, Long.MAX_VALUE, null, "String.valueOf(long)", record -> { }));
+		assertEquals(3, scanner.scan(Long.MIN_VALUE, Long.MAX_VALUE, null, "String.valueOf", record -> { }));
+	}
+}
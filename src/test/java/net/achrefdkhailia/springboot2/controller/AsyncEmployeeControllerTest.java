@@ -0,0 +1,95 @@
+package net.achrefdkhailia.springboot2.controller;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.achrefdkhailia.springboot2.exception.GlobalExceptionHandler;
+import net.achrefdkhailia.springboot2.service.EmployeeDbExecutor;
+import net.achrefdkhailia.springboot2.service.EmployeeService;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+public class AsyncEmployeeControllerTest {
+
+	private final EmployeeService employeeService = mock(EmployeeService.class);
+
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	private EmployeeDbExecutor executor;
+
+	@After
+	public void tearDown() throws InterruptedException {
+		release.countDown();
+		executor.shutdown();
+	}
+
+	@Test
+	public void callOverTheQueueCapacityIsTurnedAwayAtOnce() throws Exception {
+		MockMvc mockMvc = mockMvc(Duration.ofMinutes(1));
+		MvcResult running = start(mockMvc);
+		MvcResult queued = start(mockMvc);
+
+		MvcResult rejected = start(mockMvc);
+		mockMvc.perform(asyncDispatch(rejected))
+				.andExpect(status().isServiceUnavailable())
+				.andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"));
+
+		release.countDown();
+		mockMvc.perform(asyncDispatch(running)).andExpect(status().isOk());
+		mockMvc.perform(asyncDispatch(queued)).andExpect(status().isOk());
+	}
+
+	@Test
+	public void callQueuedPastTheTimeoutIsTurnedAway() throws Exception {
+		MockMvc mockMvc = mockMvc(Duration.ofMillis(100));
+		MvcResult running = start(mockMvc);
+		MvcResult queued = start(mockMvc);
+
+		Thread.sleep(300);
+		release.countDown();
+		mockMvc.perform(asyncDispatch(running)).andExpect(status().isOk());
+		mockMvc.perform(asyncDispatch(queued))
+				.andExpect(status().isServiceUnavailable())
+				.andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"));
+	}
+
+	/**
+	 * One database worker blocked until release, a queue of one.
+	 */
+	private MockMvc mockMvc(Duration queueTimeout) {
+		executor = new EmployeeDbExecutor(1, 1, queueTimeout, Duration.ofMillis(1500), new SimpleMeterRegistry());
+		when(employeeService.getCollectionVersion()).thenReturn("1");
+		when(employeeService.getEmployeesAfter(anyLong(), anyInt())).thenAnswer(invocation -> {
+			release.await(5, TimeUnit.SECONDS);
+			return Collections.emptyList();
+		});
+		AsyncEmployeeController controller = new AsyncEmployeeController();
+		ReflectionTestUtils.setField(controller, "employeeService", employeeService);
+		ReflectionTestUtils.setField(controller, "employeeDbExecutor", executor);
+		return MockMvcBuilders.standaloneSetup(controller).setControllerAdvice(new GlobalExceptionHandler()).build();
+	}
+
+	private static MvcResult start(MockMvc mockMvc) throws Exception {
+		return mockMvc.perform(get("/api/v1/async/employees?limit=10"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+	}
+}
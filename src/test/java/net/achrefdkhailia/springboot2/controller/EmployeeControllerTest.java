@@ -0,0 +1,139 @@
+package net.achrefdkhailia.springboot2.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.achrefdkhailia.springboot2.exception.GlobalExceptionHandler;
+import net.achrefdkhailia.springboot2.exception.InvalidRequestException;
+import net.achrefdkhailia.springboot2.exception.ResourceNotFoundException;
+import net.achrefdkhailia.springboot2.exception.VersionConflictException;
+import net.achrefdkhailia.springboot2.model.Employee;
+import net.achrefdkhailia.springboot2.model.EmployeePatch;
+import net.achrefdkhailia.springboot2.service.EmployeeService;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+public class EmployeeControllerTest {
+
+	private final EmployeeService employeeService = mock(EmployeeService.class);
+
+	private MockMvc mockMvc;
+
+	@Before
+	public void setUp() {
+		EmployeeController controller = new EmployeeController();
+		ReflectionTestUtils.setField(controller, "employeeService", employeeService);
+		mockMvc = MockMvcBuilders.standaloneSetup(controller).setControllerAdvice(new GlobalExceptionHandler()).build();
+		when(employeeService.getCollectionVersion()).thenReturn("1");
+	}
+
+	@Test
+	public void fullPageLinksToTheNextOne() throws Exception {
+		when(employeeService.getEmployeesAfter(10L, 3)).thenReturn(employees(11, 13));
+
+		mockMvc.perform(get("/api/v1/employees?after=10&limit=3"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(3))
+				.andExpect(header().string(HttpHeaders.LINK,
+						"<http://localhost/api/v1/employees?after=13&limit=3>; rel=\"next\""));
+	}
+
+	@Test
+	public void shortPageIsTheLastOne() throws Exception {
+		when(employeeService.getEmployeesAfter(13L, 3)).thenReturn(employees(14, 15));
+
+		mockMvc.perform(get("/api/v1/employees?after=13&limit=3"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(2))
+				.andExpect(header().doesNotExist(HttpHeaders.LINK));
+
+		when(employeeService.getEmployeesAfter(15L, 3)).thenReturn(new ArrayList<>());
+		mockMvc.perform(get("/api/v1/employees?after=15&limit=3"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(0))
+				.andExpect(header().doesNotExist(HttpHeaders.LINK));
+	}
+
+	@Test
+	public void nextLinkCarriesTheClampedLimit() throws Exception {
+		when(employeeService.getEmployeesAfter(0L, EmployeeController.MAX_PAGE_SIZE))
+				.thenReturn(employees(1, EmployeeController.MAX_PAGE_SIZE));
+
+		mockMvc.perform(get("/api/v1/employees?limit=5000&sort=id"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.LINK, "<http://localhost/api/v1/employees?sort=id&after="
+						+ EmployeeController.MAX_PAGE_SIZE + "&limit=" + EmployeeController.MAX_PAGE_SIZE
+						+ ">; rel=\"next\""));
+	}
+
+	@Test
+	public void patchBodyMarksTheFieldsItCarries() throws Exception {
+		mockMvc.perform(patch("/api/v1/employees/7").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"lastName\":null,\"version\":3}"))
+				.andExpect(status().isNoContent());
+
+		ArgumentCaptor<EmployeePatch> patch = ArgumentCaptor.forClass(EmployeePatch.class);
+		verify(employeeService).patchEmployee(eq(7L), patch.capture());
+		assertTrue(patch.getValue().isLastNameSet());
+		assertNull(patch.getValue().getLastName());
+		assertFalse(patch.getValue().isFirstNameSet());
+		assertFalse(patch.getValue().isEmailIdSet());
+		assertEquals(Long.valueOf(3), patch.getValue().getVersion());
+	}
+
+	@Test
+	public void patchFailuresMapToTheirStatus() throws Exception {
+		doThrow(new InvalidRequestException("empty")).when(employeeService).patchEmployee(eq(1L), any());
+		doThrow(new ResourceNotFoundException("unknown")).when(employeeService).patchEmployee(eq(2L), any());
+		doThrow(new VersionConflictException("stale")).when(employeeService).patchEmployee(eq(3L), any());
+
+		mockMvc.perform(patch("/api/v1/employees/1").contentType(MediaType.APPLICATION_JSON).content("{}"))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(patch("/api/v1/employees/2").contentType(MediaType.APPLICATION_JSON).content("{\"firstName\":\"a\"}"))
+				.andExpect(status().isNotFound());
+		mockMvc.perform(patch("/api/v1/employees/3").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"firstName\":\"a\",\"version\":1}"))
+				.andExpect(status().isConflict());
+	}
+
+	@Test
+	public void deleteOfAnUnknownIdIsNotFound() throws Exception {
+		when(employeeService.deleteEmployee(4L)).thenThrow(new ResourceNotFoundException("unknown"));
+
+		mockMvc.perform(delete("/api/v1/employees/4"))
+				.andExpect(status().isNotFound());
+	}
+
+	private static List<Employee> employees(long fromId, long toId) {
+		List<Employee> employees = new ArrayList<>();
+		for (long id = fromId; id <= toId; id++) {
+			Employee employee = new Employee("first" + id, "last" + id, null);
+			employee.setId(id);
+			employees.add(employee);
+		}
+		return employees;
+	}
+}
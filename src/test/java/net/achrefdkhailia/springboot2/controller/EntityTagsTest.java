@@ -0,0 +1,59 @@
+package net.achrefdkhailia.springboot2.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.Test;
+
+public class EntityTagsTest {
+
+	@Test
+	public void ifNoneMatchUsesTheWeakComparison() {
+		assertTrue(EntityTags.matches("\"7\"", "\"7\""));
+		assertTrue(EntityTags.matches("W/\"7\"", "\"7\""));
+		assertTrue(EntityTags.matches("\"5\", W/\"6\" ,\"7\"", "\"7\""));
+		assertTrue(EntityTags.matches("*", "\"7\""));
+		assertFalse(EntityTags.matches("\"5\", \"6\"", "\"7\""));
+		assertFalse(EntityTags.matches("7", "\"7\""));
+		assertFalse(EntityTags.matches("", "\"7\""));
+	}
+
+	@Test
+	public void ifMatchUsesTheStrongComparison() {
+		assertNull(EntityTags.versions("*"));
+		assertNull(EntityTags.versions("\"5\", *"));
+		assertEquals(new HashSet<>(Arrays.asList(5L, 7L)), EntityTags.versions("\"5\", W/\"6\",\"7\""));
+		// malformed or not ours: never matches
+		assertTrue(EntityTags.versions("7, \"\", \"abc\", \"7, \"").isEmpty());
+		assertTrue(EntityTags.versions("").isEmpty());
+	}
+
+	@Test
+	public void gzipRepresentationHasItsOwnStrongTag() {
+		assertEquals("\"7\"", EntityTags.of(7));
+		assertEquals("\"7-gzip\"", EntityTags.ofGzip(7));
+
+		assertEquals("\"7-gzip\"", EntityTags.matching("\"7-gzip\"", 7));
+		assertEquals("\"7\"", EntityTags.matching("\"6-gzip\", \"7\"", 7));
+		assertEquals("\"7\"", EntityTags.matching("*", 7));
+		assertNull(EntityTags.matching("\"6-gzip\", \"6\"", 7));
+		assertFalse(EntityTags.matches("\"7-gzip\"", EntityTags.of(7)));
+
+		assertEquals(new HashSet<>(Arrays.asList(7L, 8L)), EntityTags.versions("\"7-gzip\", \"8\""));
+	}
+
+	@Test
+	public void acceptsGzipUnlessRefused() {
+		assertTrue(EmployeeController.acceptsGzip("gzip"));
+		assertTrue(EmployeeController.acceptsGzip("deflate, GZIP;q=0.5"));
+		assertFalse(EmployeeController.acceptsGzip(null));
+		assertFalse(EmployeeController.acceptsGzip("deflate, br"));
+		assertFalse(EmployeeController.acceptsGzip("gzip;q=0"));
+		assertFalse(EmployeeController.acceptsGzip("gzip; q=0.000"));
+	}
+}
@@ -0,0 +1,42 @@
+package net.achrefdkhailia.springboot2.init;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+import javax.sql.DataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.Test;
+
+public class ConnectionPoolWarmUpTest {
+
+	@Test
+	public void opensTheMinimumIdleConnectionsAndReturnsThem() {
+		try (HikariDataSource pool = new HikariDataSource()) {
+			pool.setJdbcUrl("jdbc:h2:mem:warm-up;DB_CLOSE_DELAY=-1");
+			pool.setMinimumIdle(4);
+			pool.setMaximumPoolSize(8);
+
+			ConnectionPoolWarmUp warmUp = new ConnectionPoolWarmUp();
+			warmUp.dataSource = pool;
+			warmUp.afterSingletonsInstantiated();
+
+			HikariPoolMXBean mxBean = pool.getHikariPoolMXBean();
+			assertTrue(mxBean.getTotalConnections() >= 4);
+			assertEquals(0, mxBean.getActiveConnections());
+			assertEquals(mxBean.getTotalConnections(), mxBean.getIdleConnections());
+		}
+	}
+
+	@Test
+	public void otherDataSourcesAreLeftAlone() {
+		DataSource dataSource = mock(DataSource.class);
+		ConnectionPoolWarmUp warmUp = new ConnectionPoolWarmUp();
+		warmUp.dataSource = dataSource;
+		warmUp.afterSingletonsInstantiated();
+		verifyZeroInteractions(dataSource);
+	}
+}
@@ -0,0 +1,50 @@
+package net.achrefdkhailia.springboot2.init;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class EmployeeSeederTest {
+
+	private static final int ROWS = 1_000;
+
+	@Test
+	public void sameSeedGivesTheSameEmployeesWhateverTheIdsAndTheMode() throws Exception {
+		List<String> first = seed("seed-a", 0, EmployeeSeeder.Mode.JDBC_BATCH, 3);
+		// another database whose sequence is further, loaded with another mode
+		List<String> second = seed("seed-b", 5_000, EmployeeSeeder.Mode.CSV, 1);
+
+		assertEquals(ROWS, first.size());
+		assertEquals(first, second);
+	}
+
+	private static List<String> seed(String database, long sequenceStart, EmployeeSeeder.Mode mode, int threads)
+			throws Exception {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1");
+		JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+		jdbc.execute("create table employees (id bigint primary key, version bigint not null,"
+				+ " first_name varchar(255) not null, last_name varchar(255), email_address varchar(255))");
+		jdbc.execute("create sequence employees_seq start with " + (sequenceStart + 1));
+
+		EmployeeSeeder seeder = new EmployeeSeeder();
+		seeder.dataSource = dataSource;
+		ReflectionTestUtils.setField(seeder, "rows", (long) ROWS);
+		ReflectionTestUtils.setField(seeder, "randomSeed", 42L);
+		ReflectionTestUtils.setField(seeder, "mode", mode);
+		ReflectionTestUtils.setField(seeder, "threads", threads);
+		ReflectionTestUtils.setField(seeder, "batchSize", 100);
+		ReflectionTestUtils.setField(seeder, "progressInterval", Duration.ofMinutes(1));
+		seeder.seed();
+
+		List<String> employees = jdbc.queryForList(
+				"select first_name || ',' || last_name || ',' || email_address from employees order by id", String.class);
+		jdbc.execute("drop all objects");
+		return employees;
+	}
+}
@@ -0,0 +1,48 @@
+package net.achrefdkhailia.springboot2.logging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import net.achrefdkhailia.springboot2.model.Employee;
+import org.junit.Test;
+import org.springframework.http.ResponseEntity;
+
+public class LogRendererTest {
+
+	private final LogRenderer renderer = new LogRenderer(200, 3, 3, new String[] {"Employee.emailId"});
+
+	@Test
+	public void redactsConfiguredFields() {
+		Employee employee = new Employee("jhon", "doe", "jhon@mail.net");
+		employee.setId(7);
+		assertEquals("Employee[id=7, version=0, firstName=jhon, lastName=doe, emailId=***]", renderer.render(employee));
+		assertEquals("<200 OK, Optional[Employee[id=7, version=0, firstName=jhon, lastName=doe, emailId=***]]>",
+				renderer.render(ResponseEntity.ok(Optional.of(employee))));
+	}
+
+	@Test
+	public void boundsCollectionsDepthAndLength() {
+		List<Integer> numbers = new ArrayList<>();
+		for (int i = 0; i < 100_000; i++) {
+			numbers.add(i);
+		}
+		assertEquals("[0, 1, 2, ... (99997 more)]", renderer.render(numbers));
+		assertEquals("[[[[{...}]]]]", renderer.renderArguments(new Object[] {Collections.singletonList(
+				Collections.singletonList(Collections.singletonList(Collections.singletonList(1))))}));
+
+		StringBuilder longText = new StringBuilder();
+		for (int i = 0; i < 1000; i++) {
+			longText.append("0123456789");
+		}
+		String rendered = renderer.render(longText.toString());
+		assertEquals(203, rendered.length());
+		assertTrue(rendered.endsWith("9..."));
+		assertEquals("0123...", renderer.render(longText.toString(), 4));
+		assertEquals("[byte[12], null]", renderer.renderArguments(new Object[] {new byte[12], null}));
+	}
+}
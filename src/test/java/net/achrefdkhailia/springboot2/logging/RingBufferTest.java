@@ -0,0 +1,63 @@
+package net.achrefdkhailia.springboot2.logging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+public class RingBufferTest {
+
+	@Test
+	public void capacityIsRoundedUpToAPowerOfTwo() {
+		assertEquals(8, new RingBuffer<Integer>(5).capacity());
+		assertEquals(1, new RingBuffer<Integer>(1).capacity());
+	}
+
+	@Test
+	public void offerFailsWhenFullAndDrainKeepsOrder() {
+		RingBuffer<Integer> buffer = new RingBuffer<>(4);
+		for (int i = 0; i < 4; i++) {
+			assertTrue(buffer.offer(i));
+		}
+		assertFalse(buffer.offer(4));
+
+		List<Integer> drained = new ArrayList<>();
+		assertEquals(3, buffer.drain(drained::add, 3));
+		assertTrue(buffer.offer(4));
+		assertEquals(2, buffer.drain(drained::add, 10));
+		assertEquals(Arrays.asList(0, 1, 2, 3, 4), drained);
+		assertEquals(0, buffer.size());
+	}
+
+	@Test
+	public void concurrentProducersLoseNothing() throws InterruptedException {
+		final int producers = 4;
+		final int perProducer = 20_000;
+		RingBuffer<Integer> buffer = new RingBuffer<>(64);
+		CountDownLatch done = new CountDownLatch(producers);
+		for (int p = 0; p < producers; p++) {
+			new Thread(() -> {
+				for (int i = 0; i < perProducer; i++) {
+					while (!buffer.offer(i)) {
+						Thread.yield();
+					}
+				}
+				done.countDown();
+			}).start();
+		}
+
+		long[] sum = new long[1];
+		int received = 0;
+		while (received < producers * perProducer) {
+			received += buffer.drain(e -> sum[0] += e, 128);
+		}
+		done.await();
+		assertEquals(producers * ((long) perProducer * (perProducer - 1) / 2), sum[0]);
+	}
+}
@@ -0,0 +1,76 @@
+package net.achrefdkhailia.springboot2.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+	private static final long MAX_VALUE = TimeUnit.SECONDS.toNanos(60);
+
+	@Test
+	public void indexAndLowestValueAreInverses() {
+		for (int i = 0; i <= LatencyHistogram.index(MAX_VALUE); i++) {
+			assertEquals(i, LatencyHistogram.index(LatencyHistogram.lowestValue(i)));
+		}
+		for (long power = 64; power <= MAX_VALUE; power <<= 1) {
+			for (long value : new long[] {power - 1, power, power + 1}) {
+				int index = LatencyHistogram.index(value);
+				assertTrue(value + " below its bucket", LatencyHistogram.lowestValue(index) <= value);
+				assertTrue(value + " above its bucket", value < LatencyHistogram.lowestValue(index + 1));
+			}
+			assertEquals(power, LatencyHistogram.lowestValue(LatencyHistogram.index(power)));
+			assertEquals(LatencyHistogram.index(power - 1) + 1, LatencyHistogram.index(power));
+		}
+	}
+
+	@Test
+	public void valuesAreClamped() {
+		for (int value = 0; value < 64; value++) {
+			assertEquals(value, LatencyHistogram.index(value));
+		}
+		LatencyHistogram small = new LatencyHistogram();
+		small.record(-5);
+		small.record(37);
+		assertEquals(0, small.valueAtQuantile(0.5));
+		assertEquals(37, small.valueAtQuantile(1));
+
+		LatencyHistogram large = new LatencyHistogram();
+		large.record(Long.MAX_VALUE);
+		large.record(TimeUnit.MINUTES.toNanos(5));
+		assertEquals(MAX_VALUE, large.maxNanos());
+		assertEquals(MAX_VALUE, large.valueAtQuantile(0.999));
+		assertEquals(2.0 * MAX_VALUE, large.totalNanos(), 0);
+	}
+
+	@Test
+	public void percentilesAreWithinTheBucketPrecision() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		// 1us to 100ms, uniform
+		int n = 100_000;
+		for (int i = 1; i <= n; i++) {
+			histogram.record(i * 1_000L);
+		}
+		assertEquals(n, histogram.count());
+		for (double quantile : new double[] {0.5, 0.99, 0.999}) {
+			long exact = (long) Math.ceil(quantile * n) * 1_000L;
+			long reported = histogram.valueAtQuantile(quantile);
+			assertTrue(quantile + ": " + reported + " below " + exact, reported >= exact);
+			assertTrue(quantile + ": " + reported + " vs " + exact, reported - exact <= exact * 0.016);
+		}
+	}
+
+	@Test
+	public void maxCapsTheTopBucket() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(1_000);
+		histogram.record(100_000_001);
+		// the bucket of 100_000_001 is 2^20 wide and ends at 100_663_295
+		assertEquals(100_663_295, LatencyHistogram.lowestValue(LatencyHistogram.index(100_000_001) + 1) - 1);
+		assertEquals(100_000_001, histogram.valueAtQuantile(1));
+		assertEquals(100_000_001, histogram.maxNanos());
+	}
+}
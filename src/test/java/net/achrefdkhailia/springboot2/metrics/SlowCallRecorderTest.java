@@ -0,0 +1,44 @@
+package net.achrefdkhailia.springboot2.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import net.achrefdkhailia.springboot2.logging.LogRenderer;
+import org.aspectj.lang.JoinPoint;
+import org.junit.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+public class SlowCallRecorderTest {
+
+	private static final LogRenderer RENDERER = new LogRenderer(1000, 10, 3, new String[0]);
+
+	@Test
+	public void keepsTheSlowestCallsSlowestFirst() {
+		SlowCallRecorder recorder = new SlowCallRecorder(new MockEnvironment(), Duration.ofMillis(100), 3, false, 5, RENDERER);
+		JoinPoint joinPoint = mock(JoinPoint.class);
+		when(joinPoint.getArgs()).thenReturn(new Object[] {"0123456789", null});
+		for (long millis : new long[] {300, 100, 500, 200, 400, 150}) {
+			recorder.capture("EmployeeService.getEmployeeById(Long)", joinPoint, millis * 1_000_000);
+		}
+		List<Double> kept = recorder.slowest().stream().map(SlowCallRecorder.SlowCall::getMillis).collect(Collectors.toList());
+		assertEquals(Arrays.asList(500d, 400d, 300d), kept);
+		assertEquals(Arrays.asList("01234...", "null"), recorder.slowest().get(0).getArguments());
+
+		recorder.clear();
+		assertEquals(0, recorder.slowest().size());
+	}
+
+	@Test
+	public void thresholdCanBeSetPerMethod() {
+		MockEnvironment environment = new MockEnvironment().withProperty("slow-calls.thresholds.EmployeeService.createEmployee", "1s");
+		SlowCallRecorder recorder = new SlowCallRecorder(environment, Duration.ofMillis(100), 3, false, 200, RENDERER);
+		assertEquals(1_000_000_000L, recorder.thresholdNanos("EmployeeService.createEmployee(Employee)"));
+		assertEquals(100_000_000L, recorder.thresholdNanos("EmployeeService.updateEmployee(Long,Employee)"));
+	}
+}
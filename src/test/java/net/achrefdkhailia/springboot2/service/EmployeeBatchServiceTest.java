@@ -0,0 +1,143 @@
+package net.achrefdkhailia.springboot2.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import net.achrefdkhailia.springboot2.exception.BatchTooLargeException;
+import net.achrefdkhailia.springboot2.model.BatchItemResult;
+import net.achrefdkhailia.springboot2.model.BatchItemResult.Status;
+import net.achrefdkhailia.springboot2.model.Employee;
+import net.achrefdkhailia.springboot2.repository.EmployeeRepository;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@ContextConfiguration(classes = EmployeeBatchServiceTest.Config.class)
+@TestPropertySource(properties = {"employees.batch.chunk-size=3", "employees.batch.max-items=10"})
+// the service runs its own transaction per chunk
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class EmployeeBatchServiceTest {
+
+	@Autowired
+	private EmployeeBatchService batchService;
+
+	@Autowired
+	private EmployeeRepository employeeRepository;
+
+	@MockBean
+	private EmployeeCache employeeCache;
+
+	@MockBean
+	private EmployeeSearchIndex employeeSearchIndex;
+
+	@MockBean
+	private EmployeeCollectionVersion employeeCollectionVersion;
+
+	@MockBean
+	private EmployeeJsonCache employeeJsonCache;
+
+	@After
+	public void tearDown() {
+		employeeRepository.deleteAllInBatch();
+	}
+
+	@Test
+	public void failedChunkIsReplayedItemByItem() {
+		// the column is a varchar(255), the row passes the validation and fails in the database
+		String tooLong = String.join("", Collections.nCopies(300, "x"));
+		List<BatchItemResult> results = batchService.createEmployees(Arrays.asList(
+				new Employee("a", "a", "a@x"),
+				new Employee("b", "b", tooLong),
+				new Employee("c", "c", "c@x"),
+				new Employee(null, "d", "d@x"),
+				new Employee("e", "e", "e@x"),
+				new Employee("f", "f", "f@x")));
+
+		assertEquals(Arrays.asList(Status.CREATED, Status.FAILED, Status.CREATED, Status.INVALID, Status.CREATED,
+				Status.CREATED), statuses(results));
+		assertEquals("The item could not be written", results.get(1).getMessage());
+		assertEquals("firstName must not be null", results.get(3).getMessage());
+		assertEquals(Arrays.asList("a", "c", "e", "f"), employeeRepository.findAll().stream()
+				.map(Employee::getFirstName).sorted().collect(Collectors.toList()));
+		for (int i : new int[] {0, 2, 4, 5}) {
+			assertTrue(employeeRepository.existsById(results.get(i).getId()));
+		}
+		verify(employeeCache, atLeastOnce()).invalidateAll(any());
+		verify(employeeCollectionVersion, atLeastOnce()).increment();
+	}
+
+	@Test
+	public void updatesReportUnknownIds() {
+		Employee existing = employeeRepository.save(new Employee("a", "a", "a@x"));
+		Employee update = new Employee("b", "b", "b@x");
+		update.setId(existing.getId());
+		Employee unknown = new Employee("c", "c", "c@x");
+		unknown.setId(existing.getId() + 1_000);
+
+		List<BatchItemResult> results = batchService.updateEmployees(Arrays.asList(update, unknown, new Employee("d")));
+
+		assertEquals(Arrays.asList(Status.UPDATED, Status.NOT_FOUND, Status.INVALID), statuses(results));
+		Employee updated = employeeRepository.findById(existing.getId()).get();
+		assertEquals("b", updated.getFirstName());
+		assertEquals(existing.getVersion() + 1, updated.getVersion());
+	}
+
+	@Test
+	public void duplicateDeleteIdIsDeletedOnce() {
+		long a = employeeRepository.save(new Employee("a")).getId();
+		long b = employeeRepository.save(new Employee("b")).getId();
+		long c = employeeRepository.save(new Employee("c")).getId();
+
+		// chunks of three: [a, a, b] [c, a, unknown]
+		List<BatchItemResult> results = batchService.deleteEmployees(Arrays.asList(a, a, b, null, c, a, c + 1_000));
+
+		assertEquals(Arrays.asList(Status.DELETED, Status.NOT_FOUND, Status.DELETED, Status.INVALID, Status.DELETED,
+				Status.NOT_FOUND, Status.NOT_FOUND), statuses(results));
+		assertEquals(0, employeeRepository.count());
+	}
+
+	@Test(expected = BatchTooLargeException.class)
+	public void batchOverMaxItemsIsRefused() {
+		List<Long> ids = new ArrayList<>();
+		for (long id = 1; id <= 11; id++) {
+			ids.add(id);
+		}
+		batchService.deleteEmployees(ids);
+	}
+
+	/**
+	 * Not a @Configuration, the application's component scan would pick it up.
+	 */
+	@EntityScan(basePackageClasses = Employee.class)
+	@EnableJpaRepositories(basePackageClasses = EmployeeRepository.class)
+	@Import({EmployeeBatchService.class, LocalValidatorFactoryBean.class})
+	public static class Config {
+	}
+
+	private static List<Status> statuses(List<BatchItemResult> results) {
+		return results.stream().map(BatchItemResult::getStatus).collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,74 @@
+package net.achrefdkhailia.springboot2.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.achrefdkhailia.springboot2.model.Employee;
+import net.achrefdkhailia.springboot2.repository.EmployeeRepository;
+import org.junit.Test;
+
+public class EmployeeCacheTest {
+
+	private final EmployeeRepository repository = mock(EmployeeRepository.class);
+
+	private final EmployeeCache cache = new EmployeeCache(repository, 100, Duration.ofMinutes(10), Duration.ofMillis(200),
+			new SimpleMeterRegistry());
+
+	@Test
+	public void unknownIdIsRememberedForTheNegativeTtl() throws InterruptedException {
+		when(repository.findById(1L)).thenReturn(Optional.of(employee(1, 0)));
+		when(repository.findById(2L)).thenReturn(Optional.empty());
+
+		assertTrue(cache.get(1).isPresent());
+		assertFalse(cache.get(2).isPresent());
+		assertFalse(cache.get(2).isPresent());
+		assertFalse(cache.cachedVersion(2).isPresent());
+		verify(repository, times(1)).findById(2L);
+
+		Thread.sleep(500);
+		assertFalse(cache.get(2).isPresent());
+		verify(repository, times(2)).findById(2L);
+		assertTrue(cache.get(1).isPresent());
+		verify(repository, times(1)).findById(1L);
+	}
+
+	@Test
+	public void invalidationReloadsTheEmployee() {
+		when(repository.findById(1L)).thenReturn(Optional.of(employee(1, 0)), Optional.of(employee(1, 1)));
+
+		assertEquals(0L, (long) cache.get(1).get().getVersion());
+		assertEquals(Optional.of(0L), cache.cachedVersion(1));
+
+		cache.invalidate(1);
+		assertFalse(cache.cachedVersion(1).isPresent());
+		assertEquals(1L, (long) cache.get(1).get().getVersion());
+		verify(repository, times(2)).findById(1L);
+	}
+
+	@Test
+	public void callersGetCopies() {
+		when(repository.findById(1L)).thenReturn(Optional.of(employee(1, 0)));
+
+		Employee employee = cache.get(1).get();
+		employee.setFirstName("changed");
+		assertNotSame(employee, cache.get(1).get());
+		assertEquals("first1", cache.get(1).get().getFirstName());
+	}
+
+	private static Employee employee(long id, long version) {
+		Employee employee = new Employee("first" + id, "last" + id, null);
+		employee.setId(id);
+		employee.setVersion(version);
+		return employee;
+	}
+}
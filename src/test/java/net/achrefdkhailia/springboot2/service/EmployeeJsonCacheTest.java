@@ -0,0 +1,71 @@
+package net.achrefdkhailia.springboot2.service;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.achrefdkhailia.springboot2.model.Employee;
+import net.achrefdkhailia.springboot2.service.EmployeeJsonCache.EncodedEmployee;
+import org.junit.Test;
+
+public class EmployeeJsonCacheTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private final EmployeeJsonCache cache = new EmployeeJsonCache(objectMapper, true, true, 100, new SimpleMeterRegistry());
+
+	@Test
+	public void bodiesAreTheMessageConverterBytes() throws IOException {
+		Employee employee = employee(1, 3);
+		EncodedEmployee encoded = cache.encode(employee);
+
+		byte[] json = objectMapper.writeValueAsBytes(employee);
+		assertArrayEquals(json, encoded.getJson());
+		assertNotNull(encoded.getGzip());
+		assertArrayEquals(json, gunzip(encoded.getGzip()));
+	}
+
+	@Test
+	public void writesEvictTheEncodedVersion() {
+		EncodedEmployee encoded = cache.encode(employee(1, 3));
+		assertSame(encoded, cache.encode(employee(1, 3)));
+
+		cache.invalidate(1);
+		assertNotSame(encoded, cache.encode(employee(1, 3)));
+
+		EncodedEmployee newer = cache.encode(employee(1, 4));
+		assertEquals(4, newer.getVersion());
+		// a slower reader encoding the previous version does not replace the newer one
+		cache.encode(employee(1, 3));
+		assertSame(newer, cache.encode(employee(1, 4)));
+	}
+
+	private static Employee employee(long id, long version) {
+		Employee employee = new Employee("firstname-" + id, "lastname-with-enough-text-to-compress-" + id,
+				"firstname-" + id + ".lastname-with-enough-text-to-compress-" + id + "@example.com");
+		employee.setId(id);
+		employee.setVersion(version);
+		return employee;
+	}
+
+	private static byte[] gunzip(byte[] gzip) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+			byte[] buffer = new byte[256];
+			for (int read; (read = in.read(buffer)) > 0; ) {
+				bytes.write(buffer, 0, read);
+			}
+		}
+		return bytes.toByteArray();
+	}
+}
@@ -0,0 +1,84 @@
+package net.achrefdkhailia.springboot2.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.achrefdkhailia.springboot2.model.Employee;
+import net.achrefdkhailia.springboot2.model.EmployeeSearchField;
+import net.achrefdkhailia.springboot2.repository.EmployeeRepository;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+public class EmployeeSearchIndexTest {
+
+	private final EmployeeSearchIndex index = new EmployeeSearchIndex(true, new SimpleMeterRegistry());
+
+	@Test
+	public void updateMovesTheEmployeeInTheViewsOfTheChangedFields() {
+		index.put(employee(1, 0, "ada", "lovelace"));
+		index.put(employee(1, 1, "ada", "byron"));
+
+		assertEquals(Arrays.asList(1L), ids(EmployeeSearchField.FIRST_NAME, "ada"));
+		assertEquals("byron", index.search(EmployeeSearchField.FIRST_NAME, "ada", false, 10).get(0).getLastName());
+		assertEquals(Arrays.asList(1L), ids(EmployeeSearchField.LAST_NAME, "byron"));
+		assertTrue(ids(EmployeeSearchField.LAST_NAME, "lovelace").isEmpty());
+
+		// an older version arriving late is ignored
+		index.put(employee(1, 0, "ada", "lovelace"));
+		assertTrue(ids(EmployeeSearchField.LAST_NAME, "lovelace").isEmpty());
+
+		index.remove(1);
+		assertTrue(ids(EmployeeSearchField.FIRST_NAME, "ada").isEmpty());
+	}
+
+	@Test
+	public void employeeRemovedDuringTheBuildIsNotAddedBack() {
+		EmployeeRepository repository = mock(EmployeeRepository.class);
+		// the cursor reads employee 2 after its deletion was committed and removed from the index
+		when(repository.streamAll()).thenAnswer(invocation -> Arrays.asList(employee(1, 0, "ada", "lovelace"),
+				employee(2, 0, "alan", "turing"), employee(3, 0, "grace", "hopper")).stream()
+				.peek(employee -> {
+					if (employee.getId() == 1) {
+						index.remove(2);
+					}
+				}));
+		TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+		when(transactionTemplate.execute(any())).thenAnswer(
+				invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+		ReflectionTestUtils.setField(index, "employeeRepository", repository);
+		ReflectionTestUtils.setField(index, "transactionTemplate", transactionTemplate);
+		ReflectionTestUtils.setField(index, "entityManager", mock(EntityManager.class));
+
+		index.build();
+
+		assertTrue(index.isReady());
+		assertEquals(Arrays.asList(1L), ids(EmployeeSearchField.FIRST_NAME, "a"));
+		assertEquals(Arrays.asList(3L), ids(EmployeeSearchField.FIRST_NAME, "grace"));
+		// once built, the id is no longer remembered
+		index.put(employee(2, 1, "alan", "turing"));
+		assertEquals(Arrays.asList(1L, 2L), ids(EmployeeSearchField.FIRST_NAME, "a"));
+	}
+
+	private List<Long> ids(EmployeeSearchField field, String prefix) {
+		return index.search(field, prefix, true, 10).stream().map(Employee::getId).collect(Collectors.toList());
+	}
+
+	private static Employee employee(long id, long version, String firstName, String lastName) {
+		Employee employee = new Employee(firstName, lastName, firstName + "@example.com");
+		employee.setId(id);
+		employee.setVersion(version);
+		return employee;
+	}
+}
@@ -0,0 +1,147 @@
+package net.achrefdkhailia.springboot2.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import net.achrefdkhailia.springboot2.exception.InvalidRequestException;
+import net.achrefdkhailia.springboot2.exception.ResourceNotFoundException;
+import net.achrefdkhailia.springboot2.exception.VersionConflictException;
+import net.achrefdkhailia.springboot2.model.Employee;
+import net.achrefdkhailia.springboot2.model.EmployeePatch;
+import net.achrefdkhailia.springboot2.repository.EmployeeRepository;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@ContextConfiguration(classes = EmployeeServiceTest.Config.class)
+// the repository runs its own transactions
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class EmployeeServiceTest {
+
+	@Autowired
+	private EmployeeService employeeService;
+
+	@Autowired
+	private EmployeeRepository employeeRepository;
+
+	@MockBean
+	private EmployeeCache employeeCache;
+
+	@MockBean
+	private EmployeeSearchIndex employeeSearchIndex;
+
+	@MockBean
+	private EmployeeCollectionVersion employeeCollectionVersion;
+
+	@MockBean
+	private EmployeeJsonCache employeeJsonCache;
+
+	@After
+	public void tearDown() {
+		employeeRepository.deleteAllInBatch();
+	}
+
+	@Test
+	public void patchWritesOnlyThePresentFields() throws Exception {
+		Employee employee = employeeRepository.save(new Employee("first", "last", "mail@x"));
+		EmployeePatch patch = new EmployeePatch();
+		patch.setLastName(null);
+		patch.setEmailId("other@x");
+
+		employeeService.patchEmployee(employee.getId(), patch);
+
+		Employee patched = employeeRepository.findById(employee.getId()).get();
+		assertEquals("first", patched.getFirstName());
+		assertNull(patched.getLastName());
+		assertEquals("other@x", patched.getEmailId());
+		assertEquals(employee.getVersion() + 1, patched.getVersion());
+	}
+
+	@Test
+	public void patchAtAStaleVersionIsAConflict() throws Exception {
+		Employee employee = employeeRepository.save(new Employee("first", "last", "mail@x"));
+		EmployeePatch patch = new EmployeePatch();
+		patch.setFirstName("second");
+		patch.setVersion(employee.getVersion());
+		employeeService.patchEmployee(employee.getId(), patch);
+
+		try {
+			employeeService.patchEmployee(employee.getId(), patch);
+			fail("the employee is no longer at version " + employee.getVersion());
+		} catch (VersionConflictException expected) {
+		}
+		try {
+			employeeService.patchEmployee(employee.getId() + 1_000, patch);
+			fail("unknown id");
+		} catch (ResourceNotFoundException expected) {
+		}
+		assertEquals(employee.getVersion() + 1, employeeRepository.findById(employee.getId()).get().getVersion());
+	}
+
+	@Test
+	public void patchWithoutVersionOfAnUnknownIdIsNotFound() throws Exception {
+		EmployeePatch patch = new EmployeePatch();
+		patch.setFirstName("first");
+		try {
+			employeeService.patchEmployee(1_000L, patch);
+			fail("unknown id");
+		} catch (ResourceNotFoundException expected) {
+		}
+	}
+
+	@Test
+	public void emptyPatchAndNullFirstNameAreInvalid() throws Exception {
+		Employee employee = employeeRepository.save(new Employee("first", "last", "mail@x"));
+		EmployeePatch empty = new EmployeePatch();
+		empty.setVersion(employee.getVersion());
+		try {
+			employeeService.patchEmployee(employee.getId(), empty);
+			fail("nothing to update");
+		} catch (InvalidRequestException expected) {
+		}
+		EmployeePatch nullFirstName = new EmployeePatch();
+		nullFirstName.setFirstName(null);
+		try {
+			employeeService.patchEmployee(employee.getId(), nullFirstName);
+			fail("firstName is required");
+		} catch (InvalidRequestException expected) {
+		}
+		assertEquals(employee.getVersion(), employeeRepository.findById(employee.getId()).get().getVersion());
+	}
+
+	@Test
+	public void deleteOfAnUnknownIdIsNotFound() throws Exception {
+		long id = employeeRepository.save(new Employee("first")).getId();
+
+		assertEquals(Boolean.TRUE, employeeService.deleteEmployee(id).get("deleted"));
+		assertFalse(employeeRepository.existsById(id));
+		try {
+			employeeService.deleteEmployee(id);
+			fail("already deleted");
+		} catch (ResourceNotFoundException expected) {
+		}
+	}
+
+	/**
+	 * Not a @Configuration, the application's component scan would pick it up.
+	 */
+	@EntityScan(basePackageClasses = Employee.class)
+	@EnableJpaRepositories(basePackageClasses = EmployeeRepository.class)
+	@Import(EmployeeService.class)
+	public static class Config {
+	}
+}
@@ -0,0 +1,38 @@
+package net.achrefdkhailia.springboot2.startup;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import net.achrefdkhailia.springboot2.init.ConnectionPoolWarmUp;
+import org.junit.Test;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.BeanDefinitionBuilder;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+public class FastStartConfigurationTest {
+
+	@Test
+	public void onlyPlainSingletonsBecomeLazy() {
+		DefaultListableBeanFactory factory = new DefaultListableBeanFactory();
+		factory.registerBeanDefinition("plain", BeanDefinitionBuilder.genericBeanDefinition(Object.class)
+				.getBeanDefinition());
+		factory.registerBeanDefinition("infrastructure", BeanDefinitionBuilder.genericBeanDefinition(Object.class)
+				.setRole(BeanDefinition.ROLE_INFRASTRUCTURE).getBeanDefinition());
+		factory.registerBeanDefinition("prototype", BeanDefinitionBuilder.genericBeanDefinition(Object.class)
+				.setScope(BeanDefinition.SCOPE_PROTOTYPE).getBeanDefinition());
+		factory.registerBeanDefinition("warmUp", BeanDefinitionBuilder.genericBeanDefinition(ConnectionPoolWarmUp.class)
+				.getBeanDefinition());
+		AbstractBeanDefinition produced = BeanDefinitionBuilder.genericBeanDefinition()
+				.setFactoryMethodOnBean("create", "plain").getBeanDefinition();
+		factory.registerBeanDefinition("produced", produced);
+
+		FastStartConfiguration.lazyInitialization().postProcessBeanFactory(factory);
+
+		assertTrue(factory.getBeanDefinition("plain").isLazyInit());
+		assertTrue(factory.getBeanDefinition("produced").isLazyInit());
+		assertFalse(factory.getBeanDefinition("infrastructure").isLazyInit());
+		assertFalse(factory.getBeanDefinition("prototype").isLazyInit());
+		assertFalse(factory.getBeanDefinition("warmUp").isLazyInit());
+	}
+}
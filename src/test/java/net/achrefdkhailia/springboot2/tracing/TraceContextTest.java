@@ -0,0 +1,66 @@
+package net.achrefdkhailia.springboot2.tracing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.slf4j.MDC;
+
+public class TraceContextTest {
+
+	private static final String TRACEPARENT = "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01";
+
+	@Test
+	public void continuesTheTraceOfTheHeader() {
+		TraceContext context = TraceContext.current();
+		context.start(TRACEPARENT, 0);
+		assertTrue(context.isSampled());
+		assertEquals("4bf92f3577b34da6a3ce929d0e0e4736", context.traceId());
+
+		long spanId = context.enter();
+		assertNotEquals(0, spanId);
+		assertEquals(0x00f067aa0ba902b7L, context.parentId());
+		assertEquals("4bf92f3577b34da6a3ce929d0e0e4736", MDC.get(TraceContext.MDC_TRACE_ID));
+		assertEquals(TraceContext.hex(spanId), MDC.get(TraceContext.MDC_SPAN_ID));
+
+		long childId = context.enter();
+		assertEquals(spanId, context.parentId());
+		assertEquals("00-4bf92f3577b34da6a3ce929d0e0e4736-" + TraceContext.hex(childId) + "-01", context.traceparent());
+		context.exit();
+		assertEquals(TraceContext.hex(spanId), MDC.get(TraceContext.MDC_SPAN_ID));
+
+		context.exit();
+		assertTrue(context.isIdle());
+		assertFalse(context.isSampled());
+		assertNull(MDC.get(TraceContext.MDC_TRACE_ID));
+	}
+
+	@Test
+	public void unsampledTraceOpensNoSpan() {
+		TraceContext context = TraceContext.current();
+		context.start(TRACEPARENT.replace("-01", "-00"), 1);
+		assertFalse(context.isSampled());
+		assertEquals(0, context.enter());
+		context.exit();
+
+		context.start(null, 0);
+		assertEquals(0, context.enter());
+		assertNull(MDC.get(TraceContext.MDC_TRACE_ID));
+		context.exit();
+		assertTrue(context.isIdle());
+	}
+
+	@Test
+	public void invalidHeaderIsSampledAtTheRate() {
+		TraceContext context = TraceContext.current();
+		context.start("00-00000000000000000000000000000000-00f067aa0ba902b7-01", 1);
+		assertTrue(context.isSampled());
+		assertNotEquals("00000000000000000000000000000000", context.traceId());
+		assertNotEquals(0, context.enter());
+		assertEquals(0, context.parentId());
+		context.exit();
+	}
+}
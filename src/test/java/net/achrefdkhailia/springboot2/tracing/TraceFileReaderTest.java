@@ -0,0 +1,62 @@
+package net.achrefdkhailia.springboot2.tracing;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TraceFileReaderTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void recordCutOffAtTheEndIsIgnored() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(TraceRecorder.MAGIC);
+		writeName(out, 0, "EmployeeController.getAllEmployees()");
+		writeSpan(out, 1, 0, 0);
+		int oneSpan = out.size();
+		writeName(out, 1, "EmployeeService.getAllEmployees()");
+		writeSpan(out, 2, 1, 1);
+		byte[] content = bytes.toByteArray();
+
+		// cut anywhere, in a name as well as in a span
+		File file = folder.newFile("traces.bin");
+		for (int length = 4; length <= content.length; length++) {
+			Files.write(file.toPath(), Arrays.copyOf(content, length));
+			int expected = length == content.length ? 2 : length >= oneSpan ? 1 : 0;
+			Map<String, List<TraceFileReader.SpanRecord>> traces = TraceFileReader.read(file.getPath());
+			assertEquals("cut at " + length, expected, traces.values().stream().mapToInt(List::size).sum());
+		}
+	}
+
+	private static void writeName(DataOutputStream out, int id, String name) throws IOException {
+		out.writeByte(TraceRecorder.NAME);
+		out.writeInt(id);
+		out.writeUTF(name);
+	}
+
+	private static void writeSpan(DataOutputStream out, long spanId, long parentId, int nameId) throws IOException {
+		out.writeByte(TraceRecorder.SPAN);
+		out.writeLong(1);
+		out.writeLong(2);
+		out.writeLong(spanId);
+		out.writeLong(parentId);
+		out.writeLong(1_000_000);
+		out.writeLong(500_000);
+		out.writeInt(nameId);
+		out.writeBoolean(false);
+	}
+}
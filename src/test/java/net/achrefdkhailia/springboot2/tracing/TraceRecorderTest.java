@@ -0,0 +1,50 @@
+package net.achrefdkhailia.springboot2.tracing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TraceRecorderTest {
+
+	private static final String TRACE_ID = "00000000000000ab00000000000000cd";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void writtenSpansReadBackAsAWaterfall() throws Exception {
+		File file = new File(folder.getRoot(), "traces.bin");
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		TraceRecorder recorder = new TraceRecorder(file, 1.0, 64, 8, meterRegistry);
+		recorder.start();
+		recorder.record(new Span(0xab, 0xcd, 1, 0, 1_000_000, 10_000_000, "EmployeeController.getEmployeeById(Long)", false));
+		recorder.record(new Span(0xab, 0xcd, 2, 1, 1_002_000, 5_000_000, "EmployeeService.getEmployeeById(Long)", true));
+		recorder.record(new Span(0xab, 0xcd, 3, 2, 1_003_000, 2_000_000, "EmployeeRepository.findById(Object)", false));
+		recorder.stop();
+
+		Map<String, List<TraceFileReader.SpanRecord>> traces = TraceFileReader.read(file.getPath());
+		assertEquals(1, traces.size());
+		assertEquals(3, traces.get(TRACE_ID).size());
+		assertEquals(0, meterRegistry.get("tracing.spans.dropped").functionCounter().count(), 0);
+
+		ByteArrayOutputStream printed = new ByteArrayOutputStream();
+		TraceFileReader.print(new PrintStream(printed, true, "UTF-8"), TRACE_ID, traces.get(TRACE_ID));
+		String[] lines = new String(printed.toByteArray(), StandardCharsets.UTF_8).split("\\R");
+		// the durations are printed in the default locale
+		assertTrue(lines[0], lines[0].matches("trace " + TRACE_ID + "  10[.,]000 ms  .*"));
+		assertTrue(lines[1], lines[1].matches(" +0[.,]000 +10[.,]000 \\|#{40}\\| EmployeeController\\.getEmployeeById\\(Long\\)"));
+		assertTrue(lines[2], lines[2].matches(" +2[.,]000 +5[.,]000 \\| {8}#{20} {12}\\|   EmployeeService\\.getEmployeeById\\(Long\\) !"));
+		assertTrue(lines[3], lines[3].endsWith("|     EmployeeRepository.findById(Object)"));
+	}
+}